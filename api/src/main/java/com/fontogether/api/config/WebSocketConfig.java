@@ -1,15 +1,71 @@
 package com.fontogether.api.config;
 
+import com.fontogether.api.service.PresenceService;
+import com.fontogether.api.service.SlowConsumerOutbox;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // @Lazy: built by (or, for the outbox, wired into) the broker configuration that this class configures
+    private final TaskScheduler messageBrokerTaskScheduler;
+    private final PresenceService presenceService;
+    private final SlowConsumerOutbox slowConsumerOutbox;
+
+    @Value("${app.collaboration.presence.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    @Value("${app.websocket.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${app.websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.websocket.inbound.threads:0}")
+    private int inboundThreads;
+
+    @Value("${app.websocket.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${app.websocket.inbound.virtual-concurrency-limit:1000}")
+    private int inboundVirtualConcurrencyLimit;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.websocket.outbound.threads:0}")
+    private int outboundThreads;
+
+    @Value("${app.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    public WebSocketConfig(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler messageBrokerTaskScheduler,
+                           @Lazy PresenceService presenceService,
+                           @Lazy SlowConsumerOutbox slowConsumerOutbox) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+        this.presenceService = presenceService;
+        this.slowConsumerOutbox = slowConsumerOutbox;
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // 1. 클라이언트 연결 엔드포인트
@@ -23,10 +79,71 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         // 2. 메시지 구독 요청 prefix (Server -> Client)
         // 예: /topic/project/1/glyph/A
-        registry.enableSimpleBroker("/topic");
+        // /queue 는 한 세션에만 보내는 메시지용 (클라이언트는 /user/queue/... 로 구독)
+        // STOMP heartbeat: 서로 heartbeat-ms 마다 보내고, 클라이언트에게서 한동안 아무것도 안 오면 브로커가 연결을 끊음
+        registry.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                .setTaskScheduler(messageBrokerTaskScheduler);
+        registry.setUserDestinationPrefix("/user");
 
         // 3. 메시지 발행 요청 prefix (Client -> Server)
         // 예: /app/glyph/update
         registry.setApplicationDestinationPrefixes("/app");
     }
-}
\ No newline at end of file
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // 4. 세션별 전송 한도: 보내지 못하고 쌓인 양이 버퍼 한도를 넘거나 한 번의 전송이 시간 한도를 넘으면 연결을 끊음
+        //    (그 전에 느린 세션으로 가는 메시지는 SlowConsumerOutbox 가 모아서 같은 글리프의 이전 outline 을 버림)
+        registration.setMessageSizeLimit(messageSizeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .addDecoratorFactory(slowConsumerOutbox::decorate);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // 5. 클라이언트로 보내는 스레드 풀 (큐가 차면 보내는 쪽 스레드가 직접 처리해서 속도를 맞춤)
+        //    executor(): Boot 의 기본 설정(applicationTaskExecutor)보다 우선함
+        registration.executor(boundedExecutor("ws-outbound-", outboundThreads, outboundQueueCapacity));
+        registration.interceptors(slowConsumerOutbox);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // 6. 클라이언트에게서 받는 스레드 풀 (큐가 차면 소켓을 읽는 스레드가 직접 처리해서 그 클라이언트를 늦춤)
+        //    가상 스레드 모드에서는 메시지마다 가상 스레드 하나 (동시에 처리 중인 수가 한도에 닿으면 소켓을 읽는 스레드가 기다림)
+        registration.executor(virtualThreads
+                ? virtualExecutor("ws-inbound-", inboundVirtualConcurrencyLimit)
+                : boundedExecutor("ws-inbound-", inboundThreads, inboundQueueCapacity));
+
+        // 클라이언트가 보내는 모든 프레임(heartbeat 포함)으로 세션의 마지막 활동 시각 갱신 (접속 현황 만료 판단용)
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                presenceService.touch(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+                return message;
+            }
+        });
+    }
+
+    // Spring's default is an unbounded queue; metrics come from Boot's executor binding (executor.queued, name=client...ChannelExecutor)
+    private static ThreadPoolTaskExecutor boundedExecutor(String threadNamePrefix, int threads, int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors() * 2;
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    private static org.springframework.core.task.SimpleAsyncTaskExecutor virtualExecutor(String threadNamePrefix, int concurrencyLimit) {
+        org.springframework.core.task.SimpleAsyncTaskExecutor executor = new org.springframework.core.task.SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        return executor;
+    }
+}
@@ -3,7 +3,11 @@ package com.fontogether.api.controller;
 import com.fontogether.api.model.domain.Glyph;
 import com.fontogether.api.model.dto.GlyphUpdateMessage;
 import com.fontogether.api.service.CollaborationService;
+import com.fontogether.api.service.GlyphOutlineService;
 import com.fontogether.api.service.GlyphService;
+import com.fontogether.api.service.GlyphWriteBehindBuffer;
+import com.fontogether.api.service.PresenceService;
+import com.fontogether.api.service.ProjectMailboxExecutor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,6 +25,10 @@ public class GlyphController {
 
     private final GlyphService glyphService;
     private final CollaborationService collaborationService;
+    private final GlyphWriteBehindBuffer glyphWriteBehindBuffer;
+    private final GlyphOutlineService glyphOutlineService;
+    private final PresenceService presenceService;
+    private final ProjectMailboxExecutor projectMailboxExecutor;
 
     /**
      * 특정 글리프 조회
@@ -34,6 +42,7 @@ public class GlyphController {
     public ResponseEntity<Glyph> getGlyph(
             @PathVariable Long projectId,
             @PathVariable String glyphName) {
+        glyphWriteBehindBuffer.flushProject(projectId); // 실시간 편집 중인 최신 outline 포함
         Glyph glyph = glyphService.getGlyph(projectId, glyphName);
         return ResponseEntity.ok(glyph);
     }
@@ -44,6 +53,7 @@ public class GlyphController {
      */
     @GetMapping
     public ResponseEntity<List<Glyph>> getAllGlyphs(@PathVariable Long projectId) {
+        glyphWriteBehindBuffer.flushProject(projectId);
         List<Glyph> glyphs = glyphService.getAllGlyphs(projectId);
         return ResponseEntity.ok(glyphs);
     }
@@ -57,16 +67,17 @@ public class GlyphController {
             @PathVariable Long projectId,
             @RequestBody GlyphUpdateMessage request) {
         
-        glyphService.saveGlyph(
-                projectId,
-                request.getGlyphName(),
-                request.getOutlineData(),
-                request.getAdvanceWidth(),
-                request.getUnicodes()
-        );
+        request.setProjectId(projectId);
+        // 실시간 메시지와 같은 프로젝트 메일박스에서 순서대로 처리하고 결과를 기다림
+        projectMailboxExecutor.call(projectId, () -> {
+            // 버퍼에 남은 이전 편집이 나중에 이 저장을 덮어쓰지 않도록 먼저 반영
+            glyphWriteBehindBuffer.flushProject(projectId);
+            GlyphUpdateMessage saved = glyphOutlineService.save(request);
 
-        // 실시간 브로드캐스트
-        collaborationService.broadcastGlyphUpdate(projectId, request);
+            // 실시간 브로드캐스트
+            collaborationService.broadcastGlyphUpdate(projectId, saved);
+            return saved;
+        });
 
         Glyph savedGlyph = glyphService.getGlyph(projectId, request.getGlyphName());
         return ResponseEntity.ok(savedGlyph);
@@ -81,7 +92,7 @@ public class GlyphController {
            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = Integer.class, example = "3")))
     @GetMapping("/collaborators/count")
     public ResponseEntity<Integer> getActiveUserCount(@PathVariable Long projectId) {
-        int count = collaborationService.getActiveUserCount(projectId);
+        int count = presenceService.getActiveUserCount(projectId);
         return ResponseEntity.ok(count);
     }
 }
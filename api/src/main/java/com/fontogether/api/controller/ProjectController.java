@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,6 +18,16 @@ import java.util.List;
 public class ProjectController {
 
     private final ProjectService projectService;
+    private final com.fontogether.api.service.GlyphWriteBehindBuffer glyphWriteBehindBuffer;
+    private final com.fontogether.api.service.ProjectTimestampBuffer projectTimestampBuffer;
+    private final com.fontogether.api.service.GlyphOrderService glyphOrderService;
+    private final com.fontogether.api.service.OperationLogService operationLogService;
+
+    // Tomcat sendfile request attributes (see org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<Project>> getUserProjects(@PathVariable("userId") Long userId) {
@@ -72,18 +83,79 @@ public class ProjectController {
         }
     }
     
+    // Resync point for /topic/project/{projectId}/glyph/order deltas
+    @GetMapping("/{projectId}/glyph-order")
+    public ResponseEntity<?> getGlyphOrder(@PathVariable("projectId") Long projectId) {
+        try {
+            return ResponseEntity.ok(glyphOrderService.snapshot(projectId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Glyph Order Error: " + e.getMessage());
+        }
+    }
+
+    // Missed collaboration ops for a reconnecting client (resync=true: refetch everything instead)
+    @GetMapping("/{projectId}/ops")
+    public ResponseEntity<?> getOperations(@PathVariable("projectId") Long projectId,
+                                           @org.springframework.web.bind.annotation.RequestParam("since") long since,
+                                           @org.springframework.web.bind.annotation.RequestParam(value = "limit", defaultValue = "1000") int limit) {
+        try {
+            return ResponseEntity.ok(operationLogService.readSince(projectId, since, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Op Log Error: " + e.getMessage());
+        }
+    }
+
     @org.springframework.web.bind.annotation.GetMapping("/{projectId}/export")
     @SuppressWarnings("null")
-    public ResponseEntity<?> exportProject(@org.springframework.web.bind.annotation.PathVariable("projectId") Long projectId) {
+    public ResponseEntity<StreamingResponseBody> exportProject(@org.springframework.web.bind.annotation.PathVariable("projectId") Long projectId,
+                                                               jakarta.servlet.http.HttpServletRequest request) {
+        org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
+        headers.add(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"project_" + projectId + ".zip\"");
+        headers.setContentType(org.springframework.http.MediaType.APPLICATION_OCTET_STREAM);
+
         try {
-            byte[] zipData = projectService.exportProject(projectId);
-            
-            return ResponseEntity.ok()
-                    .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"project_" + projectId + ".zip\"")
-                    .contentType(org.springframework.http.MediaType.APPLICATION_OCTET_STREAM)
-                    .body(zipData);
+            // Buffered real-time edits are part of the export (and of its glyph fingerprint, the cache key below)
+            glyphWriteBehindBuffer.flushProject(projectId);
+            // The export carries the project's updated_at as well
+            projectTimestampBuffer.flushProject(projectId);
+
+            if (!projectService.isExportCacheEnabled()) {
+                // Fail before streaming starts; once the zip is being written the status can no longer change
+                projectService.getProject(projectId);
+
+                // Written on an async thread straight into the response (no byte[] of the whole zip)
+                StreamingResponseBody body = out -> projectService.exportProject(projectId, out);
+                return ResponseEntity.ok().headers(headers).body(body);
+            }
+
+            // Unchanged projects (same revision and glyph rows) are served from the cached file
+            try (com.fontogether.api.service.UfoExportCache.Lease lease = projectService.exportProjectCached(projectId)) {
+                com.fontogether.api.service.UfoExportCache.ExportFile file = lease.file();
+                headers.setContentLength(file.size());
+
+                if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                    // Tomcat sends the file itself (sendfile) once the headers are committed: zero-copy, no body written here.
+                    // It opens the file after we return; the cache keeps retired files for retired-grace-ms after the lease closes
+                    request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+                    request.setAttribute(SENDFILE_START, 0L);
+                    request.setAttribute(SENDFILE_END, file.size());
+                    return ResponseEntity.ok().headers(headers).build();
+                }
+
+                // Opened while leased: the open stream keeps reading the archive even if the cache deletes it meanwhile
+                java.io.InputStream in = java.nio.file.Files.newInputStream(file.path());
+                StreamingResponseBody body = out -> {
+                    try (in) {
+                        in.transferTo(out);
+                    }
+                };
+                return ResponseEntity.ok().headers(headers).body(body);
+            }
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Export Error: " + e.getMessage());
+            String message = "Export Error: " + e.getMessage();
+            return ResponseEntity.badRequest()
+                    .contentType(org.springframework.http.MediaType.TEXT_PLAIN)
+                    .body(out -> out.write(message.getBytes(java.nio.charset.StandardCharsets.UTF_8)));
         }
     }
 
@@ -3,7 +3,10 @@ package com.fontogether.api.controller;
 import com.fontogether.api.model.dto.GlyphUpdateMessage;
 import com.fontogether.api.model.dto.UserPresenceMessage;
 import com.fontogether.api.service.CollaborationService;
-import com.fontogether.api.service.GlyphService;
+import com.fontogether.api.service.GlyphOutlineService;
+import com.fontogether.api.service.GlyphWriteBehindBuffer;
+import com.fontogether.api.service.PresenceService;
+import com.fontogether.api.service.ProjectMailboxExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -14,6 +17,7 @@ import org.springframework.stereotype.Controller;
 /**
  * WebSocket 메시지 처리 컨트롤러
  * 클라이언트가 /app/* 경로로 메시지를 보내면 여기서 처리
+ * 프로젝트 단위 메시지는 ProjectMailboxExecutor 로 넘겨서 같은 프로젝트 안에서는 도착 순서대로 하나씩 처리
  */
 @Slf4j
 @Controller
@@ -21,7 +25,10 @@ import org.springframework.stereotype.Controller;
 public class WebSocketController {
 
     private final CollaborationService collaborationService;
-    private final GlyphService glyphService;
+    private final GlyphWriteBehindBuffer glyphWriteBehindBuffer;
+    private final ProjectMailboxExecutor projectMailboxExecutor;
+    private final GlyphOutlineService glyphOutlineService;
+    private final PresenceService presenceService;
 
     /**
      * 클라이언트가 글리프 업데이트를 보냈을 때
@@ -32,26 +39,26 @@ public class WebSocketController {
         log.info("Received glyph update: projectId={}, unicodes={}, userId={}", 
                 message.getProjectId(), message.getUnicodes(), message.getUserId());
 
-        // 1. DB에 저장
-        try {
-            glyphService.saveGlyph(
-                    message.getProjectId(),
-                    message.getGlyphName(),
-                    message.getOutlineData(), // Changed from getPathData
-                    message.getAdvanceWidth(),
-                    message.getUnicodes()
-            );
+        String sessionId = headerAccessor.getSessionId();
+        projectMailboxExecutor.submit(message.getProjectId(), () -> {
+            try {
+                // 1. 타임스탬프 설정 (없으면 현재 시간으로)
+                if (message.getTimestamp() == null) {
+                    message.setTimestamp(System.currentTimeMillis());
+                }
 
-            // 2. 타임스탬프 설정 (없으면 현재 시간으로)
-            if (message.getTimestamp() == null) {
-                message.setTimestamp(System.currentTimeMillis());
-            }
+                // 2. 현재 outline 에 반영하고 버전(op seq)을 매김 (delta 는 기준 버전이 맞을 때만)
+                //    DB 저장은 write-behind (같은 글리프의 연속 편집은 마지막 것만 주기적으로 저장), op log 도 그 flush 때 글리프별로 한 행
+                GlyphUpdateMessage accepted = glyphOutlineService.accept(message, sessionId);
 
-            // 3. 프로젝트의 모든 사용자에게 브로드캐스트
-            collaborationService.broadcastGlyphUpdate(message.getProjectId(), message);
-        } catch (Exception e) {
-            log.error("Error handling glyph update", e);
-        }
+                // 3. 프로젝트의 모든 사용자에게 브로드캐스트 (delta 는 delta 그대로)
+                if (accepted != null) {
+                    collaborationService.broadcastGlyphUpdate(message.getProjectId(), accepted);
+                }
+            } catch (Exception e) {
+                log.error("Error handling glyph update", e);
+            }
+        });
     }
 
     /**
@@ -66,12 +73,13 @@ public class WebSocketController {
         log.info("Join Headers: {}", headerAccessor.getMessageHeaders());
         log.info("Join Session ID: {}", headerAccessor.getSessionId());
 
-        collaborationService.userJoined(
+        String sessionId = headerAccessor.getSessionId();
+        projectMailboxExecutor.submit(message.getProjectId(), () -> presenceService.userJoined(
                 message.getProjectId(),
                 message.getUserId(),
                 message.getNickname(),
-                headerAccessor.getSessionId()
-        );
+                sessionId
+        ));
     }
 
     /**
@@ -81,11 +89,11 @@ public class WebSocketController {
     @MessageMapping("/project/leave")
     public void handleProjectLeave(@Payload UserPresenceMessage message, SimpMessageHeaderAccessor headerAccessor) {
         log.info("User {} leaving project {}", message.getUserId(), message.getProjectId());
-        collaborationService.userLeft(
+        projectMailboxExecutor.submit(message.getProjectId(), () -> presenceService.userLeft(
                 message.getProjectId(),
                 message.getUserId(),
                 message.getNickname()
-        );
+        ));
     }
 
     /**
@@ -96,12 +104,11 @@ public class WebSocketController {
     public void handleStartEditing(@Payload UserPresenceMessage message) {
         log.info("User {} started editing glyph {} in project {}", 
                 message.getUserId(), message.getEditingUnicode(), message.getProjectId());
-        collaborationService.userStartedEditing(
+        projectMailboxExecutor.submit(message.getProjectId(), () -> presenceService.userStartedEditing(
                 message.getProjectId(),
                 message.getUserId(),
-                message.getNickname(),
                 message.getEditingUnicode()
-        );
+        ));
     }
 
     /**
@@ -111,11 +118,10 @@ public class WebSocketController {
     @MessageMapping("/glyph/stop-editing")
     public void handleStopEditing(@Payload UserPresenceMessage message) {
         log.info("User {} stopped editing in project {}", message.getUserId(), message.getProjectId());
-        collaborationService.userStoppedEditing(
+        projectMailboxExecutor.submit(message.getProjectId(), () -> presenceService.userStoppedEditing(
                 message.getProjectId(),
-                message.getUserId(),
-                message.getNickname()
-        );
+                message.getUserId()
+        ));
     }
 
     /**
@@ -125,7 +131,7 @@ public class WebSocketController {
     @MessageMapping("/project/update/details")
     public void handleProjectDetailUpdate(@Payload com.fontogether.api.model.dto.ProjectDetailUpdateMessage message) {
         log.info("Project detail update: projectId={}, type={}", message.getProjectId(), message.getUpdateType());
-        collaborationService.persistProjectDetail(message);
+        projectMailboxExecutor.submit(message.getProjectId(), () -> collaborationService.persistProjectDetail(message));
     }
 
     /**
@@ -135,6 +141,10 @@ public class WebSocketController {
     @MessageMapping("/glyph/action")
     public void handleGlyphAction(@Payload com.fontogether.api.model.dto.GlyphActionMessage message) {
         log.info("Glyph action: projectId={}, action={}, glyph={}", message.getProjectId(), message.getAction(), message.getGlyphName());
-        collaborationService.handleGlyphAction(message);
+        projectMailboxExecutor.submit(message.getProjectId(), () -> {
+            // Buffered outline edits must land before the glyph is renamed/deleted/reordered
+            glyphWriteBehindBuffer.flushProject(message.getProjectId());
+            collaborationService.handleGlyphAction(message);
+        });
     }
 }
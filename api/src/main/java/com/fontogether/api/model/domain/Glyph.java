@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Glyph {
@@ -19,9 +19,11 @@ public class Glyph {
     private java.util.List<String> unicodes;
     private Integer advanceWidth;
     private Integer advanceHeight;
-    private Integer sortOrder;
+    private Double sortOrder;        // 분수 정렬 키 (작을수록 앞)
     private String outlineData;      // JSON 데이터 (베지에 곡선 정보)
     private String properties;       // JSONB properties
     private String lastModifiedBy;
     private LocalDateTime updatedAt;
+    private Long outlineVersion;     // 마지막 outline 변경의 op seq (outline delta 기준 버전)
+    private Long revision;           // 내용이 바뀔 때마다 DB 시퀀스에서 새로 받는 값 (export .glif 캐시 키)
 }
\ No newline at end of file
@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Project {
@@ -27,6 +27,7 @@ public class Project {
     
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long revision;      // Bumped on every project/glyph change
     
     // Transient fields for API response
     private String role;      // OWNER, EDITOR, VIEWER
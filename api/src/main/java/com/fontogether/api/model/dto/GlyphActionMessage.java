@@ -29,6 +29,9 @@ public class GlyphActionMessage {
     // For MOVE
     private Integer toIndex;
     
+    // Assigned by the server (op log)
+    private Long seq;
+    
     public enum ActionType {
         ADD, DELETE, RENAME, REORDER, MOVE
     }
@@ -0,0 +1,43 @@
+package com.fontogether.api.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * public.glyphOrder 변경분 (/topic/project/{projectId}/glyph/order)
+ * - seq: 프로젝트별 1씩 증가. 받은 seq 가 마지막 seq + 1 이 아니면 스냅샷(GET /api/projects/{projectId}/glyph-order)으로 다시 맞춤
+ * - null 필드는 보내지 않음
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GlyphOrderDelta {
+    private Long seq;
+    private Op op;
+
+    // INSERT, REMOVE, MOVE, RENAME
+    private String name;
+
+    // INSERT, REMOVE, RENAME: position of the glyph
+    private Integer index;
+
+    // MOVE: old and new position
+    private Integer from;
+    private Integer to;
+
+    // RENAME
+    private String newName;
+
+    // RESET (REORDER): the whole new order
+    private List<String> glyphOrder;
+
+    public enum Op {
+        INSERT, REMOVE, MOVE, RENAME, RESET
+    }
+}
@@ -0,0 +1,17 @@
+package com.fontogether.api.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * public.glyphOrder 전체와 그 시점의 seq (GlyphOrderDelta 는 seq 보다 큰 것만 적용)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlyphOrderSnapshot {
+    private Long seq;
+    private List<String> glyphOrder;
+}
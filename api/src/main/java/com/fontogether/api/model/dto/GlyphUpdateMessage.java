@@ -1,5 +1,6 @@
 package com.fontogether.api.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -7,11 +8,14 @@ import lombok.NoArgsConstructor;
 
 /**
  * WebSocket을 통해 전송되는 Glyph 업데이트 메시지
+ * - outlineData(전체) 또는 baseVersion + outlineDelta(부분 수정) 중 하나
+ * - null 필드는 보내지 않음 (delta 브로드캐스트에 outlineData 가 실리지 않도록)
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class GlyphUpdateMessage {
     private Long projectId;
     private java.util.List<String> unicodes;
@@ -21,4 +25,9 @@ public class GlyphUpdateMessage {
     private Long userId;      // 변경한 사용자 ID
     private String nickname;  // 변경한 사용자 닉네임
     private Long timestamp;   // 변경 시각 (Unix timestamp)
+    private Long seq;         // 서버가 매기는 프로젝트별 op 번호 (op log, 클라이언트가 보낼 필요 없음)
+
+    private Long baseVersion; // delta 를 만든 기준 outline 버전 (서버 버전과 다르면 거절하고 보낸 세션에 전체 outline 전송)
+    private java.util.List<OutlineEdit> outlineDelta; // outlineData 대신 보내는 부분 수정
+    private Long version;     // 적용 후 outline 버전 (서버가 매김, 다음 delta 의 baseVersion)
 }
@@ -0,0 +1,33 @@
+package com.fontogether.api.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * op log 한 건 (GET /api/projects/{projectId}/ops)
+ * payload 는 해당 토픽으로 브로드캐스트된 메시지와 같은 JSON
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperationLogEntry {
+    private Long seq;
+    private OpType opType;
+    private String glyphName;
+    private Long userId;
+    @JsonRawValue
+    private String payload;
+    private LocalDateTime createdAt;
+
+    public enum OpType {
+        GLYPH_UPDATE,   // /topic/project/{projectId}/glyph/update
+        GLYPH_ACTION,   // /topic/project/{projectId}/glyph/action
+        PROJECT_DETAIL  // /topic/project/{projectId}/update/details
+    }
+}
@@ -0,0 +1,24 @@
+package com.fontogether.api.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * since 이후의 op 목록
+ * - resync 가 true 면 since 가 압축으로 지워진 구간이라 이어받을 수 없음 (전체를 다시 조회)
+ * - hasMore 가 true 면 마지막 op 의 seq 로 다시 요청
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperationLogPage {
+    private Long since;
+    private Long latestSeq;
+    private boolean resync;
+    private boolean hasMore;
+    private List<OperationLogEntry> ops;
+}
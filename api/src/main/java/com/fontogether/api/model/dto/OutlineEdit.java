@@ -0,0 +1,32 @@
+package com.fontogether.api.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * outline 부분 수정 한 건 (GlyphUpdateMessage.outlineDelta)
+ * - contour / point 는 0-based 인덱스, 목록 안의 edit 은 앞에서부터 차례로 적용
+ * - MOVE_POINT: x, y (절대 좌표) / INSERT_POINT: value = 점 객체 / INSERT_CONTOUR: value = 컨투어 객체
+ * - null 필드는 보내지 않음
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OutlineEdit {
+    private Op op;
+    private Integer contour;
+    private Integer point;
+    private Double x;
+    private Double y;
+    private JsonNode value;
+
+    public enum Op {
+        MOVE_POINT, INSERT_POINT, DELETE_POINT, INSERT_CONTOUR, DELETE_CONTOUR
+    }
+}
@@ -0,0 +1,33 @@
+package com.fontogether.api.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * 접속 현황 메시지
+ * - DIFF: /topic/project/{projectId}/presence 로 주기적으로(변경이 있을 때만) 전송, 그동안 상태가 바뀐 사용자의 마지막 상태만
+ * - SNAPSHOT: 입장한 세션에만 /user/queue/presence 로 전송, 현재 접속 중인 사용자 전체
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceMessage {
+    private Type type;
+    private Long projectId;
+    private Integer activeCount;
+    private List<UserState> users;
+    private Long timestamp;
+
+    public enum Type {
+        DIFF, SNAPSHOT
+    }
+
+    /**
+     * online=false 이면 나간 사용자 (nickname, editingUnicode 는 null), editingUnicode=null 이면 편집 중인 글리프 없음
+     */
+    public record UserState(Long userId, String nickname, boolean online, Integer editingUnicode) {}
+}
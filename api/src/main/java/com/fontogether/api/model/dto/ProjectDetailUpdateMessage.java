@@ -18,4 +18,6 @@ public class ProjectDetailUpdateMessage {
     private Long userId;     // 수정자
     private String updateType; // "META_INFO", "FONT_INFO", "GROUPS", "KERNING", "FEATURES", "LAYER_CONFIG"
     private String data;     // JSON String or Content
+    private String patchType; // null: data 가 문서 전체, "MERGE": data 가 RFC 7396 merge patch (바뀐 키만, 삭제는 null)
+    private Long seq;        // 서버가 매기는 프로젝트별 op 번호 (op log)
 }
@@ -43,8 +43,10 @@ public class GlyphRepository {
             .outlineData(rs.getString("outline_data"))
             .properties(rs.getString("properties"))
             .lastModifiedBy(rs.getString("last_modified_by"))
-            .sortOrder(rs.getObject("sort_order") != null ? rs.getInt("sort_order") : null)
+            .sortOrder(rs.getObject("sort_order") != null ? rs.getDouble("sort_order") : null)
             .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+            .outlineVersion(rs.getLong("outline_version"))
+            .revision(rs.getLong("revision"))
             .build();
     };
 
@@ -72,13 +74,54 @@ public class GlyphRepository {
             ps.setString(7, glyph.getOutlineData());
             ps.setString(8, glyph.getProperties());
             ps.setString(9, glyph.getLastModifiedBy());
-            ps.setObject(10, glyph.getSortOrder(), java.sql.Types.INTEGER);
+            ps.setObject(10, glyph.getSortOrder(), java.sql.Types.DOUBLE);
             return ps;
         }, keyHolder);
 
         return (java.util.UUID) keyHolder.getKeys().get("glyph_uuid");
     }
 
+    // 2-1. 대량 저장 (Import / Template 용 JDBC batch INSERT)
+    private static final int BULK_BATCH_SIZE = 1000;
+
+    /**
+     * Inserts all glyphs of a project in JDBC batches of {@value #BULK_BATCH_SIZE} rows.
+     * Unlike {@link #save(Glyph)} no generated keys are fetched, so the driver can
+     * rewrite each batch into a single multi-row INSERT (reWriteBatchedInserts).
+     */
+    public int saveAll(Long projectId, List<Glyph> glyphs) {
+        String sql = """
+                INSERT INTO glyph (project_id, layer_name, glyph_name, unicodes, advance_width, advance_height, outline_data, properties, last_modified_by, sort_order, format_version)
+                VALUES (?, ?, ?, ?, ?, ?, ?::jsonb, ?::jsonb, ?, ?, COALESCE(?, 2))
+                """;
+
+        int[][] counts = jdbcTemplate.batchUpdate(sql, glyphs, BULK_BATCH_SIZE, (ps, glyph) -> {
+            ps.setLong(1, projectId);
+            ps.setString(2, glyph.getLayerName());
+            ps.setString(3, glyph.getGlyphName());
+
+            String[] unicodeArr = glyph.getUnicodes() != null ? glyph.getUnicodes().toArray(new String[0]) : new String[0];
+            ps.setArray(4, ps.getConnection().createArrayOf("varchar", unicodeArr));
+
+            ps.setObject(5, glyph.getAdvanceWidth(), java.sql.Types.INTEGER);
+            ps.setObject(6, glyph.getAdvanceHeight(), java.sql.Types.INTEGER);
+            ps.setString(7, glyph.getOutlineData());
+            ps.setString(8, glyph.getProperties());
+            ps.setString(9, glyph.getLastModifiedBy());
+            ps.setObject(10, glyph.getSortOrder(), java.sql.Types.DOUBLE);
+            ps.setObject(11, glyph.getFormatVersion(), java.sql.Types.INTEGER);
+        });
+
+        int inserted = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Rewritten batches report SUCCESS_NO_INFO (-2) per row
+                inserted += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+        return inserted;
+    }
+
     // 3. 조회
     public Optional<Glyph> findByProjectAndName(Long projectId, String glyphName) {
         String sql = "SELECT * FROM glyph WHERE project_id = ? AND glyph_name = ?";
@@ -90,12 +133,41 @@ public class GlyphRepository {
         String sql = "SELECT * FROM glyph WHERE project_id = ? ORDER BY sort_order ASC, glyph_name ASC";
         return jdbcTemplate.query(sql, glyphRowMapper, projectId);
     }
+
+    // 3-1. 스트리밍 조회 (Export 용 커서)
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * findAllByProjectId 와 같은 순서로 글리프를 한 행씩 전달 (List 로 모으지 않음)
+     * - PostgreSQL 은 autocommit 이 꺼져 있을 때만 fetchSize 로 커서를 사용하므로 트랜잭션 안에서 호출해야 함
+     */
+    public void streamAllByProjectId(Long projectId, java.util.function.Consumer<Glyph> action) {
+        String sql = "SELECT * FROM glyph WHERE project_id = ? ORDER BY sort_order ASC, glyph_name ASC";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, java.sql.ResultSet.TYPE_FORWARD_ONLY, java.sql.ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            ps.setLong(1, projectId);
+            return ps;
+        }, (org.springframework.jdbc.core.RowCallbackHandler) rs -> action.accept(glyphRowMapper.mapRow(rs, rs.getRow())));
+    }
     
+    // 3-1. export 캐시 키용 글리프 행 지문: 글리프 쓰기는 모두 revision 을 새로 받고, 순서는 sort_order, 삭제는 uuid 목록에 드러남
+    //      (프로젝트의 revision 과 달리 서버별 버퍼를 거치지 않음, export 와 같은 스냅샷에서 호출)
+    public String findExportFingerprint(Long projectId) {
+        String sql = """
+            SELECT md5(COALESCE(string_agg(glyph_uuid::text || ':' || revision || ':' || COALESCE(sort_order::text, ''), ','
+                                           ORDER BY glyph_uuid), ''))
+            FROM glyph WHERE project_id = ?
+        """;
+        return jdbcTemplate.queryForObject(sql, String.class, projectId);
+    }
+
     // 4. 업데이트
     public void update(Glyph glyph) {
         String sql = """
                 UPDATE glyph 
-                SET glyph_name = ?, unicodes = ?, advance_width = ?, advance_height = ?, outline_data = ?::jsonb, properties = ?::jsonb, last_modified_by = ?, sort_order = ?, updated_at = NOW()
+                SET glyph_name = ?, unicodes = ?, advance_width = ?, advance_height = ?, outline_data = ?::jsonb, properties = ?::jsonb, last_modified_by = ?, sort_order = ?, updated_at = NOW(),
+                    revision = nextval('glyph_revision_seq')
                 WHERE glyph_uuid = ?
                 """;
         
@@ -114,21 +186,188 @@ public class GlyphRepository {
             ps.setString(5, glyph.getOutlineData());
             ps.setString(6, glyph.getProperties());
             ps.setString(7, glyph.getLastModifiedBy());
-            ps.setObject(8, glyph.getSortOrder(), java.sql.Types.INTEGER);
+            ps.setObject(8, glyph.getSortOrder(), java.sql.Types.DOUBLE);
             ps.setObject(9, glyph.getGlyphUuid());
             return ps;
         });
     }
     
+    /*
+     * 4-1. outline upsert (한 문장, 한 번의 왕복)
+     * - 이름이 같은 기존 글리프(레이어 무관, 첫 행)가 있으면 outline/advance/unicodes 갱신
+     * - 없으면 'public' 레이어, 정렬 키는 맨 뒤로 INSERT, 동시에 같은 글리프가 생성되면 ON CONFLICT 로 갱신
+     * - unicodes 는 null 이면 기존 값 유지 (saveGlyph 규칙)
+     * - outline_version 은 항상 새 값 (내용이 바뀌었는데 버전이 그대로면 이전 버전 기준 delta 가 적용될 수 있음), revision 도 새 값
+     * - 저장된 outline_version 이 더 크면 아무것도 바꾸지 않음 (다른 서버의 write-behind 가 더 새 버전을 먼저 저장한 경우)
+     * 파라미터: outline, width, unicodes, version, projectId, glyphName, version (UPDATE)
+     *          / projectId, glyphName, unicodes, width, outline, version, projectId, projectId, glyphName, unicodes, version (INSERT)
+     */
+    private static final String UPSERT_OUTLINE_CTE = """
+            WITH updated AS (
+                UPDATE glyph
+                SET outline_data = ?::jsonb, advance_width = ?, unicodes = COALESCE(?::varchar[], unicodes), outline_version = ?, updated_at = NOW(),
+                    revision = nextval('glyph_revision_seq')
+                WHERE glyph_uuid = (SELECT glyph_uuid FROM glyph WHERE project_id = ? AND glyph_name = ? LIMIT 1)
+                  AND outline_version <= ?
+                RETURNING glyph_uuid
+            )
+            """;
+
+    private static final String UPSERT_OUTLINE_INSERT = """
+            INSERT INTO glyph (project_id, layer_name, glyph_name, unicodes, advance_width, advance_height, outline_data, outline_version, properties, sort_order)
+            SELECT ?, 'public', ?, COALESCE(?::varchar[], '{}'), ?, 1000, ?::jsonb, ?, '{}'::jsonb,
+                   (SELECT COALESCE(MAX(g.sort_order), 0) + 1 FROM glyph g WHERE g.project_id = ?)
+            WHERE NOT EXISTS (SELECT 1 FROM glyph g WHERE g.project_id = ? AND g.glyph_name = ?)
+            ON CONFLICT (project_id, layer_name, glyph_name) DO UPDATE
+            SET outline_data = EXCLUDED.outline_data, advance_width = EXCLUDED.advance_width,
+                unicodes = COALESCE(?::varchar[], glyph.unicodes), outline_version = ?, updated_at = NOW(),
+                revision = nextval('glyph_revision_seq')
+            WHERE glyph.outline_version <= EXCLUDED.outline_version
+            """;
+
+    public java.util.UUID upsertOutline(Long projectId, String glyphName, String outlineData, Integer advanceWidth, List<String> unicodes,
+                                        long outlineVersion) {
+        String sql = UPSERT_OUTLINE_CTE + """
+                , inserted AS (
+                """ + UPSERT_OUTLINE_INSERT + """
+                    RETURNING glyph_uuid
+                )
+                SELECT glyph_uuid FROM updated
+                UNION ALL
+                SELECT glyph_uuid FROM inserted
+                """;
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            setUpsertParameters(ps, projectId, glyphName, outlineData, advanceWidth, unicodes, outlineVersion);
+            return ps;
+        }, rs -> rs.next() ? (java.util.UUID) rs.getObject("glyph_uuid") : null);
+    }
+
+    // 4-2. outline 일괄 upsert (write-behind flush 용, 결과 행 없이 batch 로 전송)
+    public void upsertOutlines(Long projectId, List<Glyph> glyphs) {
+        String sql = UPSERT_OUTLINE_CTE + UPSERT_OUTLINE_INSERT;
+
+        jdbcTemplate.batchUpdate(sql, new org.springframework.jdbc.core.BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws java.sql.SQLException {
+                Glyph glyph = glyphs.get(i);
+                setUpsertParameters(ps, projectId, glyph.getGlyphName(), glyph.getOutlineData(), glyph.getAdvanceWidth(), glyph.getUnicodes(),
+                        glyph.getOutlineVersion());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return glyphs.size();
+            }
+        });
+    }
+
+    private void setUpsertParameters(PreparedStatement ps, Long projectId, String glyphName, String outlineData,
+                                     Integer advanceWidth, List<String> unicodes, long outlineVersion) throws java.sql.SQLException {
+        java.sql.Array unicodeArray = unicodes != null
+                ? ps.getConnection().createArrayOf("varchar", unicodes.toArray(new String[0]))
+                : null;
+
+        // UPDATE
+        ps.setString(1, outlineData);
+        ps.setObject(2, advanceWidth, java.sql.Types.INTEGER);
+        ps.setArray(3, unicodeArray);
+        ps.setLong(4, outlineVersion);
+        ps.setLong(5, projectId);
+        ps.setString(6, glyphName);
+        ps.setLong(7, outlineVersion);
+        // INSERT ... ON CONFLICT
+        ps.setLong(8, projectId);
+        ps.setString(9, glyphName);
+        ps.setArray(10, unicodeArray);
+        ps.setObject(11, advanceWidth, java.sql.Types.INTEGER);
+        ps.setString(12, outlineData);
+        ps.setLong(13, outlineVersion);
+        ps.setLong(14, projectId);
+        ps.setLong(15, projectId);
+        ps.setString(16, glyphName);
+        ps.setArray(17, unicodeArray);
+        ps.setLong(18, outlineVersion);
+    }
+
     // 5. 삭제
     public void delete(Glyph glyph) {
         String sql = "DELETE FROM glyph WHERE glyph_uuid = ?";
         jdbcTemplate.update(sql, glyph.getGlyphUuid());
     }
 
-    // 6. 순서 업데이트 (가볍게 정렬 순서만 변경)
-    public void updateSortOrder(Long projectId, String glyphName, int sortOrder) {
+    public void deleteAllByProjectId(Long projectId) {
+        String sql = "DELETE FROM glyph WHERE project_id = ?";
+        jdbcTemplate.update(sql, projectId);
+    }
+
+    // 6. 순서 (분수 정렬 키)
+    // 6-1. 같은 프로젝트의 순서 변경(이동/재배치)을 직렬화 (트랜잭션 종료 시 해제)
+    public void lockGlyphOrder(Long projectId) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?))", rs -> null, "glyph-order:" + projectId);
+    }
+
+    // 6-2. 한 글리프의 정렬 키만 변경
+    public int updateSortOrder(Long projectId, String glyphName, double sortOrder) {
         String sql = "UPDATE glyph SET sort_order = ? WHERE project_id = ? AND glyph_name = ?";
-        jdbcTemplate.update(sql, sortOrder, projectId, glyphName);
+        return jdbcTemplate.update(sql, sortOrder, projectId, glyphName);
+    }
+
+    /**
+     * 6-3. 정렬 순서상 offset 번째부터 limit 개 글리프의 키 (excludedName 제외, 키가 없는 행은 null 로 맨 뒤)
+     * (project_id, sort_order) 인덱스 순서로 읽으므로 글리프 전체를 정렬하지 않음
+     */
+    public List<Double> findSortOrders(Long projectId, String excludedName, int offset, int limit) {
+        String sql = """
+                SELECT sort_order FROM glyph
+                WHERE project_id = ? AND glyph_name <> ?
+                ORDER BY sort_order ASC, glyph_name ASC
+                OFFSET ? LIMIT ?
+                """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getObject("sort_order") != null ? rs.getDouble("sort_order") : null,
+                projectId, excludedName, offset, limit);
+    }
+
+    public int countOtherGlyphs(Long projectId, String excludedName) {
+        String sql = "SELECT COUNT(*) FROM glyph WHERE project_id = ? AND glyph_name <> ?";
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, projectId, excludedName);
+        return count != null ? count : 0;
+    }
+
+    // 6-4. 전체 재배치: 목록 순서대로 1, 2, 3... (목록에 없는 글리프는 그대로), 한 문장으로 처리
+    public void updateSortOrders(Long projectId, List<String> glyphNames) {
+        String sql = """
+                UPDATE glyph g SET sort_order = o.ord
+                FROM unnest(?::varchar[]) WITH ORDINALITY AS o(name, ord)
+                WHERE g.project_id = ? AND g.glyph_name = o.name AND g.sort_order IS DISTINCT FROM o.ord
+                """;
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setArray(1, connection.createArrayOf("varchar", glyphNames.toArray(new String[0])));
+            ps.setLong(2, projectId);
+            return ps;
+        });
+    }
+
+    // 6-5. 키 간격 재조정: 현재 순서를 유지한 채 1, 2, 3... 으로 다시 매김 (키 없는 글리프는 이름순으로 맨 뒤)
+    public int rebalanceSortOrders(Long projectId) {
+        String sql = """
+                UPDATE glyph g SET sort_order = r.rn
+                FROM (SELECT glyph_uuid, row_number() OVER (ORDER BY sort_order ASC, glyph_name ASC) AS rn
+                      FROM glyph WHERE project_id = ?) r
+                WHERE g.glyph_uuid = r.glyph_uuid AND g.sort_order IS DISTINCT FROM r.rn
+                """;
+        return jdbcTemplate.update(sql, projectId);
+    }
+
+    // 6-6. lib 의 public.glyphOrder 로 쓰는 이름 순서 (레이어가 여러 개여도 이름당 한 번)
+    public List<String> findGlyphOrder(Long projectId) {
+        String sql = """
+                SELECT glyph_name FROM glyph WHERE project_id = ?
+                GROUP BY glyph_name
+                ORDER BY MIN(sort_order) ASC, glyph_name ASC
+                """;
+        return jdbcTemplate.queryForList(sql, String.class, projectId);
     }
-}
\ No newline at end of file
+}
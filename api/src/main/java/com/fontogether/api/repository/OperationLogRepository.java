@@ -0,0 +1,170 @@
+package com.fontogether.api.repository;
+
+import com.fontogether.api.model.dto.OperationLogEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OperationLogRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 1. RowMapper
+    private final RowMapper<OperationLogEntry> entryRowMapper = (rs, rowNum) -> OperationLogEntry.builder()
+            .seq(rs.getLong("seq"))
+            .opType(OperationLogEntry.OpType.valueOf(rs.getString("op_type")))
+            .glyphName(rs.getString("glyph_name"))
+            .userId(rs.getObject("user_id", Long.class))
+            .payload(rs.getString("payload"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    private static final String INSERT_SQL = """
+        INSERT INTO project_op_log (project_id, seq, op_type, glyph_name, user_id, payload, created_at)
+        VALUES (?, ?, ?, ?, ?, ?::jsonb, ?)
+    """;
+
+    // 2. 저장
+    // 2-1. 다음 seq (값은 project_op_global_seq): 카운터 행 잠금은 호출한 트랜잭션이 끝날 때까지 유지됨
+    //      (잠금을 거친 op 는 seq 순서대로 커밋, 동시에 처음 만들면 ON CONFLICT 쪽이 새 값을 받음)
+    public long nextSeq(Long projectId) {
+        String updateSql = "UPDATE project_op_seq SET last_seq = nextval('project_op_global_seq') WHERE project_id = ? RETURNING last_seq";
+        List<Long> seqs = jdbcTemplate.queryForList(updateSql, Long.class, projectId);
+        if (!seqs.isEmpty()) return seqs.get(0);
+
+        String insertSql = """
+            INSERT INTO project_op_seq AS s (project_id, last_seq)
+            VALUES (?, nextval('project_op_global_seq'))
+            ON CONFLICT (project_id) DO UPDATE SET last_seq = nextval('project_op_global_seq')
+            RETURNING last_seq
+        """;
+        return jdbcTemplate.queryForObject(insertSql, Long.class, projectId);
+    }
+
+    // 2-1-1. 잠금 없이 다음 seq (실시간 outline 편집의 버전, 트랜잭션 불필요): 모든 서버에서 부른 순서대로 커짐
+    public long nextUnlockedSeq() {
+        Long seq = jdbcTemplate.queryForObject("SELECT nextval('project_op_global_seq')", Long.class);
+        return seq != null ? seq : 0L;
+    }
+
+    // 2-2. op 한 건 (seq 가 겹치면 PK 위반으로 실패)
+    public void insert(Long projectId, OperationLogEntry entry) {
+        jdbcTemplate.update(INSERT_SQL, ps -> setInsertParameters(ps, projectId, entry));
+    }
+
+    // 2-2-1. op 여러 건 (write-behind flush 용, batch 로 전송)
+    public void insertAll(Long projectId, List<OperationLogEntry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new org.springframework.jdbc.core.BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws java.sql.SQLException {
+                setInsertParameters(ps, projectId, entries.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    private void setInsertParameters(PreparedStatement ps, Long projectId, OperationLogEntry entry) throws java.sql.SQLException {
+        ps.setLong(1, projectId);
+        ps.setLong(2, entry.getSeq());
+        ps.setString(3, entry.getOpType().name());
+        ps.setString(4, entry.getGlyphName());
+        if (entry.getUserId() != null) {
+            ps.setLong(5, entry.getUserId());
+        } else {
+            ps.setNull(5, Types.BIGINT);
+        }
+        ps.setString(6, entry.getPayload());
+        ps.setTimestamp(7, Timestamp.valueOf(entry.getCreatedAt()));
+    }
+
+    // 2-3. glyphOrder 변경 번호 (/topic/project/{projectId}/glyph/order 의 seq, 서버 공통): 같은 카운터 행에 있음
+    //      lockOrderSeq 는 행을 잠그고(없으면 만들고) 현재 값을, nextOrderSeq 는 1 올린 값을 돌려줌
+    public long lockOrderSeq(Long projectId) {
+        return addOrderSeq(projectId, 0);
+    }
+
+    public long nextOrderSeq(Long projectId) {
+        return addOrderSeq(projectId, 1);
+    }
+
+    private long addOrderSeq(Long projectId, int step) {
+        String sql = """
+            INSERT INTO project_op_seq AS s (project_id, last_seq, order_seq)
+            VALUES (?, GREATEST(
+                COALESCE((SELECT MAX(seq) FROM project_op_log WHERE project_id = ?), 0),
+                COALESCE((SELECT op_compacted_seq FROM font_project WHERE project_id = ?), 0)), ?)
+            ON CONFLICT (project_id) DO UPDATE SET order_seq = s.order_seq + ?
+            RETURNING order_seq
+        """;
+        Long seq = jdbcTemplate.queryForObject(sql, Long.class, projectId, projectId, projectId, step, step);
+        return seq != null ? seq : 0L;
+    }
+
+    // 3. 조회
+    // 3-1. since 이후의 op (seq 순)
+    public List<OperationLogEntry> findSince(Long projectId, long since, int limit) {
+        String sql = """
+            SELECT seq, op_type, glyph_name, user_id, payload::text AS payload, created_at
+            FROM project_op_log
+            WHERE project_id = ? AND seq > ?
+            ORDER BY seq
+            LIMIT ?
+        """;
+        return jdbcTemplate.query(sql, entryRowMapper, projectId, since, limit);
+    }
+
+    // 3-2. 커밋된 마지막 seq (카운터가 아직 없으면 op log, 압축으로 로그가 비어 있어도 번호가 되돌아가지 않도록 op_compacted_seq 와 비교)
+    public long findLastSeq(Long projectId) {
+        String sql = """
+            SELECT GREATEST(
+                COALESCE((SELECT last_seq FROM project_op_seq WHERE project_id = ?), 0),
+                COALESCE((SELECT MAX(seq) FROM project_op_log WHERE project_id = ?), 0),
+                COALESCE((SELECT op_compacted_seq FROM font_project WHERE project_id = ?), 0))
+        """;
+        Long seq = jdbcTemplate.queryForObject(sql, Long.class, projectId, projectId, projectId);
+        return seq != null ? seq : 0L;
+    }
+
+    // 3-2-1. 지금까지 어느 프로젝트에든 준 마지막 seq (아직 flush 되지 않은 outline 편집의 seq 도 이보다 크지 않음)
+    public long findIssuedSeq() {
+        Long seq = jdbcTemplate.queryForObject("SELECT last_value FROM project_op_global_seq", Long.class);
+        return seq != null ? seq : 0L;
+    }
+
+    // 3-3. 압축으로 지운 마지막 seq
+    public long findCompactedSeq(Long projectId) {
+        String sql = "SELECT op_compacted_seq FROM font_project WHERE project_id = ?";
+        List<Long> seqs = jdbcTemplate.queryForList(sql, Long.class, projectId);
+        return seqs.isEmpty() || seqs.get(0) == null ? 0L : seqs.get(0);
+    }
+
+    // 4. 압축: before 이전의 op 를 지우고 프로젝트별로 지운 마지막 seq 를 기록
+    //    (한 문장이라 중간 상태가 보이지 않음, WITH 안의 UPDATE 는 참조하지 않아도 실행됨)
+    public int deleteOlderThan(LocalDateTime before) {
+        String sql = """
+            WITH deleted AS (
+                DELETE FROM project_op_log WHERE created_at < ? RETURNING project_id, seq
+            ), compacted AS (
+                UPDATE font_project p SET op_compacted_seq = GREATEST(p.op_compacted_seq, d.max_seq)
+                FROM (SELECT project_id, MAX(seq) AS max_seq FROM deleted GROUP BY project_id) d
+                WHERE p.project_id = d.project_id
+            )
+            SELECT COUNT(*) FROM deleted
+        """;
+        Long deleted = jdbcTemplate.queryForObject(sql, Long.class, Timestamp.valueOf(before));
+        return deleted != null ? deleted.intValue() : 0;
+    }
+}
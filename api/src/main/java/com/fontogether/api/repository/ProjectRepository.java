@@ -33,6 +33,7 @@ public class ProjectRepository {
                     .lib(rs.getString("lib"))
                     .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
                     .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+                    .revision(rs.getLong("revision"))
                     .build();
         }
     };
@@ -44,7 +45,7 @@ public class ProjectRepository {
         String sql = """
             SELECT DISTINCT p.project_id, p.title, p.owner_id, p.meta_info, p.font_info, 
                             p.groups, p.kerning, p.features, p.layer_config, p.lib, 
-                            p.created_at, p.updated_at,
+                            p.created_at, p.updated_at, p.revision,
                             u.nickname as owner_nickname, u.email as owner_email,
                             CASE WHEN p.owner_id = ? THEN 'OWNER' ELSE 'EDITOR' END as role,
                             (SELECT COUNT(*) FROM project_collaborators pc_check WHERE pc_check.project_id = p.project_id) as collaborator_count
@@ -108,7 +109,7 @@ public class ProjectRepository {
     }
 
     public void update(Project project) {
-        String sql = "UPDATE font_project SET title = ?, updated_at = NOW() WHERE project_id = ?";
+        String sql = "UPDATE font_project SET title = ?, updated_at = NOW(), revision = revision + 1 WHERE project_id = ?";
         jdbcTemplate.update(sql, project.getTitle(), project.getProjectId());
     }
 
@@ -122,22 +123,78 @@ public class ProjectRepository {
         jdbcTemplate.update(sql, ownerId);
     }
 
+    private static final java.util.Set<String> DETAIL_COLUMNS = java.util.Set.of("meta_info", "font_info", "groups", "kerning", "features", "layer_config", "lib");
+
     public void updateProjectDetail(Long projectId, String column, String data) {
         // Validate column name to prevent SQL injection (Allowed list)
-        if (!java.util.Set.of("meta_info", "font_info", "groups", "kerning", "features", "layer_config", "lib").contains(column)) {
+        if (!DETAIL_COLUMNS.contains(column)) {
             throw new IllegalArgumentException("Invalid column name: " + column);
         }
 
-        String sql = "UPDATE font_project SET " + column + " = ?::jsonb, updated_at = NOW() WHERE project_id = ?";
+        String sql = "UPDATE font_project SET " + column + " = ?::jsonb, updated_at = NOW(), revision = revision + 1 WHERE project_id = ?";
         
         jdbcTemplate.update(sql, data, projectId);
     }
 
+    // 상세 정보 부분 수정 (RFC 7396 merge patch 를 DB 에서 적용: 문서 전체를 주고받지 않고, 다른 키를 수정한 동시 편집도 덮어쓰지 않음)
+    public void patchProjectDetail(Long projectId, String column, String mergePatch) {
+        if (!DETAIL_COLUMNS.contains(column)) {
+            throw new IllegalArgumentException("Invalid column name: " + column);
+        }
+
+        String sql = "UPDATE font_project SET " + column + " = jsonb_merge_patch(COALESCE(" + column + ", '{}'::jsonb), ?::jsonb), "
+                + "updated_at = NOW(), revision = revision + 1 WHERE project_id = ?";
+
+        jdbcTemplate.update(sql, mergePatch, projectId);
+    }
+
+    // Glyph 변경 시 호출: revision 도 올려서 export 캐시가 무효화되도록
     public void updateTimestamp(Long projectId) {
-        String sql = "UPDATE font_project SET updated_at = NOW() WHERE project_id = ?";
+        String sql = "UPDATE font_project SET updated_at = NOW(), revision = revision + 1 WHERE project_id = ?";
         jdbcTemplate.update(sql, projectId);
     }
 
+    /*
+     * lib.public.glyphOrder 부분 수정 (GlyphOrderService 용)
+     * - lib 전체를 읽고 쓰지 않고 배열 원소 하나만 jsonb_insert / #- / jsonb_set 으로 변경
+     * - updated_at/revision 은 ProjectTimestampBuffer 가 반영
+     */
+    private static final String GLYPH_ORDER_KEY = "public.glyphOrder";
+
+    public void setLibGlyphOrder(Long projectId, String glyphOrderJson) {
+        String sql = "UPDATE font_project SET lib = jsonb_set(COALESCE(lib, '{}'::jsonb), ARRAY[?]::text[], ?::jsonb) WHERE project_id = ?";
+        jdbcTemplate.update(sql, GLYPH_ORDER_KEY, glyphOrderJson, projectId);
+    }
+
+    public void insertIntoLibGlyphOrder(Long projectId, int index, String glyphName) {
+        String sql = "UPDATE font_project SET lib = jsonb_insert(lib, ARRAY[?, ?]::text[], to_jsonb(?::text)) WHERE project_id = ?";
+        jdbcTemplate.update(sql, GLYPH_ORDER_KEY, String.valueOf(index), glyphName, projectId);
+    }
+
+    public void removeFromLibGlyphOrder(Long projectId, int index) {
+        String sql = "UPDATE font_project SET lib = lib #- ARRAY[?, ?]::text[] WHERE project_id = ?";
+        jdbcTemplate.update(sql, GLYPH_ORDER_KEY, String.valueOf(index), projectId);
+    }
+
+    public void moveInLibGlyphOrder(Long projectId, int fromIndex, int toIndex, String glyphName) {
+        String sql = "UPDATE font_project SET lib = jsonb_insert(lib #- ARRAY[?, ?]::text[], ARRAY[?, ?]::text[], to_jsonb(?::text)) WHERE project_id = ?";
+        jdbcTemplate.update(sql, GLYPH_ORDER_KEY, String.valueOf(fromIndex), GLYPH_ORDER_KEY, String.valueOf(toIndex), glyphName, projectId);
+    }
+
+    public void renameInLibGlyphOrder(Long projectId, int index, String glyphName) {
+        String sql = "UPDATE font_project SET lib = jsonb_set(lib, ARRAY[?, ?]::text[], to_jsonb(?::text)) WHERE project_id = ?";
+        jdbcTemplate.update(sql, GLYPH_ORDER_KEY, String.valueOf(index), glyphName, projectId);
+    }
+
+    // 여러 프로젝트의 변경을 한 번에 반영 (ProjectTimestampBuffer flush 용, DB 시각 기준이라 updated_at 은 되돌아가지 않음, 프로젝트당 revision 1 증가)
+    public void updateTimestamps(java.util.Collection<Long> projectIds) {
+        String sql = "UPDATE font_project SET updated_at = GREATEST(updated_at, NOW()), revision = revision + 1 WHERE project_id = ?";
+        List<Object[]> args = projectIds.stream()
+                .map(projectId -> new Object[]{projectId})
+                .toList();
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+
     // --- Collaboration Methods ---
 
     public List<Collaborator> findCollaborators(Long projectId) {
@@ -0,0 +1,88 @@
+package com.fontogether.api.repository;
+
+import com.fontogether.api.model.domain.Glyph;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 번들 UFO 템플릿 글리프 저장소
+ * - 템플릿 글리프는 template_glyph 에 한 번만 저장
+ * - 새 프로젝트는 INSERT ... SELECT 로 DB 안에서 복제 (글리프 데이터가 JVM 을 거치지 않음)
+ */
+@Repository
+public class TemplateRepository {
+
+    private static final int BULK_BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TemplateRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record StoredTemplate(String version, int glyphCount) {}
+
+    // 1. 저장된 버전 조회
+    public Optional<StoredTemplate> findStoredTemplate(String templateName) {
+        String sql = "SELECT version, glyph_count FROM template_version WHERE template_name = ?";
+        List<StoredTemplate> results = jdbcTemplate.query(sql,
+                (rs, rowNum) -> new StoredTemplate(rs.getString("version"), rs.getInt("glyph_count")),
+                templateName);
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+    }
+
+    /**
+     * Serializes concurrent refreshes of the same template (e.g. several API nodes starting at once).
+     * Must be called inside a transaction; the lock is released on commit/rollback.
+     */
+    public void lockTemplate(String templateName) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?))", rs -> null, "template:" + templateName);
+    }
+
+    // 2. 템플릿 교체 (기존 행 삭제 후 batch INSERT, 버전 기록)
+    public void replaceTemplate(String templateName, String version, List<Glyph> glyphs) {
+        jdbcTemplate.update("DELETE FROM template_glyph WHERE template_name = ?", templateName);
+
+        String sql = """
+                INSERT INTO template_glyph (template_name, layer_name, glyph_name, format_version, unicodes, advance_width, advance_height, outline_data, properties, sort_order)
+                VALUES (?, ?, ?, COALESCE(?, 2), ?, ?, ?, ?::jsonb, ?::jsonb, ?)
+                """;
+        jdbcTemplate.batchUpdate(sql, glyphs, BULK_BATCH_SIZE, (ps, glyph) -> {
+            ps.setString(1, templateName);
+            ps.setString(2, glyph.getLayerName());
+            ps.setString(3, glyph.getGlyphName());
+            ps.setObject(4, glyph.getFormatVersion(), java.sql.Types.INTEGER);
+
+            String[] unicodeArr = glyph.getUnicodes() != null ? glyph.getUnicodes().toArray(new String[0]) : new String[0];
+            ps.setArray(5, ps.getConnection().createArrayOf("varchar", unicodeArr));
+
+            ps.setObject(6, glyph.getAdvanceWidth(), java.sql.Types.INTEGER);
+            ps.setObject(7, glyph.getAdvanceHeight(), java.sql.Types.INTEGER);
+            ps.setString(8, glyph.getOutlineData());
+            ps.setString(9, glyph.getProperties());
+            ps.setObject(10, glyph.getSortOrder(), java.sql.Types.DOUBLE);
+        });
+
+        String versionSql = """
+                INSERT INTO template_version (template_name, version, glyph_count, loaded_at)
+                VALUES (?, ?, ?, NOW())
+                ON CONFLICT (template_name) DO UPDATE
+                SET version = EXCLUDED.version, glyph_count = EXCLUDED.glyph_count, loaded_at = EXCLUDED.loaded_at
+                """;
+        jdbcTemplate.update(versionSql, templateName, version, glyphs.size());
+    }
+
+    // 3. 프로젝트로 복제 (set-based INSERT ... SELECT)
+    public int cloneInto(String templateName, Long projectId) {
+        String sql = """
+                INSERT INTO glyph (project_id, layer_name, glyph_name, format_version, unicodes, advance_width, advance_height, outline_data, properties, sort_order)
+                SELECT ?, layer_name, glyph_name, format_version, unicodes, advance_width, advance_height, outline_data, properties, sort_order
+                FROM template_glyph
+                WHERE template_name = ?
+                """;
+        return jdbcTemplate.update(sql, projectId, templateName);
+    }
+}
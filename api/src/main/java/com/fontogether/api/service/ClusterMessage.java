@@ -0,0 +1,14 @@
+package com.fontogether.api.service;
+
+/**
+ * 서버(노드) 사이에 ClusterRelay 로 주고받는 메시지
+ * - BROADCAST: 다른 노드가 자기 구독자에게 그대로 보낼 /topic/project/{projectId}/{topic} 메시지 (payload = 보낸 JSON)
+ * - PRESENCE: 보낸 노드의 접속 현황 변경분 (payload = {projectId: [UserState]})
+ * - PRESENCE_STATE: 보낸 노드의 접속 현황 전체, 주기적으로 전송 (노드가 살아 있다는 표시 겸용)
+ */
+public record ClusterMessage(String nodeId, Type type, Long projectId, String topic, String payload) {
+
+    public enum Type {
+        BROADCAST, PRESENCE, PRESENCE_STATE
+    }
+}
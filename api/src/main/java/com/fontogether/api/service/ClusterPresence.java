@@ -0,0 +1,152 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.model.dto.PresenceMessage.UserState;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 모든 노드의 접속 현황을 합친 보기 (프로젝트 -> 사용자 -> 노드별 상태)
+ * - 한 사용자는 어느 노드에든 세션이 있으면 접속 중, 닉네임/편집 중인 글리프는 가장 최근에 바뀐 노드의 것
+ * - 각 변경 메서드는 합친 상태가 실제로 바뀐 사용자만 돌려줌 (그대로 클라이언트 DIFF 로 보냄)
+ * - 노드의 전체 상태(replaceNode)가 expire 보다 오래 안 오면 그 노드의 사용자는 나간 것으로 처리
+ * - 변경은 tick 마다 한 번씩이라 전체를 하나의 lock 으로 보호
+ */
+final class ClusterPresence {
+
+    // stamp: order of arrival, so the most recent node's nickname/editing glyph wins
+    private record NodeEntry(UserState state, long stamp) {}
+
+    private final Map<Long, Map<Long, Map<String, NodeEntry>>> projects = new HashMap<>();
+    private final Map<String, Long> nodeSeen = new HashMap<>();
+    private long clock;
+
+    /**
+     * Applies a node's changes (online=false: the user left that node) and returns the merged changes.
+     */
+    synchronized List<UserState> apply(String nodeId, Long projectId, List<UserState> changes, long now) {
+        nodeSeen.put(nodeId, now);
+        Map<Long, List<UserState>> merged = new LinkedHashMap<>();
+        for (UserState change : changes) {
+            set(nodeId, projectId, change, merged);
+        }
+        return merged.getOrDefault(projectId, List.of());
+    }
+
+    /**
+     * Replaces everything known about the node with its full state and returns the merged changes per project.
+     */
+    synchronized Map<Long, List<UserState>> replaceNode(String nodeId, Map<Long, List<UserState>> state, long now) {
+        nodeSeen.put(nodeId, now);
+        Map<Long, List<UserState>> merged = new LinkedHashMap<>();
+
+        // Users the node no longer reports are gone from it
+        for (Map.Entry<Long, Map<Long, Map<String, NodeEntry>>> project : List.copyOf(projects.entrySet())) {
+            List<UserState> reported = state.getOrDefault(project.getKey(), List.of());
+            for (Map.Entry<Long, Map<String, NodeEntry>> user : List.copyOf(project.getValue().entrySet())) {
+                if (user.getValue().containsKey(nodeId) && reported.stream().noneMatch(s -> s.userId().equals(user.getKey()))) {
+                    set(nodeId, project.getKey(), new UserState(user.getKey(), null, false, null), merged);
+                }
+            }
+        }
+        state.forEach((projectId, users) -> users.forEach(user -> {
+            // Unchanged users keep their stamp, so a periodic full state does not steal the latest editing glyph
+            NodeEntry current = entry(projectId, user.userId(), nodeId);
+            if (current == null || !current.state().equals(user)) set(nodeId, projectId, user, merged);
+        }));
+        return merged;
+    }
+
+    /**
+     * Replaces what the node reported for one project.
+     */
+    synchronized List<UserState> replaceProject(String nodeId, Long projectId, List<UserState> users, long now) {
+        Map<Long, List<UserState>> state = new HashMap<>();
+        for (Long otherProject : projects.keySet()) {
+            if (!otherProject.equals(projectId)) state.put(otherProject, reported(nodeId, otherProject));
+        }
+        state.put(projectId, users);
+        return replaceNode(nodeId, state, now).getOrDefault(projectId, List.of());
+    }
+
+    /**
+     * Drops nodes not heard from since the threshold (except the given one) and returns the merged changes per project.
+     */
+    synchronized Map<Long, List<UserState>> expire(long threshold, String keepNodeId) {
+        Map<Long, List<UserState>> merged = new LinkedHashMap<>();
+        List<String> stale = nodeSeen.entrySet().stream()
+                .filter(node -> !node.getKey().equals(keepNodeId) && node.getValue() < threshold)
+                .map(Map.Entry::getKey)
+                .toList();
+        for (String nodeId : stale) {
+            replaceNode(nodeId, Map.of(), 0).forEach((projectId, users) ->
+                    merged.computeIfAbsent(projectId, k -> new ArrayList<>()).addAll(users));
+            nodeSeen.remove(nodeId);
+        }
+        return merged;
+    }
+
+    synchronized int activeUsers(Long projectId) {
+        Map<Long, Map<String, NodeEntry>> users = projects.get(projectId);
+        return users != null ? users.size() : 0;
+    }
+
+    synchronized List<UserState> snapshot(Long projectId) {
+        Map<Long, Map<String, NodeEntry>> users = projects.get(projectId);
+        if (users == null) return List.of();
+
+        List<UserState> snapshot = new ArrayList<>(users.size());
+        users.forEach((userId, nodes) -> snapshot.add(merged(userId, nodes)));
+        return snapshot;
+    }
+
+    private void set(String nodeId, Long projectId, UserState state, Map<Long, List<UserState>> merged) {
+        Map<Long, Map<String, NodeEntry>> users = projects.computeIfAbsent(projectId, k -> new HashMap<>());
+        Map<String, NodeEntry> nodes = users.get(state.userId());
+        UserState before = merged(state.userId(), nodes);
+
+        if (state.online()) {
+            if (nodes == null) {
+                nodes = new HashMap<>();
+                users.put(state.userId(), nodes);
+            }
+            nodes.put(nodeId, new NodeEntry(state, ++clock));
+        } else if (nodes != null) {
+            nodes.remove(nodeId);
+            if (nodes.isEmpty()) users.remove(state.userId());
+        }
+        if (users.isEmpty()) projects.remove(projectId);
+
+        UserState after = merged(state.userId(), users.get(state.userId()));
+        if (!Objects.equals(before, after)) {
+            List<UserState> changes = merged.computeIfAbsent(projectId, k -> new ArrayList<>());
+            // One entry per user: the latest
+            changes.removeIf(change -> change.userId().equals(state.userId()));
+            changes.add(after);
+        }
+    }
+
+    private NodeEntry entry(Long projectId, Long userId, String nodeId) {
+        Map<Long, Map<String, NodeEntry>> users = projects.get(projectId);
+        Map<String, NodeEntry> nodes = users != null ? users.get(userId) : null;
+        return nodes != null ? nodes.get(nodeId) : null;
+    }
+
+    private List<UserState> reported(String nodeId, Long projectId) {
+        List<UserState> reported = new ArrayList<>();
+        projects.getOrDefault(projectId, Map.of()).forEach((userId, nodes) -> {
+            NodeEntry entry = nodes.get(nodeId);
+            if (entry != null) reported.add(entry.state());
+        });
+        return reported;
+    }
+
+    private static UserState merged(Long userId, Map<String, NodeEntry> nodes) {
+        if (nodes == null || nodes.isEmpty()) return new UserState(userId, null, false, null);
+        return nodes.values().stream().max(java.util.Comparator.comparingLong(NodeEntry::stamp)).orElseThrow().state();
+    }
+}
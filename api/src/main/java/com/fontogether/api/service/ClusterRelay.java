@@ -0,0 +1,43 @@
+package com.fontogether.api.service;
+
+import java.util.function.Consumer;
+
+/**
+ * 여러 API 서버 사이의 메시지 전달 (app.cluster.relay)
+ * - local: 서버 한 대, 아무 데도 보내지 않음 (기본값)
+ * - postgres: PostgreSQL LISTEN/NOTIFY (큰 메시지는 cluster_relay_spill 테이블을 거침)
+ * - 보낸 노드 자신에게는 전달하지 않음, 한 노드가 보낸 메시지는 보낸 순서대로 전달
+ * - 아직 보내지 못한 메시지는 같은 conflation key 의 전체 상태 메시지로 대체될 수 있음 (드래그 중 outline)
+ * - 전달은 최선 노력 (연결이 끊긴 동안의 메시지는 유실될 수 있음): 클라이언트는 op log, 접속 현황은 주기적 전체 동기화로 다시 맞춤
+ */
+public interface ClusterRelay {
+
+    /**
+     * Identifies this server in the messages it publishes.
+     */
+    String nodeId();
+
+    /**
+     * False when there is no other node to talk to (publishing is a no-op).
+     */
+    boolean isClustered();
+
+    /**
+     * Sends the message to every other node.
+     */
+    default void publish(ClusterMessage message) {
+        publish(message, null, false);
+    }
+
+    /**
+     * Sends the message to every other node. Messages with the same conflation key are about the same
+     * thing (e.g. one glyph's outline); one that {@code replaces} (carries the whole state) makes those
+     * still waiting to be sent redundant, and they are dropped.
+     */
+    void publish(ClusterMessage message, String conflationKey, boolean replaces);
+
+    /**
+     * Registers a listener for messages from other nodes (called on the relay's own thread).
+     */
+    void subscribe(Consumer<ClusterMessage> listener);
+}
@@ -0,0 +1,187 @@
+package com.fontogether.api.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 글리프 이름 순서 목록 (lib 의 public.glyphOrder 메모리 모델)
+ * - 위치 기반 treap + 이름 -> 노드 맵: 삽입/삭제/위치 조회/이름 변경 모두 O(log n) (기대값)
+ * - 이름은 중복 없음, Thread-safe 하지 않음 (GlyphOrderService 가 프로젝트별 lock 으로 보호)
+ */
+final class GlyphOrderList {
+
+    private static final class Node {
+        String name;
+        final int priority;
+        Node left, right, parent;
+        int size = 1;
+
+        Node(String name, int priority) {
+            this.name = name;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<String, Node> nodes = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    GlyphOrderList(List<String> names) {
+        for (String name : names) {
+            if (!contains(name)) insert(size(), name);
+        }
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    boolean contains(String name) {
+        return nodes.containsKey(name);
+    }
+
+    /**
+     * Position of the name, or -1 when absent.
+     */
+    int indexOf(String name) {
+        Node node = nodes.get(name);
+        if (node == null) return -1;
+
+        int index = size(node.left);
+        for (; node.parent != null; node = node.parent) {
+            if (node == node.parent.right) {
+                index += size(node.parent.left) + 1;
+            }
+        }
+        return index;
+    }
+
+    String get(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException(index);
+
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.name;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Inserts the name before position {@code index} (clamped to [0, size]) and returns the position used.
+     */
+    int insert(int index, String name) {
+        if (contains(name)) throw new IllegalArgumentException("Duplicate glyph name: " + name);
+        index = Math.max(0, Math.min(index, size()));
+
+        Node node = new Node(name, random.nextInt());
+        nodes.put(name, node);
+
+        Node[] parts = split(root, index);
+        setRoot(merge(merge(parts[0], node), parts[1]));
+        return index;
+    }
+
+    /**
+     * Removes the name and returns its former position, or -1 when absent.
+     */
+    int remove(String name) {
+        int index = indexOf(name);
+        if (index < 0) return -1;
+
+        Node[] head = split(root, index);
+        Node[] tail = split(head[1], 1);
+        setRoot(merge(head[0], tail[1]));
+        nodes.remove(name);
+        return index;
+    }
+
+    /**
+     * Renames in place and returns the position, or -1 when {@code oldName} is absent.
+     */
+    int rename(String oldName, String newName) {
+        if (contains(newName)) throw new IllegalArgumentException("Duplicate glyph name: " + newName);
+        Node node = nodes.remove(oldName);
+        if (node == null) return -1;
+
+        node.name = newName;
+        nodes.put(newName, node);
+        return indexOf(newName);
+    }
+
+    List<String> toList() {
+        List<String> names = new ArrayList<>(size());
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        while (node != null || !stack.isEmpty()) {
+            for (; node != null; node = node.left) {
+                stack.push(node);
+            }
+            node = stack.pop();
+            names.add(node.name);
+            node = node.right;
+        }
+        return names;
+    }
+
+    // --- treap helpers (implicit key = position) ---
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private void setRoot(Node node) {
+        root = node;
+        if (root != null) root.parent = null;
+    }
+
+    // [first k nodes, rest]; the returned roots may still point at a stale parent until re-attached
+    private static Node[] split(Node node, int k) {
+        if (node == null) return new Node[2];
+
+        if (size(node.left) < k) {
+            Node[] parts = split(node.right, k - size(node.left) - 1);
+            node.right = parts[0];
+            if (parts[0] != null) parts[0].parent = node;
+            update(node);
+            return new Node[]{node, parts[1]};
+        } else {
+            Node[] parts = split(node.left, k);
+            node.left = parts[1];
+            if (parts[1] != null) parts[1].parent = node;
+            update(node);
+            return new Node[]{parts[0], node};
+        }
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.right.parent = a;
+            update(a);
+            return a;
+        } else {
+            b.left = merge(a, b.left);
+            b.left.parent = b;
+            update(b);
+            return b;
+        }
+    }
+}
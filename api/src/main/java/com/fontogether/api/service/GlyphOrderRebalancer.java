@@ -0,0 +1,30 @@
+package com.fontogether.api.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 글리프 정렬 키 백그라운드 재배치
+ * - 같은 자리에 여러 번 이동하면 중간값 키의 간격이 계속 반으로 줄어듦
+ * - GlyphService.moveGlyph 가 간격이 좁아진 프로젝트를 표시해두면 주기적으로 1, 2, 3... 으로 다시 매김 (순서는 그대로)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GlyphOrderRebalancer {
+
+    private final GlyphService glyphService;
+
+    @org.springframework.scheduling.annotation.Scheduled(fixedDelayString = "${app.glyph.order.rebalance-interval-ms:60000}")
+    public void rebalanceCrowdedProjects() {
+        for (Long projectId : glyphService.drainCrowdedOrderProjects()) {
+            try {
+                glyphService.rebalanceGlyphOrder(projectId);
+                log.debug("Rebalanced glyph sort keys of project {}", projectId);
+            } catch (Exception e) {
+                log.error("Failed to rebalance glyph sort keys of project {}", projectId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.model.dto.GlyphOrderDelta;
+import com.fontogether.api.model.dto.GlyphOrderSnapshot;
+import com.fontogether.api.repository.GlyphRepository;
+import com.fontogether.api.repository.OperationLogRepository;
+import com.fontogether.api.repository.ProjectRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 프로젝트별 public.glyphOrder 메모리 모델
+ * - 처음 쓸 때 글리프 정렬 키 순서로 목록을 만들고 lib 의 배열을 그 목록으로 한 번 맞춤
+ * - 이후 글리프 액션은 목록(GlyphOrderList)에서 O(log n) 으로 위치를 구하고, lib 은 해당 원소만 수정
+ * - 프로젝트별 lock 으로 모델 변경과 DB 수정 순서를 맞춤 (같은 프로젝트의 lib UPDATE 는 이 순서대로 실행됨)
+ * - 트랜잭션이 롤백되거나 클라이언트가 lib 전체를 덮어쓰면 모델을 버리고 다음에 다시 로드
+ * - 변경분은 커밋 후 /topic/project/{projectId}/glyph/order 로 seq 와 함께 브로드캐스트 (GlyphOrderDelta)
+ *   seq 는 DB 카운터 행(project_op_seq.order_seq)에서 받음, 모델을 다시 로드하면 seq 하나를 건너뛰어 클라이언트가 스냅샷으로 다시 맞추게 함
+ * - 여러 서버: 모델을 쓰기 전에 카운터 행을 잠그고 order_seq 를 확인, 모델이 본 값과 다르면 (다른 서버의 변경, lib 교체) 다시 로드
+ *   카운터 행 잠금 -> 모델 lock 순서 (글리프 액션은 op seq 를 받을 때 이미 행을 잠금)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GlyphOrderService {
+
+    private final GlyphRepository glyphRepository;
+    private final ProjectRepository projectRepository;
+    private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+    private final ProjectBroadcaster projectBroadcaster;
+    private final OperationLogRepository operationLogRepository;
+    private final org.springframework.transaction.support.TransactionTemplate transactionTemplate;
+
+    @Value("${app.glyph.order.model-idle-ms:600000}")
+    private long modelIdleMs;
+
+    private static final class ProjectOrder {
+        final ReentrantLock lock = new ReentrantLock();
+        GlyphOrderList list;
+        long orderSeq; // order_seq the list reflects
+        boolean evicted;
+        volatile long lastUsed = System.currentTimeMillis();
+    }
+
+    private final Map<Long, ProjectOrder> orders = new ConcurrentHashMap<>();
+
+    // ADD: appended unless already listed
+    public void added(Long projectId, String glyphName) {
+        update(projectId, order -> {
+            if (order.list.contains(glyphName)) return null;
+            int index = order.list.insert(order.list.size(), glyphName);
+            projectRepository.insertIntoLibGlyphOrder(projectId, index, glyphName);
+            return GlyphOrderDelta.builder().op(GlyphOrderDelta.Op.INSERT).name(glyphName).index(index);
+        });
+    }
+
+    public void removed(Long projectId, String glyphName) {
+        update(projectId, order -> {
+            int index = order.list.remove(glyphName);
+            if (index < 0) return null;
+            projectRepository.removeFromLibGlyphOrder(projectId, index);
+            return GlyphOrderDelta.builder().op(GlyphOrderDelta.Op.REMOVE).name(glyphName).index(index);
+        });
+    }
+
+    public void renamed(Long projectId, String oldName, String newName) {
+        update(projectId, order -> {
+            // Loaded just now from rows that were already renamed: nothing left to do (the reload resyncs clients)
+            if (!order.list.contains(oldName) && order.list.contains(newName)) return null;
+            int index = order.list.rename(oldName, newName);
+            if (index < 0) return null;
+            projectRepository.renameInLibGlyphOrder(projectId, index, newName);
+            return GlyphOrderDelta.builder().op(GlyphOrderDelta.Op.RENAME).name(oldName).newName(newName).index(index);
+        });
+    }
+
+    // MOVE: toIndex is the position among the other glyphs, clamped like List.add
+    public void moved(Long projectId, String glyphName, int toIndex) {
+        update(projectId, order -> {
+            int from = order.list.remove(glyphName);
+            int to = order.list.insert(toIndex, glyphName);
+            if (from < 0) {
+                projectRepository.insertIntoLibGlyphOrder(projectId, to, glyphName);
+                return GlyphOrderDelta.builder().op(GlyphOrderDelta.Op.INSERT).name(glyphName).index(to);
+            }
+            if (from == to) return null;
+            projectRepository.moveInLibGlyphOrder(projectId, from, to, glyphName);
+            return GlyphOrderDelta.builder().op(GlyphOrderDelta.Op.MOVE).name(glyphName).from(from).to(to);
+        });
+    }
+
+    // REORDER replaces the whole list anyway
+    public void replaced(Long projectId, List<String> glyphNames) {
+        update(projectId, order -> {
+            order.list = new GlyphOrderList(glyphNames);
+            writeAll(projectId, order.list);
+            return GlyphOrderDelta.builder().op(GlyphOrderDelta.Op.RESET).glyphOrder(order.list.toList());
+        });
+    }
+
+    /**
+     * Current order and the seq it reflects (resync point for clients that missed a delta).
+     */
+    public GlyphOrderSnapshot snapshot(Long projectId) {
+        GlyphOrderSnapshot[] snapshot = new GlyphOrderSnapshot[1];
+        update(projectId, order -> {
+            snapshot[0] = new GlyphOrderSnapshot(order.orderSeq, order.list.toList());
+            return null;
+        });
+        return snapshot[0];
+    }
+
+    /**
+     * Drops the project's model; the next action reloads it from the sort keys.
+     */
+    public void evict(Long projectId) {
+        ProjectOrder order = orders.remove(projectId);
+        if (order == null) return;
+
+        order.lock.lock();
+        try {
+            order.evicted = true;
+        } finally {
+            order.lock.unlock();
+        }
+    }
+
+    /**
+     * A client replaced lib (and with it public.glyphOrder): every server's model is stale. Call in
+     * the transaction that wrote it.
+     */
+    public void libReplaced(Long projectId) {
+        operationLogRepository.nextOrderSeq(projectId);
+        evict(projectId);
+    }
+
+    /**
+     * Another server changed the order (or replaced lib): ours is stale.
+     */
+    @org.springframework.context.event.EventListener
+    public void onRemoteBroadcast(RemoteBroadcastEvent event) {
+        if ("glyph/order".equals(event.topic())) {
+            evict(event.projectId());
+        } else if ("update/details".equals(event.topic()) && "LIB".equals(event.payload().path("updateType").asText())) {
+            evict(event.projectId());
+        }
+    }
+
+    @org.springframework.scheduling.annotation.Scheduled(fixedDelayString = "${app.glyph.order.model-idle-ms:600000}")
+    public void evictIdle() {
+        long threshold = System.currentTimeMillis() - modelIdleMs;
+        for (Map.Entry<Long, ProjectOrder> entry : orders.entrySet()) {
+            if (entry.getValue().lastUsed < threshold) {
+                evict(entry.getKey());
+            }
+        }
+    }
+
+    // change returns the delta to broadcast (seq is filled in here), or null when nothing changed
+    private void update(Long projectId, Function<ProjectOrder, GlyphOrderDelta.GlyphOrderDeltaBuilder> change) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Waits for the project's changes on other servers (a glyph action holds this row already)
+            long orderSeq = operationLogRepository.lockOrderSeq(projectId);
+            while (true) {
+                ProjectOrder order = orders.computeIfAbsent(projectId, k -> new ProjectOrder());
+                order.lock.lock();
+                try {
+                    // Evicted while we waited for the lock: retry with the fresh model
+                    if (order.evicted) continue;
+
+                    if (order.list == null || order.orderSeq != orderSeq) {
+                        // Reflects the calling action's row changes already; each change treats that as done
+                        order.list = new GlyphOrderList(glyphRepository.findGlyphOrder(projectId));
+                        writeAll(projectId, order.list);
+                        // Clients may hold an order this model never saw: make them resync
+                        order.orderSeq = operationLogRepository.nextOrderSeq(projectId);
+                    }
+                    order.lastUsed = System.currentTimeMillis();
+
+                    GlyphOrderDelta.GlyphOrderDeltaBuilder delta = change.apply(order);
+                    if (delta != null) {
+                        order.orderSeq = operationLogRepository.nextOrderSeq(projectId);
+                        publishAfterCommit(projectId, delta.seq(order.orderSeq).build());
+                    }
+                    evictOnRollback(projectId);
+                    return;
+                } catch (RuntimeException e) {
+                    // The model may be ahead of the database now
+                    evict(projectId);
+                    throw e;
+                } finally {
+                    order.lock.unlock();
+                }
+            }
+        });
+    }
+
+    private void writeAll(Long projectId, GlyphOrderList list) {
+        try {
+            projectRepository.setLibGlyphOrder(projectId, objectMapper.writeValueAsString(list.toList()));
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize glyph order", e);
+        }
+    }
+
+    private void publishAfterCommit(Long projectId, GlyphOrderDelta delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            projectBroadcaster.broadcast(projectId, "glyph/order", delta);
+            return;
+        }
+
+        // A rolled back action is never announced; its seq is simply skipped (clients resync)
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                projectBroadcaster.broadcast(projectId, "glyph/order", delta);
+            }
+        });
+    }
+
+    private void evictOnRollback(Long projectId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    log.debug("Glyph action on project {} rolled back, dropping its glyph order model", projectId);
+                    evict(projectId);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,344 @@
+package com.fontogether.api.service;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fontogether.api.model.domain.Glyph;
+import com.fontogether.api.model.dto.GlyphUpdateMessage;
+import com.fontogether.api.model.dto.OperationLogEntry.OpType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 편집 중인 글리프 outline 의 메모리 모델과 버전
+ * - 버전 = 마지막 outline 변경의 op seq (glyph.outline_version 에도 저장)
+ * - 전체 outline(outlineData) 은 그대로 받아들이고, delta(outlineDelta) 는 baseVersion 이 현재 버전과 같을 때만
+ *   현재 outline 에 적용해서 새 전체 outline 을 write-behind 버퍼로 저장 (브로드캐스트와 op log 에는 delta 만)
+ * - 한 세션이 연달아 수정하는 동안에는 그 세션의 자기 수정 이후 버전을 기준으로 한 delta 도 받아들임
+ *   (드래그 중 클라이언트는 자기 delta 의 새 버전을 받기 전에 다음 delta 를 보내므로)
+ * - 버전이 다르거나 delta 가 맞지 않으면 거절하고 보낸 세션에만 /user/queue/glyph/snapshot 으로 현재 전체 outline 전송
+ * - 글리프별 lock 으로 버전 순서와 outline 변경 순서를 맞춤, 오래 안 쓴 글리프는 해제 (다음 delta 때 DB 에서 다시 로드)
+ * - 프레임마다 트랜잭션을 열지 않음: 받아들인 뒤 글리프 lock 안에서 op seq 를 nextval 로만 받고(OperationLogService.nextOutlineSeq)
+ *   행과 op 는 write-behind flush 가 글리프별로 모아서 씀, 거절된 delta 는 seq 를 쓰지 않음
+ * - 여러 서버: 다른 서버가 브로드캐스트한 변경은 이 서버의 모델에도 적용 (맞지 않으면 모델을 버리고 다음에 DB 에서 다시 로드)
+ *   다른 서버에서 편집 중인 글리프를 여기서 새로 로드하면 그 서버의 flush 전까지(최대 flush-interval-ms) 옛 버전이고,
+ *   두 서버가 같은 글리프를 동시에 고치면 버전(seq)이 큰 쪽이 남음 (행의 outline_version 비교)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GlyphOutlineService {
+
+    private final GlyphService glyphService;
+    private final GlyphWriteBehindBuffer glyphWriteBehindBuffer;
+    private final OperationLogService operationLogService;
+    private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+    private final org.springframework.messaging.simp.SimpMessagingTemplate messagingTemplate;
+    private final org.springframework.transaction.support.TransactionTemplate transactionTemplate;
+
+    @Value("${app.glyph.outline.model-idle-ms:600000}")
+    private long modelIdleMs;
+
+    public static final String SNAPSHOT_DESTINATION = "/queue/glyph/snapshot";
+
+    private record Key(Long projectId, String glyphName) {}
+
+    private static final class OutlineState {
+        final ReentrantLock lock = new ReentrantLock();
+        boolean loaded;
+        boolean evicted;
+        long version;
+        String outlineJson;
+        ObjectNode outline; // parsed on the first delta after a full update
+        Integer advanceWidth;
+        // Session that made every change since chainBase (its deltas may be based on any version in between)
+        String chainSession;
+        long chainBase;
+        // Rejected deltas that were already in flight get no second snapshot of the same version
+        String snapshotSession;
+        long snapshotVersion = -1;
+        volatile long lastUsed = System.currentTimeMillis();
+    }
+
+    private final Map<Key, OutlineState> states = new ConcurrentHashMap<>();
+
+    /**
+     * Accepts an update from /app/glyph/update and returns what to broadcast (a delta stays a delta),
+     * or null when a delta was rejected and the sender got a snapshot instead.
+     */
+    public GlyphUpdateMessage accept(GlyphUpdateMessage message, String sessionId) {
+        Long projectId = message.getProjectId();
+        Key key = new Key(projectId, message.getGlyphName());
+        // A delta on a model that isn't resident loads the row, which must include buffered outlines
+        if (message.getOutlineDelta() != null && !isLoaded(key)) glyphWriteBehindBuffer.flushProject(projectId);
+
+        return withState(key, state -> {
+            if (message.getOutlineDelta() == null) {
+                long seq = operationLogService.nextOutlineSeq();
+                changedBy(state, sessionId);
+                setFull(state, seq, message.getOutlineData(), message.getAdvanceWidth());
+                buffer(message, seq, message, sessionId);
+                return message;
+            }
+
+            if (!state.loaded) load(state, projectId, message.getGlyphName());
+            if (!isCurrentFor(state, message.getBaseVersion(), sessionId)) {
+                log.debug("Outline delta for {} in project {} is based on version {}, current is {}",
+                        message.getGlyphName(), projectId, message.getBaseVersion(), state.version);
+                sendSnapshot(sessionId, projectId, message.getGlyphName(), state);
+                return null;
+            }
+
+            ObjectNode outline;
+            try {
+                outline = OutlineEdits.apply(parsed(state), message.getOutlineDelta());
+            } catch (IllegalArgumentException e) {
+                log.warn("Rejected outline delta for {} in project {}: {}", message.getGlyphName(), projectId, e.getMessage());
+                sendSnapshot(sessionId, projectId, message.getGlyphName(), state);
+                return null;
+            }
+
+            // Taken once the delta fits, under the glyph's lock: versions of a glyph only grow
+            long seq = operationLogService.nextOutlineSeq();
+            // Others apply it on top of the version before it (the sender may have named an older one of its own)
+            message.setBaseVersion(state.version);
+            String outlineJson = toJson(outline);
+            Integer advanceWidth = message.getAdvanceWidth() != null ? message.getAdvanceWidth() : state.advanceWidth;
+            changedBy(state, sessionId);
+            setFull(state, seq, outlineJson, advanceWidth);
+            state.outline = outline;
+            buffer(message, seq, GlyphUpdateMessage.builder()
+                    .projectId(projectId)
+                    .glyphName(message.getGlyphName())
+                    .outlineData(outlineJson)
+                    .advanceWidth(advanceWidth)
+                    .unicodes(message.getUnicodes())
+                    .userId(message.getUserId())
+                    .nickname(message.getNickname())
+                    .timestamp(message.getTimestamp())
+                    .build(), sessionId);
+            return message;
+        });
+    }
+
+    /**
+     * Saves a full outline right away (REST) and returns the message to broadcast.
+     */
+    public GlyphUpdateMessage save(GlyphUpdateMessage message) {
+        if (message.getOutlineDelta() != null) {
+            throw new IllegalArgumentException("Outline deltas are only accepted over /app/glyph/update");
+        }
+
+        Long projectId = message.getProjectId();
+        return withState(new Key(projectId, message.getGlyphName()), state -> {
+            // Row and op in one transaction, without the project's counter lock (same seqs as live edits)
+            transactionTemplate.executeWithoutResult(status -> {
+                long seq = operationLogService.nextOutlineSeq();
+                message.setVersion(seq);
+                message.setSeq(seq);
+                glyphService.saveGlyph(projectId, message.getGlyphName(), message.getOutlineData(),
+                        message.getAdvanceWidth(), message.getUnicodes(), seq);
+                operationLogService.record(projectId, seq, OpType.GLYPH_UPDATE, message.getGlyphName(), message.getUserId(), message);
+            });
+            changedBy(state, null);
+            setFull(state, message.getVersion(), message.getOutlineData(), message.getAdvanceWidth());
+            return message;
+        });
+    }
+
+    /**
+     * Drops the glyph's model (renamed, deleted, recreated); the next delta reloads it.
+     */
+    public void evict(Long projectId, String glyphName) {
+        OutlineState state = states.remove(new Key(projectId, glyphName));
+        if (state == null) return;
+
+        state.lock.lock();
+        try {
+            state.evicted = true;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Keeps the resident models in step with changes accepted by other servers.
+     */
+    @org.springframework.context.event.EventListener
+    public void onRemoteBroadcast(RemoteBroadcastEvent event) {
+        if ("glyph/update".equals(event.topic())) {
+            GlyphUpdateMessage message;
+            try {
+                message = objectMapper.treeToValue(event.payload(), GlyphUpdateMessage.class);
+            } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+                log.warn("Unreadable relayed glyph update of project {}", event.projectId(), e);
+                return;
+            }
+            applyRemote(event.projectId(), message);
+        } else if ("glyph/action".equals(event.topic())) {
+            // Renamed, deleted or recreated there: reload here
+            evict(event.projectId(), event.payload().path("glyphName").asText());
+            if (event.payload().hasNonNull("newName")) {
+                evict(event.projectId(), event.payload().path("newName").asText());
+            }
+        }
+    }
+
+    @org.springframework.scheduling.annotation.Scheduled(fixedDelayString = "${app.glyph.outline.model-idle-ms:600000}")
+    public void evictIdle() {
+        long threshold = System.currentTimeMillis() - modelIdleMs;
+        for (Map.Entry<Key, OutlineState> entry : states.entrySet()) {
+            if (entry.getValue().lastUsed < threshold) {
+                evict(entry.getKey().projectId(), entry.getKey().glyphName());
+            }
+        }
+    }
+
+    private void applyRemote(Long projectId, GlyphUpdateMessage message) {
+        Key key = new Key(projectId, message.getGlyphName());
+        // Nothing resident: the next delta loads it from the database
+        if (!states.containsKey(key) || message.getVersion() == null) return;
+
+        withState(key, state -> {
+            if (state.loaded && !applyChange(state, message)) {
+                // Missed a change in between
+                evict(projectId, message.getGlyphName());
+            }
+            return null;
+        });
+    }
+
+    // Applies a change accepted elsewhere; false when it does not fit on the current version
+    private boolean applyChange(OutlineState state, GlyphUpdateMessage message) {
+        if (message.getVersion() == null || message.getVersion() <= state.version) return true;
+
+        if (message.getOutlineDelta() == null) {
+            changedBy(state, null);
+            setFull(state, message.getVersion(), message.getOutlineData(), message.getAdvanceWidth());
+            return true;
+        }
+        if (message.getBaseVersion() == null || message.getBaseVersion() != state.version) return false;
+        try {
+            ObjectNode outline = OutlineEdits.apply(parsed(state), message.getOutlineDelta());
+            changedBy(state, null);
+            setFull(state, message.getVersion(), toJson(outline),
+                    message.getAdvanceWidth() != null ? message.getAdvanceWidth() : state.advanceWidth);
+            state.outline = outline;
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private boolean isLoaded(Key key) {
+        OutlineState state = states.get(key);
+        return state != null && state.loaded && !state.evicted;
+    }
+
+    private <T> T withState(Key key, Function<OutlineState, T> action) {
+        while (true) {
+            OutlineState state = states.computeIfAbsent(key, k -> new OutlineState());
+            state.lock.lock();
+            try {
+                // Evicted while we waited for the lock: retry with a fresh model
+                if (state.evicted) continue;
+                state.lastUsed = System.currentTimeMillis();
+                return action.apply(state);
+            } finally {
+                state.lock.unlock();
+            }
+        }
+    }
+
+    // The sender's outline is the current one plus nothing, or (within its own run of edits) one of the versions it produced
+    private static boolean isCurrentFor(OutlineState state, Long baseVersion, String sessionId) {
+        if (baseVersion == null) return false;
+        if (baseVersion == state.version) return true;
+        return sessionId != null && sessionId.equals(state.chainSession)
+                && baseVersion >= state.chainBase && baseVersion < state.version;
+    }
+
+    // Call before the version moves on
+    private static void changedBy(OutlineState state, String sessionId) {
+        if (sessionId == null || !sessionId.equals(state.chainSession)) {
+            state.chainSession = sessionId;
+            state.chainBase = state.version;
+        }
+    }
+
+    // Callers flush the write-behind buffer first (see accept); a model evicted after that reloads on a later delta
+    private void load(OutlineState state, Long projectId, String glyphName) {
+        Glyph glyph = glyphService.getGlyph(projectId, glyphName);
+        long version = glyph.getOutlineVersion() != null ? glyph.getOutlineVersion() : 0L;
+        setFull(state, version, glyph.getOutlineData(), glyph.getAdvanceWidth());
+        state.chainSession = null;
+    }
+
+    private void setFull(OutlineState state, long version, String outlineJson, Integer advanceWidth) {
+        state.loaded = true;
+        state.version = version;
+        state.outlineJson = outlineJson;
+        state.outline = null;
+        state.advanceWidth = advanceWidth;
+    }
+
+    private ObjectNode parsed(OutlineState state) {
+        if (state.outline == null) {
+            try {
+                com.fasterxml.jackson.databind.JsonNode node = state.outlineJson != null
+                        ? objectMapper.readTree(state.outlineJson) : null;
+                state.outline = node instanceof ObjectNode object ? object : objectMapper.createObjectNode();
+            } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+                throw new IllegalStateException("Stored outline is not valid JSON", e);
+            }
+        }
+        return state.outline;
+    }
+
+    // Stamps the broadcast with seq and hands the full outline to the buffer, which writes row and op on its flush
+    private void buffer(GlyphUpdateMessage message, long seq, GlyphUpdateMessage write, String sessionId) {
+        message.setVersion(seq);
+        message.setSeq(seq);
+        write.setVersion(seq);
+        write.setSeq(seq);
+        glyphWriteBehindBuffer.submit(write, sessionId);
+    }
+
+    // Only the sender is out of date: everyone else already has the current version
+    private void sendSnapshot(String sessionId, Long projectId, String glyphName, OutlineState state) {
+        if (sessionId == null) return;
+        // Its later deltas were built on the rejected one: they must wait for this snapshot
+        if (sessionId.equals(state.chainSession)) state.chainSession = null;
+        if (sessionId.equals(state.snapshotSession) && state.snapshotVersion == state.version) return;
+        state.snapshotSession = sessionId;
+        state.snapshotVersion = state.version;
+
+        GlyphUpdateMessage snapshot = GlyphUpdateMessage.builder()
+                .projectId(projectId)
+                .glyphName(glyphName)
+                .outlineData(state.outlineJson)
+                .advanceWidth(state.advanceWidth)
+                .version(state.version)
+                .timestamp(System.currentTimeMillis())
+                .build();
+
+        org.springframework.messaging.simp.SimpMessageHeaderAccessor headers =
+                org.springframework.messaging.simp.SimpMessageHeaderAccessor.create(org.springframework.messaging.simp.SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(sessionId, SNAPSHOT_DESTINATION, snapshot, headers.getMessageHeaders());
+    }
+
+    private String toJson(ObjectNode outline) {
+        try {
+            return objectMapper.writeValueAsString(outline);
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outline", e);
+        }
+    }
+}
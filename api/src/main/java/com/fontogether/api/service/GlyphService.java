@@ -14,48 +14,36 @@ import java.util.Optional;
 public class GlyphService {
 
     private final GlyphRepository glyphRepository;
-    private final com.fontogether.api.repository.ProjectRepository projectRepository;
+    private final ProjectTimestampBuffer projectTimestampBuffer;
 
     /**
      * 글리프 저장 (Upsert 로직)
      * - 이미 존재하는 글자라면? -> Update
      * - 없는 글자라면? -> Insert
+     * - 조회 없이 한 문장으로 처리 (동시에 같은 글자를 처음 저장해도 중복 행이 생기지 않음)
+     * - outlineVersion: 이 변경의 op seq (실시간 편집은 OperationLogService.nextOutlineSeq, 액션은 nextSeq)
+     *   이미 더 큰 버전이 저장되어 있으면 바꾸지 않고 null 을 돌려줌
      */
     @Transactional
-    public void saveGlyph(Long projectId, String glyphName, String outlineData, Integer width, List<String> unicodes) {
-        
-        // 1. DB에 이미 있는지 확인 (By Name, not Unicode anymore as primary lookup)
-        Optional<Glyph> existing = glyphRepository.findByProjectAndName(projectId, glyphName);
-
-        if (existing.isPresent()) {
-            // 2-1. 있으면 업데이트
-            Glyph glyph = existing.get();
-            glyph.setOutlineData(outlineData);
-            glyph.setAdvanceWidth(width);
-            if (unicodes != null) {
-                glyph.setUnicodes(unicodes);
-            }
-            
-            glyphRepository.update(glyph);
-        } else {
-            // 2-2. 없으면 새로 생성
-            Glyph newGlyph = Glyph.builder()
-                    .projectId(projectId)
-                    .glyphName(glyphName)
-                    .unicodes(unicodes != null ? unicodes : List.of()) 
-                    .advanceWidth(width)
-                    .advanceHeight(1000) // Default height
-                    .layerName("public")
-                    .formatVersion(3)
-                    .properties("{}")
-                    .outlineData(outlineData)
-                    .build();
-            
-            glyphRepository.save(newGlyph);
-        }
-        
-        // 3. 프로젝트 UpdatedAt 갱신
-        projectRepository.updateTimestamp(projectId);
+    public java.util.UUID saveGlyph(Long projectId, String glyphName, String outlineData, Integer width, List<String> unicodes,
+                                    long outlineVersion) {
+        // 1. Upsert (unicodes 는 보냈을 때만 덮어씀)
+        java.util.UUID glyphUuid = glyphRepository.upsertOutline(projectId, glyphName, outlineData, width, unicodes, outlineVersion);
+
+        // 2. 프로젝트 UpdatedAt 갱신 (ProjectTimestampBuffer 가 모아서 반영)
+        projectTimestampBuffer.touch(projectId);
+        return glyphUuid;
+    }
+
+    /**
+     * 여러 글리프를 한 번에 저장 (write-behind flush 용, saveGlyph 와 같은 규칙)
+     * - upsert 를 JDBC batch 한 번으로 전송
+     * - 프로젝트 UpdatedAt 갱신도 한 번만
+     */
+    @Transactional
+    public void saveGlyphs(Long projectId, List<Glyph> updates) {
+        glyphRepository.upsertOutlines(projectId, updates);
+        projectTimestampBuffer.touch(projectId);
     }
 
     /**
@@ -87,11 +75,14 @@ public class GlyphService {
                 .orElseThrow(() -> new IllegalArgumentException("Glyph not found: " + glyphName));
         
         glyphRepository.delete(glossary);
-        projectRepository.updateTimestamp(projectId);
+        projectTimestampBuffer.touch(projectId);
     }
 
     @Transactional
     public void renameGlyph(Long projectId, String oldName, String newName) {
+        // update() writes sort_order back, so a concurrent rebalance must not slip in between
+        glyphRepository.lockGlyphOrder(projectId);
+
         Glyph glyph = glyphRepository.findByProjectAndName(projectId, oldName)
                 .orElseThrow(() -> new IllegalArgumentException("Glyph not found: " + oldName));
         
@@ -104,14 +95,95 @@ public class GlyphService {
         glyphRepository.update(glyph);
         glyph.setGlyphName(newName);
         glyphRepository.update(glyph);
-        projectRepository.updateTimestamp(projectId);
+        projectTimestampBuffer.touch(projectId);
     }
 
+    /**
+     * 목록 순서대로 정렬 키 재배치 (REORDER), 한 문장으로 처리
+     */
+    @Transactional
+    public void reorderGlyphs(Long projectId, List<String> glyphNames) {
+        glyphRepository.lockGlyphOrder(projectId);
+        glyphRepository.updateSortOrders(projectId, glyphNames);
+        projectTimestampBuffer.touch(projectId);
+    }
+
+    /**
+     * 글리프 하나를 toIndex 위치로 이동 (MOVE)
+     * - 이동 후 앞뒤가 될 두 글리프 키의 중간값을 새 키로 하여 한 행만 갱신
+     * - 중간값을 더 만들 수 없으면 그 자리에서 재배치 후 다시 계산, 간격이 좁아지면 백그라운드 재배치 대상으로 표시
+     */
     @Transactional
-    public void updateGlyphOrders(Long projectId, List<String> glyphNames) {
-        for (int i = 0; i < glyphNames.size(); i++) {
-            glyphRepository.updateSortOrder(projectId, glyphNames.get(i), i);
+    public void moveGlyph(Long projectId, String glyphName, int toIndex) {
+        glyphRepository.lockGlyphOrder(projectId);
+
+        int index = Math.max(toIndex, 0);
+        Double key = sortKeyAt(projectId, glyphName, index);
+        if (key == null) {
+            glyphRepository.rebalanceSortOrders(projectId);
+            key = sortKeyAt(projectId, glyphName, index);
+        }
+        if (key == null) {
+            throw new IllegalStateException("Could not compute a sort key for " + glyphName);
+        }
+
+        if (glyphRepository.updateSortOrder(projectId, glyphName, key) > 0) {
+            projectTimestampBuffer.touch(projectId);
+        }
+    }
+
+    /**
+     * 정렬 키 간격 재조정 (GlyphOrderRebalancer 에서 호출), 순서는 바뀌지 않음
+     */
+    @Transactional
+    public void rebalanceGlyphOrder(Long projectId) {
+        glyphRepository.lockGlyphOrder(projectId);
+        glyphRepository.rebalanceSortOrders(projectId);
+    }
+
+    /**
+     * 키 간격이 좁아져 재배치가 필요한 프로젝트 목록을 꺼냄 (꺼낸 프로젝트는 목록에서 제거)
+     */
+    public List<Long> drainCrowdedOrderProjects() {
+        List<Long> projects = List.copyOf(crowdedOrderProjects);
+        projects.forEach(crowdedOrderProjects::remove);
+        return projects;
+    }
+
+    // Below this gap the next few midpoints run out of double precision
+    private static final double MIN_SORT_KEY_GAP = 1e-6;
+
+    private final java.util.Set<Long> crowdedOrderProjects = java.util.concurrent.ConcurrentHashMap.newKeySet();
+
+    // Key that places the glyph at index (among the other glyphs), or null when the neighbours leave no room
+    private Double sortKeyAt(Long projectId, String glyphName, int index) {
+        List<Double> neighbours = index == 0
+                ? glyphRepository.findSortOrders(projectId, glyphName, 0, 1)
+                : glyphRepository.findSortOrders(projectId, glyphName, index - 1, 2);
+
+        if (index > 0 && neighbours.isEmpty()) {
+            // Past the end: clamp to the last position (same as inserting into the list)
+            int count = glyphRepository.countOtherGlyphs(projectId, glyphName);
+            return count < index ? sortKeyAt(projectId, glyphName, count) : null;
+        }
+
+        boolean hasPrev = index > 0;
+        Double prev = hasPrev ? neighbours.get(0) : null;
+        boolean hasNext = neighbours.size() > (hasPrev ? 1 : 0);
+        Double next = hasNext ? neighbours.get(hasPrev ? 1 : 0) : null;
+
+        // Glyphs without a key (sorted last) have to be numbered first
+        if ((hasPrev && prev == null) || (hasNext && next == null)) return null;
+
+        if (!hasPrev && !hasNext) return 1.0;
+        if (!hasPrev) return next - 1;
+        if (!hasNext) return prev + 1;
+
+        double key = prev + (next - prev) / 2;
+        if (!(key > prev && key < next)) return null;
+        if (next - prev < MIN_SORT_KEY_GAP) {
+            crowdedOrderProjects.add(projectId);
         }
-        projectRepository.updateTimestamp(projectId);
+        return key;
     }
-}
\ No newline at end of file
+}
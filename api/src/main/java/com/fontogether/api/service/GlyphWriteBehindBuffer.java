@@ -0,0 +1,181 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.model.domain.Glyph;
+import com.fontogether.api.model.dto.GlyphUpdateMessage;
+import com.fontogether.api.model.dto.OperationLogEntry;
+import com.fontogether.api.repository.OperationLogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * 실시간 글리프 편집(/app/glyph/update) write-behind 버퍼
+ * - (projectId, glyphName) 별로 마지막 outline 만 보관하고, 주기적으로 모아서 DB 에 저장
+ * - op log 도 여기서 씀: flush 마다 글리프별로 마지막 outline 의 GLYPH_UPDATE 한 행, 글리프 행과 같은 트랜잭션에서
+ *   (드래그 프레임마다 트랜잭션과 op 행을 만들지 않음, 프레임의 seq 는 OperationLogService.nextOutlineSeq)
+ * - 브로드캐스트는 버퍼와 무관하게 즉시 (WebSocketController)
+ * - 세션 종료, 서버 종료, 그리고 같은 프로젝트를 DB 에서 읽거나 바꾸기 전(flushProject)에 저장
+ * - 서버가 비정상 종료되면 마지막 flush 이후(최대 flush-interval-ms) 편집이 유실될 수 있음
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GlyphWriteBehindBuffer {
+
+    private final GlyphService glyphService;
+    private final OperationLogRepository operationLogRepository;
+    private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+    private final org.springframework.transaction.support.TransactionTemplate transactionTemplate;
+
+    @Value("${app.glyph.write-behind.enabled:true}")
+    private boolean enabled;
+
+    private record Key(Long projectId, String glyphName) {}
+
+    // The glyph row to write, and the message that becomes its op
+    private record PendingWrite(Glyph glyph, GlyphUpdateMessage op, String sessionId, int attempts) {
+
+        // Later frame wins; unicodes are only overwritten when the frame carries them (same as saveGlyph)
+        PendingWrite mergeNewer(PendingWrite newer) {
+            // Versions decide, not arrival order (a batch put back after a failed flush is older than what came since)
+            if (newer.glyph().getOutlineVersion() < glyph.getOutlineVersion()) return newer.mergeNewer(this);
+            if (newer.glyph().getUnicodes() != null || glyph.getUnicodes() == null) return newer;
+            return new PendingWrite(newer.glyph().toBuilder().unicodes(glyph.getUnicodes()).build(), newer.op(), newer.sessionId(), 0);
+        }
+    }
+
+    // A batch that keeps failing (e.g. the project was deleted) is dropped after this many flushes
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private final Map<Key, PendingWrite> pending = new ConcurrentHashMap<>();
+
+    // Flushes never overlap, so an older snapshot of a glyph can never overwrite a newer one
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    /**
+     * Buffers the update, replacing any unsaved update of the same glyph. The message carries the
+     * full outline and its version, which is also its op seq (GlyphOutlineService resolves deltas first).
+     * Falls back to a synchronous save when write-behind is disabled.
+     */
+    public void submit(GlyphUpdateMessage message, String sessionId) {
+        if (!enabled) {
+            transactionTemplate.executeWithoutResult(status -> {
+                glyphService.saveGlyph(message.getProjectId(), message.getGlyphName(),
+                        message.getOutlineData(), message.getAdvanceWidth(), message.getUnicodes(), message.getVersion());
+                operationLogRepository.insert(message.getProjectId(), toOp(message));
+            });
+            return;
+        }
+
+        Glyph glyph = Glyph.builder()
+                .projectId(message.getProjectId())
+                .glyphName(message.getGlyphName())
+                .outlineData(message.getOutlineData())
+                .advanceWidth(message.getAdvanceWidth())
+                .unicodes(message.getUnicodes())
+                .outlineVersion(message.getVersion())
+                .build();
+
+        received.incrementAndGet();
+        pending.merge(new Key(message.getProjectId(), message.getGlyphName()), new PendingWrite(glyph, message, sessionId, 0),
+                PendingWrite::mergeNewer);
+    }
+
+    @org.springframework.scheduling.annotation.Scheduled(fixedDelayString = "${app.glyph.write-behind.flush-interval-ms:200}")
+    public void flushAll() {
+        flush(key -> true, null);
+    }
+
+    /**
+     * Persists every buffered update of the project. Call before reading or structurally
+     * changing the project's glyphs in the database (actions, REST, export).
+     */
+    public void flushProject(Long projectId) {
+        flush(key -> key.projectId().equals(projectId), null);
+    }
+
+    @org.springframework.context.event.EventListener
+    public void handleSessionDisconnect(org.springframework.web.socket.messaging.SessionDisconnectEvent event) {
+        flush(key -> true, event.getSessionId());
+    }
+
+    @jakarta.annotation.PreDestroy
+    void flushOnShutdown() {
+        flushAll();
+    }
+
+    private void flush(Predicate<Key> filter, String sessionId) {
+        if (pending.isEmpty()) return;
+
+        flushLock.lock();
+        try {
+            // Drain matching entries, grouped per project (one transaction, two batches and a timestamp bump each)
+            Map<Long, List<PendingWrite>> byProject = new LinkedHashMap<>();
+            for (Key key : List.copyOf(pending.keySet())) {
+                if (!filter.test(key)) continue;
+
+                PendingWrite write = pending.get(key);
+                if (write == null || (sessionId != null && !sessionId.equals(write.sessionId()))) continue;
+
+                write = pending.remove(key);
+                if (write != null) {
+                    byProject.computeIfAbsent(key.projectId(), k -> new ArrayList<>()).add(write);
+                }
+            }
+
+            for (Map.Entry<Long, List<PendingWrite>> entry : byProject.entrySet()) {
+                List<PendingWrite> writes = entry.getValue();
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        glyphService.saveGlyphs(entry.getKey(), writes.stream().map(PendingWrite::glyph).toList());
+                        operationLogRepository.insertAll(entry.getKey(), writes.stream().map(write -> toOp(write.op())).toList());
+                    });
+                    written.addAndGet(writes.size());
+                } catch (Exception e) {
+                    boolean retry = writes.get(0).attempts() + 1 < MAX_FLUSH_ATTEMPTS;
+                    log.error("Failed to flush {} buffered glyphs of project {}{}", writes.size(), entry.getKey(),
+                            retry ? ", will retry" : ", dropping them", e);
+                    if (!retry) continue;
+
+                    // Put back unless a newer update arrived meanwhile
+                    for (PendingWrite write : writes) {
+                        pending.putIfAbsent(new Key(entry.getKey(), write.glyph().getGlyphName()),
+                                new PendingWrite(write.glyph(), write.op(), write.sessionId(), write.attempts() + 1));
+                    }
+                }
+            }
+
+            if (!byProject.isEmpty()) {
+                log.debug("Glyph write-behind: {} updates received, {} rows written so far", received.get(), written.get());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // One op for everything since the last flush: the full outline at the glyph's latest version
+    private OperationLogEntry toOp(GlyphUpdateMessage message) {
+        return OperationLogEntry.builder()
+                .seq(message.getVersion())
+                .opType(OperationLogEntry.OpType.GLYPH_UPDATE)
+                .glyphName(message.getGlyphName())
+                .userId(message.getUserId())
+                .payload(OperationLogService.payloadJson(objectMapper, message, message.getVersion()))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.fontogether.api.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * 서버 한 대용 ClusterRelay (app.cluster.relay=local, 기본값): 보낼 곳도 받을 곳도 없음
+ */
+@Component
+@ConditionalOnProperty(name = "app.cluster.relay", havingValue = "local", matchIfMissing = true)
+public class LocalClusterRelay implements ClusterRelay {
+
+    @Override
+    public String nodeId() {
+        return "local";
+    }
+
+    @Override
+    public boolean isClustered() {
+        return false;
+    }
+
+    @Override
+    public void publish(ClusterMessage message, String conflationKey, boolean replaces) {
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterMessage> listener) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.model.dto.OperationLogEntry;
+import com.fontogether.api.model.dto.OperationLogEntry.OpType;
+import com.fontogether.api.model.dto.OperationLogPage;
+import com.fontogether.api.repository.OperationLogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 협업 op log
+ * - 받아들인 변경마다 증가하는 seq 를 매기고(브로드캐스트 메시지에 실림) project_op_log 에 기록
+ *   seq 값은 모든 프로젝트가 DB 시퀀스(project_op_global_seq)에서 받음 (프로젝트 안에서는 빈 번호가 생김)
+ * - 액션 / 프로젝트 상세 수정: 카운터 행(project_op_seq)을 거쳐 변경과 같은 트랜잭션에서 seq 를 받고 op 행도 씀
+ *   행 잠금이 커밋까지 유지되므로 이 op 들은 여러 서버에서도 seq 순서대로 커밋되고, 브로드캐스트(커밋 후)보다 먼저 저장됨
+ * - 실시간 outline 편집: 프레임마다 트랜잭션 없이 nextval 로 seq(= outline 버전)만 받고,
+ *   op 행은 write-behind flush 때 글리프별로 마지막 outline 한 행만 글리프 행과 같은 트랜잭션에서 씀 (GlyphWriteBehindBuffer)
+ *   그래서 since 로 읽은 뒤에도 더 작은 seq 의 GLYPH_UPDATE 가 나타날 수 있음: 이 서버의 버퍼는 읽기 전에 flush 하고,
+ *   다른 서버의 버퍼는 최대 app.glyph.write-behind.flush-interval-ms 늦게 보임 (그 행에는 전체 outline 이 있으므로 다음 조회에서 따라잡음)
+ * - retention-ms 보다 오래된 op 는 주기적으로 삭제 (내용은 이미 glyph / font_project 행에 반영됨)
+ *   삭제된 구간부터 달라는 클라이언트는 resync 응답을 받고 전체를 다시 조회
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OperationLogService {
+
+    private final OperationLogRepository operationLogRepository;
+    private final GlyphWriteBehindBuffer glyphWriteBehindBuffer;
+    private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+    private final org.springframework.transaction.support.TransactionTemplate transactionTemplate;
+
+    @Value("${app.oplog.retention-ms:600000}")
+    private long retentionMs;
+
+    @Value("${app.oplog.max-page-size:1000}")
+    private int maxPageSize;
+
+    /**
+     * Assigns the next seq of the project and records the op, in the caller's transaction or in
+     * one of its own.
+     */
+    public long append(Long projectId, OpType opType, String glyphName, Long userId, Object payload) {
+        return transactionTemplate.execute(status -> {
+            long seq = nextSeq(projectId);
+            record(projectId, seq, opType, glyphName, userId, payload);
+            return seq;
+        });
+    }
+
+    /**
+     * Takes the next seq of the project (e.g. as a glyph's outline version) for an op recorded
+     * later in the same transaction. Until that transaction ends, the project's other actions and
+     * detail updates wait; live outline edits don't (see {@link #nextOutlineSeq}).
+     */
+    public long nextSeq(Long projectId) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("An op seq must be taken in the transaction that records the op");
+        }
+        return operationLogRepository.nextSeq(projectId);
+    }
+
+    /**
+     * Takes a seq for a live outline edit: no transaction and no counter lock, so a drag frame
+     * costs one nextval. Its op is written by the write-behind flush, one row per glyph.
+     */
+    public long nextOutlineSeq() {
+        return operationLogRepository.nextUnlockedSeq();
+    }
+
+    /**
+     * Records an op under a seq from {@link #nextSeq} or {@link #nextOutlineSeq}.
+     */
+    public void record(Long projectId, long seq, OpType opType, String glyphName, Long userId, Object payload) {
+        operationLogRepository.insert(projectId, OperationLogEntry.builder()
+                .seq(seq)
+                .opType(opType)
+                .glyphName(glyphName)
+                .userId(userId)
+                .payload(payloadJson(objectMapper, payload, seq))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Ops after {@code since}, oldest first, at most max-page-size of them.
+     */
+    public OperationLogPage readSince(Long projectId, long since, int limit) {
+        // Outline edits broadcast from here may still sit in the buffer
+        glyphWriteBehindBuffer.flushProject(projectId);
+        long latestSeq = operationLogRepository.findLastSeq(projectId);
+        long compactedSeq = operationLogRepository.findCompactedSeq(projectId);
+        // Compacted away, or a seq that was never handed out: the client has to start over
+        if (since < compactedSeq || since > operationLogRepository.findIssuedSeq()) {
+            return OperationLogPage.builder()
+                    .since(since).latestSeq(latestSeq).resync(true).hasMore(false).ops(List.of())
+                    .build();
+        }
+        // A broadcast seq whose op another server hasn't flushed yet is still a valid place to resume from
+        latestSeq = Math.max(latestSeq, since);
+
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        List<OperationLogEntry> ops = operationLogRepository.findSince(projectId, since, pageSize + 1);
+        boolean hasMore = ops.size() > pageSize;
+        return OperationLogPage.builder()
+                .since(since)
+                .latestSeq(latestSeq)
+                .resync(false)
+                .hasMore(hasMore)
+                .ops(hasMore ? ops.subList(0, pageSize) : ops)
+                .build();
+    }
+
+    /**
+     * Drops ops older than the retention window. Their effect already lives in the glyph and
+     * project rows; buffered outline edits are written first so that stays true.
+     */
+    @org.springframework.scheduling.annotation.Scheduled(fixedDelayString = "${app.oplog.compaction-interval-ms:60000}")
+    public void compact() {
+        try {
+            glyphWriteBehindBuffer.flushAll();
+            int deleted = operationLogRepository.deleteOlderThan(LocalDateTime.now().minusNanos(retentionMs * 1_000_000));
+            if (deleted > 0) {
+                log.debug("Op log compaction: deleted {} ops older than {} ms", deleted, retentionMs);
+            }
+        } catch (Exception e) {
+            log.error("Op log compaction failed", e);
+        }
+    }
+
+    // The op payload: the broadcast message with its seq
+    static String payloadJson(com.fasterxml.jackson.databind.ObjectMapper objectMapper, Object payload, long seq) {
+        try {
+            com.fasterxml.jackson.databind.JsonNode node = objectMapper.valueToTree(payload);
+            if (node instanceof com.fasterxml.jackson.databind.node.ObjectNode object) {
+                object.put("seq", seq);
+            }
+            return objectMapper.writeValueAsString(node);
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize op payload", e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.fontogether.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fontogether.api.model.dto.OutlineEdit;
+
+import java.util.List;
+
+/**
+ * outline JSON({"contours":[{"points":[...]}],"components":[...]})에 OutlineEdit 목록을 적용
+ * - 인덱스나 값이 맞지 않으면 IllegalArgumentException (호출 측이 받은 outline 은 건드리지 않음)
+ */
+final class OutlineEdits {
+
+    private OutlineEdits() {
+    }
+
+    /**
+     * Returns a copy of the outline with the edits applied in order.
+     */
+    static ObjectNode apply(ObjectNode outline, List<OutlineEdit> edits) {
+        ObjectNode result = outline.deepCopy();
+        ArrayNode contours = result.withArray("contours");
+
+        for (int i = 0; i < edits.size(); i++) {
+            OutlineEdit edit = edits.get(i);
+            try {
+                applyOne(contours, edit);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Outline edit " + i + " (" + edit.getOp() + "): " + e.getMessage(), e);
+            }
+        }
+        return result;
+    }
+
+    private static void applyOne(ArrayNode contours, OutlineEdit edit) {
+        if (edit.getOp() == null) throw new IllegalArgumentException("op is required");
+
+        switch (edit.getOp()) {
+            case MOVE_POINT -> {
+                ObjectNode point = pointAt(contours, edit);
+                point.put("x", coordinate(edit.getX(), "x"));
+                point.put("y", coordinate(edit.getY(), "y"));
+            }
+            case INSERT_POINT -> {
+                ArrayNode points = points(contours, edit.getContour());
+                int index = index(edit.getPoint(), points.size() + 1, "point");
+                points.insert(index, object(edit.getValue(), "point"));
+            }
+            case DELETE_POINT -> {
+                ArrayNode points = points(contours, edit.getContour());
+                points.remove(index(edit.getPoint(), points.size(), "point"));
+            }
+            case INSERT_CONTOUR -> {
+                int index = index(edit.getContour(), contours.size() + 1, "contour");
+                ObjectNode contour = object(edit.getValue(), "contour");
+                if (!contour.path("points").isArray()) {
+                    throw new IllegalArgumentException("contour needs a points array");
+                }
+                contours.insert(index, contour);
+            }
+            case DELETE_CONTOUR -> contours.remove(index(edit.getContour(), contours.size(), "contour"));
+        }
+    }
+
+    private static ObjectNode pointAt(ArrayNode contours, OutlineEdit edit) {
+        ArrayNode points = points(contours, edit.getContour());
+        JsonNode point = points.get(index(edit.getPoint(), points.size(), "point"));
+        if (!point.isObject()) throw new IllegalArgumentException("point " + edit.getPoint() + " is not an object");
+        return (ObjectNode) point;
+    }
+
+    private static ArrayNode points(ArrayNode contours, Integer contour) {
+        JsonNode node = contours.get(index(contour, contours.size(), "contour"));
+        JsonNode points = node.path("points");
+        if (!points.isArray()) throw new IllegalArgumentException("contour " + contour + " has no points array");
+        return (ArrayNode) points;
+    }
+
+    // 0 <= index < bound
+    private static int index(Integer index, int bound, String what) {
+        if (index == null) throw new IllegalArgumentException(what + " index is required");
+        if (index < 0 || index >= bound) {
+            throw new IllegalArgumentException(what + " index " + index + " out of range [0, " + bound + ")");
+        }
+        return index;
+    }
+
+    private static double coordinate(Double value, String axis) {
+        if (value == null || !Double.isFinite(value)) throw new IllegalArgumentException(axis + " must be a finite number");
+        return value;
+    }
+
+    private static ObjectNode object(JsonNode value, String what) {
+        if (value == null || !value.isObject()) throw new IllegalArgumentException(what + " value must be an object");
+        return (ObjectNode) value.deepCopy();
+    }
+}
@@ -0,0 +1,294 @@
+package com.fontogether.api.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * PostgreSQL LISTEN/NOTIFY 로 노드 사이 메시지 전달 (app.cluster.relay=postgres)
+ * - 전용 연결 하나로 채널을 LISTEN 하는 스레드가 받은 메시지를 순서대로 listener 에 넘김 (끊기면 다시 연결)
+ * - NOTIFY payload 는 8000 바이트 제한: max-notify-bytes 보다 큰 메시지는 cluster_relay_spill 에 넣고 id 만 NOTIFY
+ *   (spill 행은 spill-retention-ms 뒤 삭제)
+ * - 보내는 쪽: publish 는 크기 제한(max-queue)이 있는 큐에 넣기만 하고, 보내는 스레드 하나가 전용 연결로 순서대로 NOTIFY
+ *   (트랜잭션과 무관, 커밋 후에 알려야 하는 변경은 호출 측이 커밋 후에 넣음), 큐가 차면 새 메시지는 버림
+ * - 큐에서 기다리는 메시지는 같은 conflation key 의 전체 상태 메시지가 오면 빠짐 (드래그 중 outline 은 마지막 것만 감)
+ * - 추가 서비스 없이 이미 쓰는 DB 만으로 동작, 커넥션 풀의 연결 두 개(LISTEN, NOTIFY)를 계속 사용함
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cluster.relay", havingValue = "postgres")
+@RequiredArgsConstructor
+public class PostgresClusterRelay implements ClusterRelay {
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+
+    @Value("${app.cluster.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${app.cluster.postgres.channel:fontogether_relay}")
+    private String channel;
+
+    @Value("${app.cluster.postgres.max-notify-bytes:7000}")
+    private int maxNotifyBytes;
+
+    @Value("${app.cluster.postgres.spill-retention-ms:60000}")
+    private long spillRetentionMs;
+
+    @Value("${app.cluster.postgres.max-queue:10000}")
+    private int maxQueue;
+
+    // Waits this long between reconnect attempts of the listening connection
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    // Waits this long for the sender to drain the queue on shutdown
+    private static final long STOP_TIMEOUT_MS = 5000;
+
+    private record Outgoing(String key, ClusterMessage message) {}
+
+    private final List<Consumer<ClusterMessage>> listeners = new CopyOnWriteArrayList<>();
+    private String nodeId;
+    private volatile boolean running;
+    private Thread listenerThread;
+    private Thread senderThread;
+
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private final Condition queued = queueLock.newCondition();
+    private final Deque<Outgoing> queue = new ArrayDeque<>();
+    private boolean overflowing;
+
+    @jakarta.annotation.PostConstruct
+    void start() {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            // Goes into LISTEN as an identifier, not a parameter
+            throw new IllegalStateException("app.cluster.postgres.channel must be a plain lower-case identifier: " + channel);
+        }
+        nodeId = !configuredNodeId.isBlank() ? configuredNodeId : java.util.UUID.randomUUID().toString().substring(0, 8);
+        running = true;
+        listenerThread = new Thread(this::listen, "cluster-relay-" + nodeId);
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        senderThread = new Thread(this::send, "cluster-relay-sender-" + nodeId);
+        senderThread.setDaemon(true);
+        senderThread.start();
+        log.info("Cluster relay on PostgreSQL channel {} as node {}", channel, nodeId);
+    }
+
+    @jakarta.annotation.PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        listenerThread.interrupt();
+        // The sender finishes what is queued first
+        queueLock.lock();
+        try {
+            queued.signalAll();
+        } finally {
+            queueLock.unlock();
+        }
+        senderThread.join(STOP_TIMEOUT_MS);
+        senderThread.interrupt();
+        listenerThread.join(STOP_TIMEOUT_MS);
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public boolean isClustered() {
+        return true;
+    }
+
+    @Override
+    public void publish(ClusterMessage message, String conflationKey, boolean replaces) {
+        queueLock.lock();
+        try {
+            if (conflationKey != null && replaces) {
+                queue.removeIf(waiting -> conflationKey.equals(waiting.key()));
+            }
+            if (queue.size() >= maxQueue) {
+                // Other nodes catch up through the op log / the next presence sync
+                if (!overflowing) {
+                    log.warn("Cluster relay queue is full ({} messages), dropping messages to other nodes", maxQueue);
+                    overflowing = true;
+                }
+                return;
+            }
+            queue.add(new Outgoing(conflationKey, message));
+            queued.signal();
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterMessage> listener) {
+        listeners.add(listener);
+    }
+
+    @org.springframework.scheduling.annotation.Scheduled(fixedDelayString = "${app.cluster.postgres.spill-retention-ms:60000}")
+    public void deleteOldSpills() {
+        int deleted = jdbcTemplate.update("DELETE FROM cluster_relay_spill WHERE created_at < ?",
+                java.sql.Timestamp.valueOf(java.time.LocalDateTime.now().minus(java.time.Duration.ofMillis(spillRetentionMs))));
+        if (deleted > 0) {
+            log.debug("Deleted {} relayed messages older than {} ms", deleted, spillRetentionMs);
+        }
+    }
+
+    // Sender thread: one connection, messages in queue order
+    private void send() {
+        while (running || !isQueueEmpty()) {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement notify = connection.prepareStatement("SELECT pg_notify(?, ?)");
+                 PreparedStatement spill = connection.prepareStatement("INSERT INTO cluster_relay_spill (payload) VALUES (?) RETURNING id")) {
+                // Outside any Spring transaction: the NOTIFY goes out now, not at (or never after) commit
+                connection.setAutoCommit(true);
+                notify.setString(1, channel);
+
+                ClusterMessage message;
+                while ((message = take()) != null) {
+                    try {
+                        notify.setString(2, notification(message, spill));
+                        notify.execute();
+                    } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+                        log.warn("Failed to relay {} of project {} to other nodes", message.type(), message.projectId(), e);
+                    }
+                }
+                return;
+            } catch (SQLException e) {
+                if (!running && isQueueEmpty()) return;
+                log.warn("Cluster relay sender connection lost, reconnecting in {} ms", RECONNECT_DELAY_MS, e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // Next message to send, or null once stopped and drained
+    private ClusterMessage take() throws InterruptedException {
+        queueLock.lock();
+        try {
+            while (queue.isEmpty()) {
+                if (!running) return null;
+                queued.await();
+            }
+            ClusterMessage message = queue.poll().message();
+            if (queue.isEmpty()) overflowing = false;
+            return message;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    // Messages waiting to be sent, oldest first
+    List<ClusterMessage> queued() {
+        queueLock.lock();
+        try {
+            return queue.stream().map(Outgoing::message).toList();
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    private boolean isQueueEmpty() {
+        queueLock.lock();
+        try {
+            return queue.isEmpty();
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    private String notification(ClusterMessage message, PreparedStatement spill)
+            throws com.fasterxml.jackson.core.JsonProcessingException, SQLException {
+        String json = objectMapper.writeValueAsString(message);
+        if (json.getBytes(StandardCharsets.UTF_8).length <= maxNotifyBytes) return json;
+
+        // Too big for NOTIFY: receivers fetch it by id ("node:id")
+        spill.setString(1, json);
+        try (ResultSet rs = spill.executeQuery()) {
+            rs.next();
+            return nodeId + ":" + rs.getLong(1);
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.debug("Listening on {}", channel);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(500);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("Cluster relay connection lost, reconnecting in {} ms", RECONNECT_DELAY_MS, e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(String notification) {
+        // NOTIFY reaches our own listening connection too
+        if (notification.startsWith(nodeId + ":")) return;
+
+        ClusterMessage message;
+        try {
+            String json = notification.startsWith("{") ? notification : jdbcTemplate.queryForObject(
+                    "SELECT payload FROM cluster_relay_spill WHERE id = ?", String.class,
+                    Long.parseLong(notification.substring(notification.lastIndexOf(':') + 1)));
+            message = objectMapper.readValue(json, ClusterMessage.class);
+        } catch (Exception e) {
+            log.warn("Dropped unreadable relayed message {}", notification.length() > 100 ? notification.substring(0, 100) : notification, e);
+            return;
+        }
+        if (nodeId.equals(message.nodeId())) return;
+
+        for (Consumer<ClusterMessage> listener : listeners) {
+            try {
+                listener.accept(message);
+            } catch (Exception e) {
+                log.error("Relayed {} of project {} from node {} failed", message.type(), message.projectId(), message.nodeId(), e);
+            }
+        }
+    }
+}
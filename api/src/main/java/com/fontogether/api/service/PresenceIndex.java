@@ -0,0 +1,216 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.model.dto.PresenceMessage.UserState;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 프로젝트별 접속 현황 (사용자 -> 세션 수 참조 카운트 + 닉네임/편집 중인 글리프)
+ * - 입장/퇴장은 O(1): 해당 사용자의 세션 수만 바꾸고, 0 <-> 1 이 될 때만 접속자 수를 바꿈
+ * - 접속자 수 조회는 필드 하나 읽기
+ * - 프로젝트 전체에 거는 lock 없음 (같은 사용자의 세션끼리만 같은 키를 다툼)
+ * - 상태가 바뀐 사용자는 changed 에 모아 두고 drainChanges() 가 사용자별 마지막 상태만 꺼내감 (주기적 presence 전송용)
+ * - 세션 중복/이동 처리는 호출 측(PresenceService)이 세션 맵으로 판단해서 join/leave 를 짝지어 호출
+ */
+final class PresenceIndex {
+
+    private record UserEntry(int sessions, String nickname, Integer editingUnicode) {}
+
+    private static final class ProjectPresence {
+        final Long projectId;
+        final Map<Long, UserEntry> users = new ConcurrentHashMap<>();
+        final Set<Long> changed = ConcurrentHashMap.newKeySet();
+        final AtomicInteger activeUsers = new AtomicInteger();
+        final AtomicInteger sessions = new AtomicInteger();
+        // Set once the entry is being dropped; a join that sees it retries with a fresh entry
+        volatile boolean retired;
+
+        ProjectPresence(Long projectId) {
+            this.projectId = projectId;
+        }
+    }
+
+    /**
+     * Users whose state changed since the last drain, with their current state (offline users have online=false).
+     */
+    record Changes(Long projectId, int activeUsers, List<UserState> users) {}
+
+    private final Map<Long, ProjectPresence> projects = new ConcurrentHashMap<>();
+    // Entries, not ids: the last leave retires the entry, and its changes must still be drained (other servers need them)
+    private final Set<ProjectPresence> changedProjects = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Adds a session of the user (null: anonymous, counted as a session only) and returns the active user count.
+     */
+    int join(Long projectId, Long userId, String nickname) {
+        while (true) {
+            ProjectPresence presence = projects.computeIfAbsent(projectId, ProjectPresence::new);
+            presence.sessions.incrementAndGet();
+            if (presence.retired) {
+                // Lost the race against the entry being dropped
+                presence.sessions.decrementAndGet();
+                continue;
+            }
+
+            if (userId == null) return presence.activeUsers.get();
+
+            UserEntry entry = presence.users.merge(userId, new UserEntry(1, nickname, null),
+                    (current, added) -> new UserEntry(current.sessions() + 1,
+                            nickname != null ? nickname : current.nickname(), current.editingUnicode()));
+            if (entry.sessions() == 1) {
+                int activeUsers = presence.activeUsers.incrementAndGet();
+                markChanged(projectId, presence, userId);
+                return activeUsers;
+            }
+            return presence.activeUsers.get();
+        }
+    }
+
+    /**
+     * Removes a session added by {@link #join} and returns the active user count.
+     */
+    int leave(Long projectId, Long userId) {
+        ProjectPresence presence = projects.get(projectId);
+        if (presence == null) return 0;
+
+        int activeUsers = presence.activeUsers.get();
+        if (userId != null) {
+            boolean[] lastSession = new boolean[1];
+            presence.users.computeIfPresent(userId, (id, entry) -> {
+                lastSession[0] = entry.sessions() == 1;
+                return lastSession[0] ? null : new UserEntry(entry.sessions() - 1, entry.nickname(), entry.editingUnicode());
+            });
+            if (lastSession[0]) {
+                activeUsers = presence.activeUsers.decrementAndGet();
+                markChanged(projectId, presence, userId);
+            }
+        }
+
+        if (presence.sessions.decrementAndGet() == 0) {
+            // The pending changes stay in changedProjects with the entry
+            retireIfEmpty(projectId, presence);
+        }
+        return activeUsers;
+    }
+
+    /**
+     * Sets (or clears, with null) the glyph the user is editing; ignored for users not in the project.
+     */
+    void editing(Long projectId, Long userId, Integer unicode) {
+        ProjectPresence presence = projects.get(projectId);
+        if (presence == null || userId == null) return;
+
+        boolean[] updated = new boolean[1];
+        presence.users.computeIfPresent(userId, (id, entry) -> {
+            if (java.util.Objects.equals(entry.editingUnicode(), unicode)) return entry;
+            updated[0] = true;
+            return new UserEntry(entry.sessions(), entry.nickname(), unicode);
+        });
+        if (updated[0]) markChanged(projectId, presence, userId);
+    }
+
+    /**
+     * Takes the pending changes of every project (each user once, in its latest state).
+     */
+    List<Changes> drainChanges() {
+        List<Changes> drained = new ArrayList<>();
+        for (Iterator<ProjectPresence> it = changedProjects.iterator(); it.hasNext(); ) {
+            ProjectPresence presence = it.next();
+            // Removed before reading, so a change made while we read marks the project again
+            it.remove();
+
+            List<UserState> users = new ArrayList<>();
+            for (Iterator<Long> userIt = presence.changed.iterator(); userIt.hasNext(); ) {
+                Long userId = userIt.next();
+                userIt.remove();
+                users.add(state(userId, presence.users.get(userId)));
+            }
+            if (!users.isEmpty()) {
+                drained.add(new Changes(presence.projectId, presence.activeUsers.get(), users));
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Everyone currently in the project.
+     */
+    List<UserState> snapshot(Long projectId) {
+        ProjectPresence presence = projects.get(projectId);
+        if (presence == null) return List.of();
+
+        List<UserState> users = new ArrayList<>(presence.users.size());
+        presence.users.forEach((userId, entry) -> users.add(state(userId, entry)));
+        return users;
+    }
+
+    /**
+     * Everyone in every project.
+     */
+    Map<Long, List<UserState>> snapshotAll() {
+        Map<Long, List<UserState>> all = new java.util.HashMap<>();
+        for (Long projectId : projects.keySet()) {
+            List<UserState> users = snapshot(projectId);
+            if (!users.isEmpty()) all.put(projectId, users);
+        }
+        return all;
+    }
+
+    /**
+     * Drops the project's entry (the caller rejoins every session it still has).
+     */
+    void reset(Long projectId) {
+        ProjectPresence presence = projects.remove(projectId);
+        if (presence != null) presence.retired = true;
+    }
+
+    int activeUsers(Long projectId) {
+        ProjectPresence presence = projects.get(projectId);
+        return presence != null ? presence.activeUsers.get() : 0;
+    }
+
+    int sessions(Long projectId) {
+        ProjectPresence presence = projects.get(projectId);
+        return presence != null ? presence.sessions.get() : 0;
+    }
+
+    int totalSessions() {
+        return projects.values().stream().mapToInt(presence -> presence.sessions.get()).sum();
+    }
+
+    Set<Long> projectIds() {
+        return Set.copyOf(projects.keySet());
+    }
+
+    Set<Long> userIds(Long projectId) {
+        ProjectPresence presence = projects.get(projectId);
+        return presence != null ? Set.copyOf(presence.users.keySet()) : Set.of();
+    }
+
+    private void markChanged(Long projectId, ProjectPresence presence, Long userId) {
+        presence.changed.add(userId);
+        changedProjects.add(presence);
+    }
+
+    private static UserState state(Long userId, UserEntry entry) {
+        return entry != null
+                ? new UserState(userId, entry.nickname(), true, entry.editingUnicode())
+                : new UserState(userId, null, false, null);
+    }
+
+    // Mark first, then re-check: a join either sees the mark (and retries) or is seen here (and the entry stays)
+    private void retireIfEmpty(Long projectId, ProjectPresence presence) {
+        presence.retired = true;
+        if (presence.sessions.get() > 0) {
+            presence.retired = false;
+            return;
+        }
+        projects.remove(projectId, presence);
+    }
+}
@@ -0,0 +1,360 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.model.dto.PresenceMessage;
+import com.fontogether.api.model.dto.PresenceMessage.UserState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 프로젝트 접속 현황 (입장/퇴장, 편집 중인 글리프)
+ * - 입장/퇴장/편집 시작·중단은 바로 보내지 않고 PresenceIndex 에 반영만, tick-ms 마다 바뀐 사용자의 마지막 상태만
+ *   프로젝트별 DIFF 한 번으로 /topic/project/{projectId}/presence 에 전송 (변경이 없으면 보내지 않음)
+ * - 입장한 세션에는 현재 접속자 전체(SNAPSHOT)를 /user/queue/presence 로 전송
+ * - 세션이 보내는 모든 프레임(STOMP heartbeat 포함)이 lastSeen 을 갱신, session-timeout-ms 동안 아무것도 안 온 세션은 퇴장 처리
+ * - reconcile-interval-ms 마다 세션 맵과 PresenceIndex 를 비교해서 두 번 연속 어긋난 프로젝트는 세션 맵 기준으로 다시 만듦
+ * - 입장은 프로젝트 메일박스에서 처리되므로 연결 종료보다 늦게 올 수 있음: 이미 끊긴 세션의 입장은 무시 (세션 id 는 재사용되지 않음)
+ * - 여러 서버: 이 서버의 변경분은 ClusterRelay 로 다른 서버에 보내고(PRESENCE), 모든 서버의 현황을 ClusterPresence 로 합쳐서
+ *   각 서버가 자기 구독자에게 DIFF 를 보냄. presence-sync-ms 마다 전체 현황(PRESENCE_STATE)을 보내고,
+ *   node-timeout-ms 동안 소식이 없는 서버의 사용자는 나간 것으로 처리
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PresenceService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ProjectMailboxExecutor projectMailboxExecutor;
+    private final ClusterRelay clusterRelay;
+    private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+
+    @Value("${app.collaboration.presence.session-timeout-ms:60000}")
+    private long sessionTimeoutMs;
+
+    @Value("${app.cluster.node-timeout-ms:15000}")
+    private long nodeTimeoutMs;
+
+    public static final String SNAPSHOT_DESTINATION = "/queue/presence";
+
+    // Only refreshed when older than this, so a drag at 60 frames/s does not rewrite the map 60 times a second
+    private static final long LAST_SEEN_RESOLUTION_MS = 1000;
+
+    // ProjectID -> UserID -> session count, nickname, editing glyph (active user counts are a field read)
+    private final PresenceIndex presenceIndex = new PresenceIndex();
+
+    // SessionID -> SessionInfo (For lookup on disconnect)
+    private final Map<String, SessionInfo> sessionMap = new ConcurrentHashMap<>();
+
+    // SessionID -> last frame received; kept in step with sessionMap
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+
+    // SessionID -> when it disconnected. A join still queued on the mailbox must not bring it back
+    private final Map<String, Long> disconnected = new ConcurrentHashMap<>();
+
+    // Every server's users, merged (what clients see)
+    private final ClusterPresence clusterPresence = new ClusterPresence();
+
+    // Merging a change and sending the DIFF it produced happen together, so DIFFs go out in merge order
+    private final java.util.concurrent.locks.ReentrantLock sendLock = new java.util.concurrent.locks.ReentrantLock();
+
+    // Joined sessions waiting for their SNAPSHOT (sent after the tick that merged their join)
+    private final java.util.Queue<PendingSnapshot> pendingSnapshots = new java.util.concurrent.ConcurrentLinkedQueue<>();
+
+    // Projects whose counts disagreed on the last reconcile run
+    private Set<Long> suspectProjects = Set.of();
+
+    private static final com.fasterxml.jackson.core.type.TypeReference<Map<Long, List<UserState>>> PROJECT_USERS =
+            new com.fasterxml.jackson.core.type.TypeReference<>() {};
+
+    private record SessionInfo(Long projectId, Long userId, String nickname) {}
+
+    private record PendingSnapshot(String sessionId, Long projectId) {}
+
+    @jakarta.annotation.PostConstruct
+    void subscribe() {
+        clusterRelay.subscribe(this::receive);
+    }
+
+    @org.springframework.context.event.EventListener
+    public void handleSessionConnect(org.springframework.web.socket.messaging.SessionConnectEvent event) {
+        log.debug("Session Connected Event: sid={}",
+                org.springframework.messaging.simp.stomp.StompHeaderAccessor.wrap(event.getMessage()).getSessionId());
+    }
+
+    public void userJoined(Long projectId, Long userId, String nickname, String sessionId) {
+        // Track session (a repeated join of the same session is not counted twice).
+        // Inside compute so a disconnect of the same session can't slip between the map and the index
+        SessionInfo info = new SessionInfo(projectId, userId, nickname);
+        int[] active = new int[1];
+        boolean[] gone = new boolean[1];
+        sessionMap.compute(sessionId, (sid, previous) -> {
+            if (disconnected.containsKey(sid)) {
+                gone[0] = true;
+                return previous;
+            }
+            lastSeen.put(sid, System.currentTimeMillis());
+            if (info.equals(previous)) {
+                active[0] = presenceIndex.activeUsers(projectId);
+                return previous;
+            }
+            if (previous != null) {
+                presenceIndex.leave(previous.projectId(), previous.userId());
+            }
+            active[0] = presenceIndex.join(projectId, userId, nickname);
+            return info;
+        });
+        if (gone[0]) {
+            log.debug("Ignored join of closed session: pid={}, uid={}, sid={}", projectId, userId, sessionId);
+            return;
+        }
+
+        log.debug("User Joined: pid={}, uid={}, sid={}, activeCount={}", projectId, userId, sessionId, active[0]);
+
+        // Everyone (this session included) hears about it on the next tick, then this session gets the whole list
+        if (sessionId != null) pendingSnapshots.add(new PendingSnapshot(sessionId, projectId));
+    }
+
+    public void userLeft(Long projectId, Long userId, String nickname) {
+        // Manual user left logic if needed (usually handled by disconnect)
+    }
+
+    public void userStartedEditing(Long projectId, Long userId, Integer unicode) {
+        presenceIndex.editing(projectId, userId, unicode);
+    }
+
+    public void userStoppedEditing(Long projectId, Long userId) {
+        presenceIndex.editing(projectId, userId, null);
+    }
+
+    /**
+     * Any frame from the session (messages, subscriptions, STOMP heartbeats) shows it is still there.
+     */
+    public void touch(String sessionId) {
+        if (sessionId == null) return;
+        Long seen = lastSeen.get(sessionId);
+        long now = System.currentTimeMillis();
+        if (seen != null && now - seen >= LAST_SEEN_RESOLUTION_MS) {
+            // replace: a session that already left is not brought back
+            lastSeen.replace(sessionId, now);
+        }
+    }
+
+    @org.springframework.context.event.EventListener
+    public void handleSessionDisconnect(org.springframework.web.socket.messaging.SessionDisconnectEvent event) {
+        // First, so a join that runs after this (or while it runs) sees it
+        disconnected.put(event.getSessionId(), System.currentTimeMillis());
+        SessionInfo info = removeSession(event.getSessionId());
+
+        if (info != null) {
+            log.debug("Session Disconnected: pid={}, uid={}, sid={}, closeStatus={}",
+                    info.projectId(), info.userId(), event.getSessionId(), event.getCloseStatus());
+        } else {
+            log.debug("Session Disconnected (Ignored): sid={} (Not in map), closeStatus={}",
+                    event.getSessionId(), event.getCloseStatus());
+        }
+    }
+
+    /**
+     * Sends each project's changes since the last tick as one DIFF, then the pending SNAPSHOTs.
+     */
+    @org.springframework.scheduling.annotation.Scheduled(fixedDelayString = "${app.collaboration.presence.tick-ms:250}")
+    public void tick() {
+        List<PresenceIndex.Changes> drained = presenceIndex.drainChanges();
+        long now = System.currentTimeMillis();
+
+        sendLock.lock();
+        try {
+            for (PresenceIndex.Changes changes : drained) {
+                sendDiff(changes.projectId(), clusterPresence.apply(clusterRelay.nodeId(), changes.projectId(), changes.users(), now));
+            }
+            for (PendingSnapshot pending; (pending = pendingSnapshots.poll()) != null; ) {
+                sendSnapshot(pending.sessionId(), pending.projectId());
+            }
+        } finally {
+            sendLock.unlock();
+        }
+
+        if (clusterRelay.isClustered() && !drained.isEmpty()) {
+            Map<Long, List<UserState>> changes = new HashMap<>();
+            drained.forEach(projectChanges -> changes.put(projectChanges.projectId(), projectChanges.users()));
+            clusterRelay.publish(new ClusterMessage(clusterRelay.nodeId(), ClusterMessage.Type.PRESENCE, null, null, toJson(changes)));
+        }
+    }
+
+    /**
+     * Tells the other servers everything this one has (they drop users we no longer report) and forgets silent servers.
+     */
+    @org.springframework.scheduling.annotation.Scheduled(fixedDelayString = "${app.cluster.presence-sync-ms:5000}")
+    public void syncCluster() {
+        if (!clusterRelay.isClustered()) return;
+
+        clusterRelay.publish(new ClusterMessage(clusterRelay.nodeId(), ClusterMessage.Type.PRESENCE_STATE, null, null,
+                toJson(presenceIndex.snapshotAll())));
+
+        sendLock.lock();
+        try {
+            clusterPresence.expire(System.currentTimeMillis() - nodeTimeoutMs, clusterRelay.nodeId()).forEach(this::sendDiff);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /**
+     * Expires sessions that went silent and repairs projects whose counts drifted from the session map.
+     */
+    @org.springframework.scheduling.annotation.Scheduled(fixedDelayString = "${app.collaboration.presence.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        // 1. Sessions that stopped sending anything, heartbeats included (the close never reached us)
+        if (sessionTimeoutMs > 0) {
+            long threshold = System.currentTimeMillis() - sessionTimeoutMs;
+            lastSeen.forEach((sessionId, seen) -> {
+                if (seen >= threshold) return;
+                SessionInfo info = removeSession(sessionId);
+                if (info != null) {
+                    log.info("Expired silent session: pid={}, uid={}, sid={}", info.projectId(), info.userId(), sessionId);
+                }
+            });
+        }
+
+        // Mailboxes have long run the joins queued before those disconnects
+        long disconnectedThreshold = System.currentTimeMillis() - Math.max(sessionTimeoutMs, 60_000);
+        disconnected.values().removeIf(at -> at < disconnectedThreshold);
+
+        // 2. Session map vs index, per project. Joins in flight can disagree for a moment, so only a
+        //    difference seen twice in a row is repaired
+        Map<Long, Integer> expected = new HashMap<>();
+        sessionMap.values().forEach(info -> expected.merge(info.projectId(), 1, Integer::sum));
+
+        Set<Long> mismatched = new HashSet<>();
+        Set<Long> projectIds = new HashSet<>(expected.keySet());
+        projectIds.addAll(presenceIndex.projectIds());
+        for (Long projectId : projectIds) {
+            if (presenceIndex.sessions(projectId) != expected.getOrDefault(projectId, 0)) mismatched.add(projectId);
+        }
+
+        for (Long projectId : mismatched) {
+            if (suspectProjects.contains(projectId)) {
+                log.warn("Rebuilding presence of project {}: index has {} sessions, session map {}",
+                        projectId, presenceIndex.sessions(projectId), expected.getOrDefault(projectId, 0));
+                // On the mailbox, so no join of the project runs in between
+                projectMailboxExecutor.submit(projectId, () -> rebuild(projectId));
+            }
+        }
+        suspectProjects = mismatched;
+    }
+
+    public int getActiveUserCount(Long projectId) {
+        return clusterPresence.activeUsers(projectId);
+    }
+
+    private void receive(ClusterMessage message) {
+        if (message.type() != ClusterMessage.Type.PRESENCE && message.type() != ClusterMessage.Type.PRESENCE_STATE) return;
+
+        Map<Long, List<UserState>> users;
+        try {
+            users = objectMapper.readValue(message.payload(), PROJECT_USERS);
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            log.warn("Unreadable presence from node {}", message.nodeId(), e);
+            return;
+        }
+        long now = System.currentTimeMillis();
+
+        sendLock.lock();
+        try {
+            if (message.type() == ClusterMessage.Type.PRESENCE) {
+                users.forEach((projectId, changes) ->
+                        sendDiff(projectId, clusterPresence.apply(message.nodeId(), projectId, changes, now)));
+            } else {
+                clusterPresence.replaceNode(message.nodeId(), users, now).forEach(this::sendDiff);
+            }
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private SessionInfo removeSession(String sessionId) {
+        SessionInfo[] removed = new SessionInfo[1];
+        sessionMap.computeIfPresent(sessionId, (sid, info) -> {
+            removed[0] = info;
+            presenceIndex.leave(info.projectId(), info.userId());
+            lastSeen.remove(sid);
+            return null;
+        });
+        return removed[0];
+    }
+
+    private void rebuild(Long projectId) {
+        presenceIndex.reset(projectId);
+        for (String sessionId : Set.copyOf(sessionMap.keySet())) {
+            // Per session, so a disconnect is applied either before (skipped here) or after (leaves the new entry)
+            sessionMap.computeIfPresent(sessionId, (sid, info) -> {
+                if (info.projectId().equals(projectId)) {
+                    presenceIndex.join(projectId, info.userId(), info.nickname());
+                }
+                return info;
+            });
+        }
+
+        sendLock.lock();
+        try {
+            clusterPresence.replaceProject(clusterRelay.nodeId(), projectId, presenceIndex.snapshot(projectId), System.currentTimeMillis());
+            // Clients may have missed changes: everyone gets the whole list
+            messagingTemplate.convertAndSend("/topic/project/" + projectId + "/presence", snapshot(projectId));
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    // Only to this server's subscribers: every server sends its own
+    private void sendDiff(Long projectId, List<UserState> users) {
+        if (users.isEmpty()) return;
+        try {
+            messagingTemplate.convertAndSend("/topic/project/" + projectId + "/presence",
+                    PresenceMessage.builder()
+                            .type(PresenceMessage.Type.DIFF)
+                            .projectId(projectId)
+                            .activeCount(clusterPresence.activeUsers(projectId))
+                            .users(users)
+                            .timestamp(System.currentTimeMillis())
+                            .build());
+        } catch (Exception e) {
+            log.warn("Failed to send presence of project {}", projectId, e);
+        }
+    }
+
+    // Only the joining session needs everyone: the others already have them
+    private void sendSnapshot(String sessionId, Long projectId) {
+        org.springframework.messaging.simp.SimpMessageHeaderAccessor headers =
+                org.springframework.messaging.simp.SimpMessageHeaderAccessor.create(org.springframework.messaging.simp.SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(sessionId, SNAPSHOT_DESTINATION, snapshot(projectId), headers.getMessageHeaders());
+    }
+
+    private PresenceMessage snapshot(Long projectId) {
+        return PresenceMessage.builder()
+                .type(PresenceMessage.Type.SNAPSHOT)
+                .projectId(projectId)
+                .activeCount(clusterPresence.activeUsers(projectId))
+                .users(clusterPresence.snapshot(projectId))
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize presence", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.fontogether.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fontogether.api.model.dto.GlyphUpdateMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * /topic/project/{projectId}/... 브로드캐스트 (모든 노드의 구독자에게)
+ * - JSON 으로 한 번만 직렬화해서 이 노드의 구독자에게 보내고, ClusterRelay 로 다른 노드에도 전달
+ * - 다른 노드에서 온 브로드캐스트는 이 노드의 구독자에게 그대로 보내고 RemoteBroadcastEvent 를 발행
+ * - 다른 노드는 받자마자 DB 를 다시 읽을 수 있으므로 트랜잭션 안의 변경은 커밋 후에 브로드캐스트할 것
+ * - glyph/update 에는 글리프별 conflation 헤더를 붙임 (느린 세션에 밀린 이전 outline 은 SlowConsumerOutbox 가 버림)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProjectBroadcaster {
+
+    private final ClusterRelay clusterRelay;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+
+    private static final String PROJECT_TOPIC_PREFIX = "/topic/project/";
+    private static final String GLYPH_UPDATE_TOPIC = "glyph/update";
+
+    @jakarta.annotation.PostConstruct
+    void subscribe() {
+        clusterRelay.subscribe(this::receive);
+    }
+
+    /**
+     * Sends to /topic/project/{projectId}/{topic} on every node.
+     */
+    public void broadcast(Long projectId, String topic, Object payload) {
+        String destination = PROJECT_TOPIC_PREFIX + projectId + "/" + topic;
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize broadcast to " + destination, e);
+        }
+
+        GlyphUpdateMessage glyphUpdate = GLYPH_UPDATE_TOPIC.equals(topic) && payload instanceof GlyphUpdateMessage update ? update : null;
+        boolean wholeOutline = glyphUpdate != null && glyphUpdate.getOutlineDelta() == null;
+        sendLocal(destination, json, glyphUpdate != null ? glyphUpdate.getGlyphName() : null, wholeOutline);
+        if (clusterRelay.isClustered()) {
+            // Same conflation as for slow subscribers: a whole outline makes the glyph's unsent frames redundant
+            clusterRelay.publish(new ClusterMessage(clusterRelay.nodeId(), ClusterMessage.Type.BROADCAST, projectId, topic, json),
+                    glyphUpdate != null ? destination + "|" + glyphUpdate.getGlyphName() : null, wholeOutline);
+        }
+    }
+
+    private void receive(ClusterMessage message) {
+        if (message.type() != ClusterMessage.Type.BROADCAST) return;
+
+        String destination = PROJECT_TOPIC_PREFIX + message.projectId() + "/" + message.topic();
+        JsonNode payload;
+        try {
+            payload = objectMapper.readTree(message.payload());
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            log.warn("Relayed {} of project {} is not JSON", message.topic(), message.projectId());
+            sendLocal(destination, message.payload(), null, false);
+            return;
+        }
+
+        boolean glyphUpdate = GLYPH_UPDATE_TOPIC.equals(message.topic()) && payload.hasNonNull("glyphName");
+        sendLocal(destination, message.payload(), glyphUpdate ? payload.get("glyphName").asText() : null,
+                glyphUpdate && !payload.hasNonNull("outlineDelta"));
+        eventPublisher.publishEvent(new RemoteBroadcastEvent(message.projectId(), message.topic(), payload));
+    }
+
+    // Already JSON: goes out as is instead of through the message converter
+    private void sendLocal(String destination, String json, String glyphName, boolean wholeOutline) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (glyphName != null) {
+            // Not STOMP headers: the broker copies them to each subscriber's message, they are not sent to clients
+            headers.setHeader(SlowConsumerOutbox.CONFLATION_KEY_HEADER, destination + "|" + glyphName);
+            headers.setHeader(SlowConsumerOutbox.CONFLATION_REPLACES_HEADER, wholeOutline);
+        }
+        headers.setLeaveMutable(true);
+        messagingTemplate.send(destination,
+                MessageBuilder.createMessage(json.getBytes(StandardCharsets.UTF_8), headers.getMessageHeaders()));
+    }
+}
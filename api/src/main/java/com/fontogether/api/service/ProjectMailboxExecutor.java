@@ -0,0 +1,198 @@
+package com.fontogether.api.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 프로젝트별 직렬 실행기 (메일박스)
+ * - 같은 프로젝트의 협업 메시지는 도착 순서대로 하나씩 실행, 다른 프로젝트는 공용 스레드 풀에서 병렬 실행
+ * - 전역 lock 없음: 프로젝트마다 큐 하나, 큐에 일이 있을 때만 풀에 drain 작업 하나를 올림
+ * - 한 번에 batch-size 개까지만 처리하고 양보해서 바쁜 프로젝트가 스레드를 독점하지 않게 함
+ * - REST 로 들어온 글리프 저장도 같은 메일박스를 거침 (call 로 넣고 결과를 기다림): 앞서 도착한 같은 프로젝트의 실시간 메시지를 앞지르지 않음
+ * - spring.threads.virtual.enabled=true 이면 공용 스레드 풀 대신 가상 스레드에서 실행
+ *   (느린 쿼리를 기다리는 프로젝트가 다른 프로젝트의 스레드를 잡고 있지 않음, 동시에 DB 를 쓰는 수는 커넥션 풀 크기로 제한)
+ * - 메트릭: collaboration.mailbox.depth / collaboration.mailbox.max-depth (tag: project)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectMailboxExecutor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.collaboration.mailbox.threads:0}")
+    private int threads;
+
+    @Value("${app.collaboration.mailbox.batch-size:64}")
+    private int batchSize;
+
+    @Value("${app.collaboration.mailbox.idle-ms:600000}")
+    private long idleMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final class Mailbox implements Runnable {
+        final Long projectId;
+        final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        // Queued + running; the submitter that moves it off zero schedules the drain
+        final AtomicInteger depth = new AtomicInteger();
+        final AtomicInteger maxDepth = new AtomicInteger();
+        final AtomicLong processed = new AtomicLong();
+        volatile long lastUsed = System.currentTimeMillis();
+        List<Gauge> gauges = List.of();
+
+        Mailbox(Long projectId) {
+            this.projectId = projectId;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < batchSize; i++) {
+                Runnable task = tasks.poll();
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.error("Collaboration task of project {} failed", projectId, e);
+                } finally {
+                    processed.incrementAndGet();
+                }
+                if (depth.decrementAndGet() == 0) return;
+            }
+            // Still busy: go to the back of the pool queue so other projects get a turn
+            try {
+                executor.execute(this);
+            } catch (java.util.concurrent.RejectedExecutionException e) {
+                log.warn("Shutting down: dropping {} queued collaboration tasks of project {}", depth.get(), projectId);
+            }
+        }
+    }
+
+    private final Map<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @jakarta.annotation.PostConstruct
+    void start() {
+        if (virtualThreads) {
+            // A drain per busy project, each on its own virtual thread; blocking JDBC unmounts instead of holding a carrier
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("project-mailbox-", 1).factory());
+            return;
+        }
+
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, "project-mailbox-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @jakarta.annotation.PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Project mailboxes did not drain within 10s");
+        }
+    }
+
+    /**
+     * Runs the task after every task previously submitted for the same project.
+     */
+    public void submit(Long projectId, Runnable task) {
+        if (projectId == null) {
+            // Not project scoped: nothing to order against
+            executor.execute(task);
+            return;
+        }
+
+        boolean[] schedule = new boolean[1];
+        Mailbox mailbox = mailboxes.compute(projectId, (id, existing) -> {
+            Mailbox box = existing != null ? existing : newMailbox(id);
+            // Enqueued inside compute, so the idle sweep can never drop a mailbox that just got work
+            box.tasks.add(task);
+            int depth = box.depth.incrementAndGet();
+            box.maxDepth.accumulateAndGet(depth, Math::max);
+            box.lastUsed = System.currentTimeMillis();
+            schedule[0] = depth == 1;
+            return box;
+        });
+        if (schedule[0]) {
+            executor.execute(mailbox);
+        }
+    }
+
+    /**
+     * Runs the task in the project's order like {@link #submit} and waits for its result; its
+     * exception is rethrown here. Not for tasks already running in a mailbox (the same project's
+     * would wait for itself).
+     */
+    public <T> T call(Long projectId, java.util.function.Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        submit(projectId, () -> {
+            try {
+                result.complete(task.get());
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        });
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    public int depth(Long projectId) {
+        Mailbox mailbox = mailboxes.get(projectId);
+        return mailbox != null ? mailbox.depth.get() : 0;
+    }
+
+    // Drops mailboxes (and their per-project gauges) of projects that went quiet
+    @org.springframework.scheduling.annotation.Scheduled(fixedDelayString = "${app.collaboration.mailbox.idle-ms:600000}")
+    public void removeIdle() {
+        long threshold = System.currentTimeMillis() - idleMs;
+        for (Long projectId : List.copyOf(mailboxes.keySet())) {
+            mailboxes.computeIfPresent(projectId, (id, box) -> {
+                if (box.depth.get() > 0 || box.lastUsed > threshold) return box;
+                box.gauges.forEach(meterRegistry::remove);
+                log.debug("Removed idle mailbox of project {} ({} tasks processed, max depth {})",
+                        id, box.processed.get(), box.maxDepth.get());
+                return null;
+            });
+        }
+    }
+
+    private Mailbox newMailbox(Long projectId) {
+        Mailbox box = new Mailbox(projectId);
+        String project = String.valueOf(projectId);
+        box.gauges = List.of(
+                Gauge.builder("collaboration.mailbox.depth", box.depth, AtomicInteger::get)
+                        .description("Collaboration messages queued or running for the project")
+                        .tag("project", project)
+                        .register(meterRegistry),
+                Gauge.builder("collaboration.mailbox.max-depth", box.maxDepth, AtomicInteger::get)
+                        .description("Deepest the project's mailbox has been")
+                        .tag("project", project)
+                        .register(meterRegistry));
+        return box;
+    }
+}
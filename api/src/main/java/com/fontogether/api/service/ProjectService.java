@@ -3,11 +3,13 @@ package com.fontogether.api.service;
 import com.fontogether.api.model.domain.Project;
 import com.fontogether.api.repository.ProjectRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProjectService {
@@ -16,6 +18,8 @@ public class ProjectService {
     private final com.fontogether.api.repository.GlyphRepository glyphRepository;
     private final UfoImportService ufoImportService;
     private final UfoExportService ufoExportService;
+    private final UfoTemplateService ufoTemplateService;
+    private final UfoExportCache ufoExportCache;
 
     @Transactional(readOnly = true)
     public List<Project> getProjectsByUserId(Long userId) {
@@ -31,52 +35,17 @@ public class ProjectService {
             title = "New Project (" + templateName + ")";
         }
         
-        // Korean Template: Load from local UFO
-        if ("Korean".equalsIgnoreCase(templateName)) {
+        // Korean / English Template: copy the stored, pre-parsed UFO template
+        if (ufoTemplateService.isUfoTemplate(templateName)) {
             try {
-                java.io.File ufoDir = new java.io.File(System.getProperty("user.dir"), "template/Korean-Hangul.ufo");
-                if (!ufoDir.exists()) {
-                    // Start from current dir if absolute path fails
-                    ufoDir = new java.io.File("template/Korean-Hangul.ufo");
-                }
-                
-                UfoImportService.UfoData data = ufoImportService.parseUfoDirectory(ufoDir, ownerId, title);
-                
-                // Save Project
-                Long projectId = projectRepository.save(data.project());
-                
-                // Save Glyphs
-                for (com.fontogether.api.model.domain.Glyph glyph : data.glyphs()) {
-                    glyph.setProjectId(projectId);
-                    glyphRepository.save(glyph);
-                }
-                return projectId;
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to create project from Korean template: " + e.getMessage(), e);
-            }
-        }
-        // English Template: Load from local UFO
-        else if ("English".equalsIgnoreCase(templateName)) {
-            try {
-                java.io.File ufoDir = new java.io.File(System.getProperty("user.dir"), "template/English-Latin.ufo");
-                if (!ufoDir.exists()) {
-                    // Start from current dir if absolute path fails
-                    ufoDir = new java.io.File("template/English-Latin.ufo");
-                }
-                
-                UfoImportService.UfoData data = ufoImportService.parseUfoDirectory(ufoDir, ownerId, title);
-                
                 // Save Project
-                Long projectId = projectRepository.save(data.project());
-                
-                // Save Glyphs
-                for (com.fontogether.api.model.domain.Glyph glyph : data.glyphs()) {
-                    glyph.setProjectId(projectId);
-                    glyphRepository.save(glyph);
-                }
+                Long projectId = projectRepository.save(ufoTemplateService.newProject(templateName, ownerId, title));
+
+                // Copy Glyphs (server-side clone of the stored template rows)
+                ufoTemplateService.copyGlyphsInto(templateName, projectId);
                 return projectId;
             } catch (Exception e) {
-                throw new RuntimeException("Failed to create project from Korean template: " + e.getMessage(), e);
+                throw new RuntimeException("Failed to create project from " + templateName + " template: " + e.getMessage(), e);
             }
         }
         
@@ -109,16 +78,26 @@ public class ProjectService {
     @Transactional
     public Long createProjectFromUfo(Long ownerId, org.springframework.web.multipart.MultipartFile file, String customTitle) {
         try {
-            UfoImportService.UfoData data = ufoImportService.parseUfoZip(file, ownerId, customTitle);
-            
-            // Save Project
-            Long projectId = projectRepository.save(data.project());
-            
-            // Save Glyphs
-            for (com.fontogether.api.model.domain.Glyph glyph : data.glyphs()) {
-                glyph.setProjectId(projectId);
-                glyphRepository.save(glyph);
-            }
+            long started = System.nanoTime();
+            java.util.concurrent.atomic.AtomicInteger inserted = new java.util.concurrent.atomic.AtomicInteger();
+
+            Long projectId = ufoImportService.importUfoZip(file, ownerId, customTitle, new UfoImportService.UfoImportSink() {
+                @Override
+                public Long saveProject(Project project) {
+                    // Save Project
+                    return projectRepository.save(project);
+                }
+
+                @Override
+                public void saveGlyphs(Long projectId, List<com.fontogether.api.model.domain.Glyph> batch) {
+                    // Save Glyphs (bounded batches while the archive is still being read)
+                    inserted.addAndGet(glyphRepository.saveAll(projectId, batch));
+                }
+            });
+
+            long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            log.info("Imported {} glyphs into project {} in {} ms ({} rows/s)",
+                    inserted.get(), projectId, elapsedMs, inserted.get() * 1000L / elapsedMs);
             return projectId;
         } catch (Exception e) {
             throw new RuntimeException("Failed to import UFO: " + e.getMessage(), e);
@@ -148,15 +127,43 @@ public class ProjectService {
         }
 
         projectRepository.deleteById(projectId);
+        ufoExportCache.removeProject(projectId);
     }
     
     @Transactional(readOnly = true)
-    public byte[] exportProject(Long projectId) {
+    public Project getProject(Long projectId) {
+        return projectRepository.findById(projectId)
+                .orElseThrow(() -> new IllegalArgumentException("Project not found"));
+    }
+
+    /**
+     * UFO zip 을 out 에 바로 기록 (글리프는 DB 커서로 한 행씩 읽어 직렬화)
+     * - 커서가 열려 있는 동안 트랜잭션이 유지되어야 하므로 응답 스트림을 쓰는 스레드에서 호출
+     */
+    @Transactional(readOnly = true)
+    public void exportProject(Long projectId, java.io.OutputStream out) throws java.io.IOException {
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new IllegalArgumentException("Project not found"));
-        
-        List<com.fontogether.api.model.domain.Glyph> glyphs = glyphRepository.findAllByProjectId(projectId);
-        
-        return ufoExportService.exportProjectToUfo(project, glyphs);
+
+        ufoExportService.exportProjectToUfo(project,
+                action -> glyphRepository.streamAllByProjectId(projectId, action), out);
+    }
+
+    public boolean isExportCacheEnabled() {
+        return ufoExportCache.isEnabled();
+    }
+
+    /**
+     * 현재 revision 과 글리프 행들의 export 파일 반환 (캐시에 없으면 생성)
+     * - REPEATABLE READ: 프로젝트 행(revision), 글리프 지문, 글리프 커서가 같은 스냅샷을 보도록 하여 캐시 내용과 키가 어긋나지 않게 함
+     */
+    @Transactional(readOnly = true, isolation = org.springframework.transaction.annotation.Isolation.REPEATABLE_READ)
+    public UfoExportCache.Lease exportProjectCached(Long projectId) throws java.io.IOException {
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new IllegalArgumentException("Project not found"));
+
+        return ufoExportCache.getOrCreate(projectId, project.getRevision(), glyphRepository.findExportFingerprint(projectId), out ->
+                ufoExportService.exportProjectToUfo(project,
+                        action -> glyphRepository.streamAllByProjectId(projectId, action), out));
     }
 }
@@ -0,0 +1,108 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.repository.ProjectRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * 글리프 변경에 따른 프로젝트 updated_at / revision 갱신을 모아서 처리
+ * - 글리프 저장/삭제/이름 변경/정렬마다 font_project 행을 잠그지 않고, 변경된 프로젝트 id 만 메모리에 보관
+ * - flush-interval-ms 마다(그리고 서버 종료 시) 프로젝트당 한 번 UPDATE: updated_at 은 DB 시각(GREATEST(updated_at, NOW())),
+ *   revision 은 DB 에서 1 증가 (서버마다 시계가 달라도 updated_at 이 되돌아가지 않음)
+ * - 다른 서버의 버퍼는 최대 flush 주기만큼 늦으므로 export 캐시 키는 이 revision 대신 글리프 행 지문을 씀 (UfoExportCache)
+ * - export 전에는 flushProject 로 먼저 반영 (zip 의 수정 시각)
+ * - 프로젝트 목록의 updated_at 정렬은 최대 flush 주기만큼 늦게 반영됨
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProjectTimestampBuffer {
+
+    private final ProjectRepository projectRepository;
+
+    @Value("${app.project.timestamp-buffer.enabled:true}")
+    private boolean enabled;
+
+    // Projects with changes not yet reflected in updated_at / revision
+    private final Set<Long> touched = ConcurrentHashMap.newKeySet();
+
+    // flushProject must not return while another flush still holds the project's drained bump
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * Records that the project's glyphs changed. Inside a transaction the touch is recorded only
+     * after commit, so a flush can never publish a revision whose changes are not yet visible.
+     */
+    public void touch(Long projectId) {
+        if (!enabled) {
+            projectRepository.updateTimestamp(projectId);
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(projectId);
+                }
+            });
+        } else {
+            record(projectId);
+        }
+    }
+
+    private void record(Long projectId) {
+        touched.add(projectId);
+    }
+
+    @org.springframework.scheduling.annotation.Scheduled(fixedDelayString = "${app.project.timestamp-buffer.flush-interval-ms:5000}")
+    public void flushAll() {
+        flush(projectId -> true);
+    }
+
+    /**
+     * Writes the project's pending bump. Call before reading its revision.
+     */
+    public void flushProject(Long projectId) {
+        flush(projectId::equals);
+    }
+
+    @jakarta.annotation.PreDestroy
+    void flushOnShutdown() {
+        flushAll();
+    }
+
+    private void flush(Predicate<Long> filter) {
+        if (touched.isEmpty()) return;
+
+        flushLock.lock();
+        try {
+            List<Long> batch = new ArrayList<>();
+            for (Long projectId : List.copyOf(touched)) {
+                if (filter.test(projectId) && touched.remove(projectId)) batch.add(projectId);
+            }
+            if (batch.isEmpty()) return;
+
+            try {
+                projectRepository.updateTimestamps(batch);
+            } catch (Exception e) {
+                // Keep the bumps for the next flush
+                log.error("Failed to update timestamps of {} projects, will retry", batch.size(), e);
+                touched.addAll(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.fontogether.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * 다른 노드가 보낸 프로젝트 브로드캐스트 (이 노드 구독자에게 전달한 뒤 발행)
+ * - topic: /topic/project/{projectId}/ 뒤의 부분 (예: glyph/update)
+ * - 이 노드의 메모리 모델(op seq, outline, glyphOrder)을 다른 노드의 변경에 맞추는 데 사용
+ */
+public record RemoteBroadcastEvent(Long projectId, String topic, JsonNode payload) {
+}
@@ -0,0 +1,296 @@
+package com.fontogether.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 느린 클라이언트용 세션별 보낼 메시지 보관함 (clientOutboundChannel 인터셉터 + WebSocket 세션 데코레이터)
+ * - 세션의 소켓 쓰기가 slow-after-ms 넘게 끝나지 않으면, 그 세션으로 가는 MESSAGE 프레임을 전송 버퍼 대신 여기에 모음
+ *   한 번 느려진 세션은 쓰기가 다시 slow-after-ms 안에 끝날 때까지 계속 모음 (쓰기마다 처음 slow-after-ms 동안 들어온
+ *   메시지가 전송 버퍼로 바로 가면 버릴 수 있는 outline 도 쌓여서 버퍼 한도를 넘음)
+ * - 모인 것 중 같은 글리프의 이전 glyph/update 는 새 전체 outline 이 오면 버림 (delta 는 순서대로 유지)
+ * - 진행 중인 쓰기가 없을 때 모인 메시지를 하나씩 순서대로 보냄 (다른 쓰기 뒤에 줄 서면 멈추고, 그 쓰기가 끝나면 이어서 보냄)
+ * - max-parked 를 넘으면 세션을 끊음 (클라이언트는 재접속 후 op log 로 따라잡음)
+ * - 메트릭: websocket.outbound.parked / websocket.outbound.slow-sessions / websocket.outbound.conflated /
+ *   websocket.outbound.dropped / websocket.outbound.overflow-closed
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlowConsumerOutbox implements ChannelInterceptor {
+
+    /**
+     * Messages with the same key are about the same thing (e.g. one glyph's outline).
+     */
+    public static final String CONFLATION_KEY_HEADER = "conflationKey";
+
+    /**
+     * true: the message carries the whole state, so earlier parked messages with its key are dropped.
+     */
+    public static final String CONFLATION_REPLACES_HEADER = "conflationReplaces";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.websocket.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.websocket.outbox.slow-after-ms:200}")
+    private long slowAfterMs;
+
+    @Value("${app.websocket.outbox.max-parked:1000}")
+    private int maxParked;
+
+    private record Parked(Object key, Message<?> message) {}
+
+    private final class Outbox {
+        final WebSocketSession session;
+        final List<Parked> parked = new ArrayList<>();
+        // Set while a socket write is in progress (written by one thread at a time, see TrackedSession)
+        volatile long sendStartedAt;
+        // Finished socket writes, to tell whether a handed over message was written or queued behind another write
+        volatile long writes;
+        boolean flushing;
+        // Was slow, and no write has finished within slow-after-ms since: everything is parked
+        volatile boolean lagging;
+        boolean closed;
+
+        Outbox(WebSocketSession session) {
+            this.session = session;
+        }
+
+        boolean slow(long now) {
+            long started = sendStartedAt;
+            return started != 0 && now - started >= slowAfterMs;
+        }
+    }
+
+    /**
+     * Sits between Spring's per-session send buffer and the socket, so it sees when a write is stuck.
+     */
+    private final class TrackedSession extends WebSocketSessionDecorator {
+        final Outbox outbox;
+
+        TrackedSession(WebSocketSession session, Outbox outbox) {
+            super(session);
+            this.outbox = outbox;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            long started = System.currentTimeMillis();
+            outbox.sendStartedAt = started;
+            try {
+                super.sendMessage(message);
+            } finally {
+                outbox.writes++;
+                outbox.sendStartedAt = 0;
+                if (outbox.lagging && System.currentTimeMillis() - started < slowAfterMs) outbox.lagging = false;
+                scheduleFlush(outbox);
+            }
+        }
+    }
+
+    private final Map<String, Outbox> outboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger parkedTotal = new AtomicInteger();
+    private ExecutorService flushExecutor;
+    // The sub-protocol handler that turns outbound messages into frames (see decorate)
+    private volatile MessageHandler outboundHandler;
+    private Counter conflated;
+    private Counter dropped;
+    private Counter overflowClosed;
+
+    @jakarta.annotation.PostConstruct
+    void start() {
+        // One task per session with parked messages at most; it writes to that session's socket and may block on it
+        AtomicInteger counter = new AtomicInteger();
+        flushExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "ws-outbox-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("websocket.outbound.parked", parkedTotal, AtomicInteger::get)
+                .description("Messages held back for slow WebSocket sessions")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.slow-sessions", outboxes, boxes -> boxes.values().stream()
+                        .filter(outbox -> outbox.slow(System.currentTimeMillis())).count())
+                .description("WebSocket sessions with a socket write stuck longer than slow-after-ms")
+                .register(meterRegistry);
+        conflated = Counter.builder("websocket.outbound.conflated")
+                .description("Held back messages replaced by a newer whole state before being sent")
+                .register(meterRegistry);
+        dropped = Counter.builder("websocket.outbound.dropped")
+                .description("Messages not sent because their session was closed for falling behind")
+                .register(meterRegistry);
+        overflowClosed = Counter.builder("websocket.outbound.overflow-closed")
+                .description("WebSocket sessions closed because more than max-parked messages were held back")
+                .register(meterRegistry);
+    }
+
+    @jakarta.annotation.PreDestroy
+    void stop() {
+        flushExecutor.shutdownNow();
+    }
+
+    /**
+     * WebSocket transport decorator: tracks each session's socket writes.
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        if (!enabled) return handler;
+        if (handler instanceof MessageHandler messageHandler) {
+            outboundHandler = messageHandler;
+        }
+
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                Outbox outbox = new Outbox(session);
+                outboxes.put(session.getId(), outbox);
+                super.afterConnectionEstablished(new TrackedSession(session, outbox));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                Outbox outbox = outboxes.remove(session.getId());
+                if (outbox != null) discard(outbox);
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (outboundHandler == null) return message;
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) return message;
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        Outbox outbox = sessionId != null ? outboxes.get(sessionId) : null;
+        if (outbox == null) return message;
+
+        Object key = message.getHeaders().get(CONFLATION_KEY_HEADER);
+        boolean replaces = Boolean.TRUE.equals(message.getHeaders().get(CONFLATION_REPLACES_HEADER));
+        boolean overflow;
+        synchronized (outbox) {
+            if (outbox.closed) {
+                dropped.increment();
+                return null;
+            }
+            // Once anything is held back, everything after it waits too, so the session keeps the order
+            if (outbox.parked.isEmpty() && !outbox.flushing && !outbox.lagging) {
+                if (!outbox.slow(System.currentTimeMillis())) return message;
+                outbox.lagging = true;
+            }
+
+            if (key != null && replaces) {
+                int before = outbox.parked.size();
+                outbox.parked.removeIf(parked -> key.equals(parked.key()));
+                int removed = before - outbox.parked.size();
+                if (removed > 0) {
+                    conflated.increment(removed);
+                    parkedTotal.addAndGet(-removed);
+                }
+            }
+            outbox.parked.add(new Parked(key, message));
+            parkedTotal.incrementAndGet();
+
+            overflow = outbox.parked.size() > maxParked;
+            if (overflow) {
+                outbox.closed = true;
+                dropped.increment(outbox.parked.size());
+                parkedTotal.addAndGet(-outbox.parked.size());
+                outbox.parked.clear();
+            }
+        }
+
+        if (overflow) {
+            overflowClosed.increment();
+            log.warn("Closing WebSocket session {}: more than {} messages waiting for a slow connection", sessionId, maxParked);
+            try {
+                outbox.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException e) {
+                log.debug("Failed to close slow WebSocket session {}", sessionId, e);
+            }
+        } else {
+            scheduleFlush(outbox);
+        }
+        return null;
+    }
+
+    int parked() {
+        return parkedTotal.get();
+    }
+
+    private void scheduleFlush(Outbox outbox) {
+        synchronized (outbox) {
+            // A write in progress schedules the flush when it finishes
+            if (outbox.flushing || outbox.closed || outbox.parked.isEmpty() || outbox.sendStartedAt != 0) return;
+            outbox.flushing = true;
+        }
+        try {
+            flushExecutor.execute(() -> flush(outbox));
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            // Shutting down
+            synchronized (outbox) {
+                outbox.flushing = false;
+            }
+        }
+    }
+
+    private void flush(Outbox outbox) {
+        // Finished writes when the last message was handed over (none yet)
+        long writes = -1;
+        while (true) {
+            Parked next;
+            synchronized (outbox) {
+                // Another write in progress, or the last message only joined Spring's send buffer behind one:
+                // handing over more would pile up there, so wait for that write to finish and schedule the next flush
+                if (outbox.closed || outbox.parked.isEmpty() || outbox.sendStartedAt != 0 || outbox.writes == writes) {
+                    outbox.flushing = false;
+                    return;
+                }
+                next = outbox.parked.remove(0);
+                parkedTotal.decrementAndGet();
+                writes = outbox.writes;
+            }
+            // Straight to the sub-protocol handler, in order (not through the channel's thread pool)
+            try {
+                outboundHandler.handleMessage(next.message());
+            } catch (Exception e) {
+                log.debug("Failed to send held back message to session {}", outbox.session.getId(), e);
+            }
+        }
+    }
+
+    private void discard(Outbox outbox) {
+        synchronized (outbox) {
+            outbox.closed = true;
+            parkedTotal.addAndGet(-outbox.parked.size());
+            outbox.parked.clear();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.fontogether.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * UFO export 결과(zip) 디스크 캐시
+ * - 키: {projectId}-{revision}-{glyphs}.zip (무효화가 필요 없음)
+ *   revision 은 프로젝트 행 변경 시마다 DB 에서 바로 증가, glyphs 는 글리프 행들의 지문(GlyphRepository.findExportFingerprint)
+ *   글리프 변경에 따른 revision 증가는 서버별 ProjectTimestampBuffer 를 거쳐 늦게 반영되므로 키에 쓰지 않음
+ *   (다른 서버에서 저장된 글리프 편집도 바로 다른 키가 됨)
+ * - 전체 파일 크기 기준 LRU 제거, 같은 프로젝트의 이전 파일은 새 파일이 생기면 바로 삭제, 프로젝트를 지우면 그 파일도 삭제
+ * - 같은 키를 동시에 요청하면 한 번만 생성하고 나머지는 결과를 기다림
+ * - 서버 재시작 후에도 디렉토리에 남은 파일을 다시 인덱싱해서 사용
+ * - 응답 중인 파일은 Lease 로 고정: 캐시에서 빠져도 모든 Lease 가 닫히고 retired-grace-ms 가 지난 뒤에 삭제
+ *   (sendfile 은 컨트롤러가 반환한 뒤에 Tomcat 이 파일을 열기 때문에 유예 시간이 필요)
+ */
+@Slf4j
+@Service
+public class UfoExportCache {
+
+    /**
+     * Writes a complete export into the given stream.
+     */
+    @FunctionalInterface
+    public interface ExportWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    public record ExportFile(Path path, long size) {}
+
+    /**
+     * A cached export that stays on disk until closed (and retired-grace-ms after that, if it left the cache).
+     */
+    public final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private boolean closed;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public ExportFile file() {
+            return entry.file;
+        }
+
+        @Override
+        public void close() {
+            synchronized (UfoExportCache.this) {
+                if (closed) return;
+                closed = true;
+                entry.pins--;
+                entry.releasedAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private static final class Entry {
+        final ExportFile file;
+        // Leases not closed yet
+        int pins;
+        long releasedAt;
+
+        Entry(ExportFile file) {
+            this.file = file;
+        }
+    }
+
+    private static final java.util.regex.Pattern CACHE_FILE_NAME = java.util.regex.Pattern.compile("\\d+-\\d+-[0-9a-f]+\\.zip");
+    // Keyed by revision alone (before glyph fingerprints): never served again
+    private static final java.util.regex.Pattern OLD_CACHE_FILE_NAME = java.util.regex.Pattern.compile("\\d+-\\d+\\.zip");
+
+    @Value("${app.export.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.export.cache.dir:${java.io.tmpdir}/fontogether-export-cache}")
+    private Path cacheDir;
+
+    @Value("${app.export.cache.max-bytes:1073741824}")
+    private long maxBytes;
+
+    @Value("${app.export.cache.retired-grace-ms:60000}")
+    private long retiredGraceMs;
+
+    // Access-ordered: iteration starts at the least recently used file
+    private final LinkedHashMap<String, Entry> files = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    // Out of the cache (older revision or evicted) but maybe still being sent
+    private final List<Entry> retired = new java.util.ArrayList<>();
+
+    private final Map<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    @jakarta.annotation.PostConstruct
+    void loadExistingFiles() throws IOException {
+        if (!enabled) return;
+        Files.createDirectories(cacheDir);
+
+        try (Stream<Path> paths = Files.list(cacheDir)) {
+            List<Path> existing = paths
+                    .filter(path -> CACHE_FILE_NAME.matcher(path.getFileName().toString()).matches())
+                    .sorted((a, b) -> Long.compare(a.toFile().lastModified(), b.toFile().lastModified()))
+                    .toList();
+            for (Path path : existing) {
+                String key = path.getFileName().toString();
+                register(key.substring(0, key.length() - ".zip".length()), new Entry(new ExportFile(path, Files.size(path))));
+            }
+        }
+        // Leftovers of exports interrupted by a shutdown, and files under the old key format
+        try (Stream<Path> paths = Files.list(cacheDir)) {
+            for (Path path : paths.filter(path -> path.getFileName().toString().endsWith(".tmp")
+                    || OLD_CACHE_FILE_NAME.matcher(path.getFileName().toString()).matches()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+        log.info("Export cache at {} holds {} files ({} bytes)", cacheDir, files.size(), totalBytes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached export of the given project revision and glyph fingerprint, building it
+     * with {@code writer} on a miss. The file is not deleted before the returned lease is closed.
+     */
+    public Lease getOrCreate(Long projectId, long revision, String glyphs, ExportWriter writer) throws IOException {
+        String key = projectId + "-" + revision + "-" + glyphs;
+
+        while (true) {
+            synchronized (this) {
+                Entry cached = files.get(key);
+                if (cached != null && Files.exists(cached.file.path())) {
+                    return pin(cached);
+                }
+            }
+
+            CompletableFuture<Entry> created = new CompletableFuture<>();
+            CompletableFuture<Entry> existing = inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                Entry entry = await(existing);
+                synchronized (this) {
+                    // Evicted again before we got to it: look it up (or build it) once more
+                    if (files.get(key) == entry) return pin(entry);
+                }
+                continue;
+            }
+
+            try {
+                Entry entry = new Entry(build(key, writer));
+                Lease lease;
+                synchronized (this) {
+                    removeOlderFiles(projectId, revision, key);
+                    register(key, entry);
+                    lease = pin(entry);
+                    evict(key);
+                    deleteUnusedRetired();
+                }
+                created.complete(entry);
+                return lease;
+            } catch (IOException | RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Drops every cached export of a deleted project (files still being sent go once their leases close).
+     */
+    public synchronized void removeProject(Long projectId) {
+        if (!enabled) return;
+        String prefix = projectId + "-";
+        Iterator<Map.Entry<String, Entry>> it = files.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+                retire(entry.getValue());
+                it.remove();
+            }
+        }
+        deleteUnusedRetired();
+    }
+
+    @org.springframework.scheduling.annotation.Scheduled(fixedDelayString = "${app.export.cache.retired-grace-ms:60000}")
+    public synchronized void deleteUnusedRetired() {
+        long now = System.currentTimeMillis();
+        retired.removeIf(entry -> {
+            String name = entry.file.path().getFileName().toString();
+            String key = name.substring(0, name.length() - ".zip".length());
+            // The same revision was built again: the path belongs to the new file now
+            if (files.containsKey(key) || inFlight.containsKey(key)) return true;
+            if (entry.pins > 0 || now - entry.releasedAt < retiredGraceMs) return false;
+            try {
+                Files.deleteIfExists(entry.file.path());
+            } catch (IOException e) {
+                log.warn("Failed to delete cached export {}", entry.file.path(), e);
+            }
+            return true;
+        });
+    }
+
+    private Lease pin(Entry entry) {
+        entry.pins++;
+        return new Lease(entry);
+    }
+
+    private ExportFile build(String key, ExportWriter writer) throws IOException {
+        long started = System.nanoTime();
+        Path target = cacheDir.resolve(key + ".zip");
+        Path temp = Files.createTempFile(cacheDir, key + "-", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                writer.writeTo(out);
+            }
+            // Readers only ever see complete archives
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        ExportFile file = new ExportFile(target, Files.size(target));
+        log.info("Built export {} ({} bytes) in {} ms", key, file.size(), (System.nanoTime() - started) / 1_000_000);
+        return file;
+    }
+
+    private void register(String key, Entry entry) {
+        Entry previous = files.put(key, entry);
+        // Same path, already replaced on disk by the new file
+        if (previous != null) totalBytes -= previous.file.size();
+        totalBytes += entry.file.size();
+    }
+
+    // A revision never comes back, and neither do the glyphs of an older file at the same revision: dead weight
+    private void removeOlderFiles(Long projectId, long revision, String keep) {
+        String prefix = projectId + "-";
+        Iterator<Map.Entry<String, Entry>> it = files.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> entry = it.next();
+            String key = entry.getKey();
+            if (!key.startsWith(prefix) || key.equals(keep)) continue;
+            String rest = key.substring(prefix.length());
+            if (Long.parseLong(rest.substring(0, rest.indexOf('-'))) <= revision) {
+                retire(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Entry>> it = files.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Entry> entry = it.next();
+            if (entry.getKey().equals(keep)) continue;
+            retire(entry.getValue());
+            it.remove();
+        }
+    }
+
+    // Deleted by deleteUnusedRetired once nobody is sending it
+    private void retire(Entry entry) {
+        totalBytes -= entry.file.size();
+        retired.add(entry);
+    }
+
+    private Entry await(CompletableFuture<Entry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new java.io.InterruptedIOException("Interrupted while waiting for export");
+        } catch (java.util.concurrent.ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) throw ioException;
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
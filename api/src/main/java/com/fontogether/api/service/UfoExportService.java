@@ -5,100 +5,173 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fontogether.api.model.domain.Glyph;
 import com.fontogether.api.model.domain.Project;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UfoExportService {
 
     private final ObjectMapper objectMapper;
 
-    public byte[] exportProjectToUfo(Project project, List<Glyph> glyphs) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             ZipOutputStream zos = new ZipOutputStream(baos)) {
+    /**
+     * Supplies the project's glyphs in export order, one at a time, so the caller can
+     * stream them from a database cursor instead of materializing a List.
+     */
+    @FunctionalInterface
+    public interface GlyphSource {
+        void forEachGlyph(Consumer<Glyph> action);
+    }
 
-            String rootDir = project.getTitle().replaceAll("[^a-zA-Z0-9._-]", "_") + ".ufo/";
+    @org.springframework.beans.factory.annotation.Value("${app.export.serialize-parallelism:0}")
+    private int serializeParallelism;
 
-            // 1. metainfo.plist
-            zos.putNextEntry(new ZipEntry(rootDir + "metainfo.plist"));
-            zos.write(createMetaInfo().getBytes(StandardCharsets.UTF_8));
-            zos.closeEntry();
+    // Upper bound on glyphs serialized ahead of the zip writer (in-flight memory per export)
+    private static final int SERIALIZE_WINDOW_SIZE = 256;
 
-            // 2. fontinfo.plist
-            zos.putNextEntry(new ZipEntry(rootDir + "fontinfo.plist"));
-            zos.write(jsonToPlist(project.getFontInfo()).getBytes(StandardCharsets.UTF_8));
-            zos.closeEntry();
+    // Bounded pool shared by all exports; each glif is serialized and deflated independently
+    private java.util.concurrent.ForkJoinPool serializePool;
 
-            // 3. groups.plist
-            zos.putNextEntry(new ZipEntry(rootDir + "groups.plist"));
-            zos.write(jsonToPlist(project.getGroups()).getBytes(StandardCharsets.UTF_8));
-            zos.closeEntry();
+    @org.springframework.beans.factory.annotation.Value("${app.export.glif-cache.max-bytes:268435456}")
+    private long glifCacheMaxBytes;
 
-            // 4. kerning.plist
-            zos.putNextEntry(new ZipEntry(rootDir + "kerning.plist"));
-            zos.write(jsonToPlist(project.getKerning()).getBytes(StandardCharsets.UTF_8));
-            zos.closeEntry();
-            
-            // 5. lib.plist
-            zos.putNextEntry(new ZipEntry(rootDir + "lib.plist"));
-            zos.write(jsonToPlist(project.getLib()).getBytes(StandardCharsets.UTF_8));
-            zos.closeEntry();
-
-            // 6. layercontents.plist (Static for now: public.default -> glyphs)
-            zos.putNextEntry(new ZipEntry(rootDir + "layercontents.plist"));
-            zos.write(createLayerContents().getBytes(StandardCharsets.UTF_8));
-            zos.closeEntry();
-
-            // 7. features.fea
-            zos.putNextEntry(new ZipEntry(rootDir + "features.fea"));
-            zos.write(jsonToFea(project.getFeatures()).getBytes(StandardCharsets.UTF_8));
-            zos.closeEntry();
-
-            // 8. Glyphs
-            // 8. Glyphs & contents.plist
-            StringBuilder contentsPlistBuilder = new StringBuilder();
-            contentsPlistBuilder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-            contentsPlistBuilder.append("<!DOCTYPE plist PUBLIC \"-//Apple//DTD PLIST 1.0//EN\" \"http://www.apple.com/DTDs/PropertyList-1.0.dtd\">\n");
-            contentsPlistBuilder.append("<plist version=\"1.0\">\n");
-            contentsPlistBuilder.append("<dict>\n");
-
-            java.util.Set<String> existingFileNames = new java.util.HashSet<>();
-
-            for (Glyph glyph : glyphs) {
-                // UFO 3 Convention: Glyph Name -> File Name
+    // Compressed .glif entries of unchanged glyphs are copied as-is into the next export
+    private UfoGlifCache glifCache;
+
+    @jakarta.annotation.PostConstruct
+    void startSerializePool() {
+        int parallelism = serializeParallelism > 0 ? serializeParallelism : Runtime.getRuntime().availableProcessors();
+        serializePool = new java.util.concurrent.ForkJoinPool(parallelism);
+        glifCache = new UfoGlifCache(glifCacheMaxBytes);
+    }
+
+    @jakarta.annotation.PreDestroy
+    void stopSerializePool() {
+        serializePool.shutdown();
+    }
+
+    /**
+     * Writes the project as a zipped UFO directly into {@code out}.
+     * Glyphs are turned into .glif and deflated on the serialize pool while a single writer
+     * appends the finished entries in supply order, so the archive is byte-identical for any
+     * pool size. At most {@value #SERIALIZE_WINDOW_SIZE} glyphs are in flight at once.
+     * Glyphs whose uuid and revision match a previous export reuse that compressed entry,
+     * so only dirty glyphs are serialized again.
+     * {@code out} is flushed but not closed.
+     */
+    public void exportProjectToUfo(Project project, GlyphSource glyphs, OutputStream out) throws IOException {
+        // Entry times come from the project, not the clock, so unchanged projects export identically
+        UfoZipWriter zip = new UfoZipWriter(out, project.getUpdatedAt() != null ? project.getUpdatedAt() : LocalDateTime.now());
+        String rootDir = project.getTitle().replaceAll("[^a-zA-Z0-9._-]", "_") + ".ufo/";
+
+        // 1. metainfo.plist
+        zip.write(UfoZipWriter.deflate(rootDir + "metainfo.plist", createMetaInfo()));
+
+        // 2. fontinfo.plist
+        zip.write(UfoZipWriter.deflate(rootDir + "fontinfo.plist", jsonToPlist(project.getFontInfo())));
+
+        // 3. groups.plist
+        zip.write(UfoZipWriter.deflate(rootDir + "groups.plist", jsonToPlist(project.getGroups())));
+
+        // 4. kerning.plist
+        zip.write(UfoZipWriter.deflate(rootDir + "kerning.plist", jsonToPlist(project.getKerning())));
+
+        // 5. lib.plist
+        zip.write(UfoZipWriter.deflate(rootDir + "lib.plist", jsonToPlist(project.getLib())));
+
+        // 6. layercontents.plist (Static for now: public.default -> glyphs)
+        zip.write(UfoZipWriter.deflate(rootDir + "layercontents.plist", createLayerContents()));
+
+        // 7. features.fea
+        zip.write(UfoZipWriter.deflate(rootDir + "features.fea", jsonToFea(project.getFeatures())));
+
+        // 8. Glyphs & contents.plist
+        StringBuilder contentsPlistBuilder = new StringBuilder();
+        contentsPlistBuilder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        contentsPlistBuilder.append("<!DOCTYPE plist PUBLIC \"-//Apple//DTD PLIST 1.0//EN\" \"http://www.apple.com/DTDs/PropertyList-1.0.dtd\">\n");
+        contentsPlistBuilder.append("<plist version=\"1.0\">\n");
+        contentsPlistBuilder.append("<dict>\n");
+
+        java.util.Set<String> existingFileNames = new java.util.HashSet<>();
+        ArrayDeque<Future<UfoZipWriter.DeflatedEntry>> pending = new ArrayDeque<>();
+        int[] reused = {0};
+        int[] serialized = {0};
+
+        try {
+            glyphs.forEachGlyph(glyph -> {
+                // UFO 3 Convention: Glyph Name -> File Name (sequential, collisions depend on order)
                 String fileName = glyphNameToFileName(glyph.getGlyphName(), existingFileNames) + ".glif";
                 existingFileNames.add(fileName.toLowerCase()); // Track lower case for collision check
 
                 // Add to contents.plist order
                 contentsPlistBuilder.append("  <key>").append(glyph.getGlyphName()).append("</key>\n");
                 contentsPlistBuilder.append("  <string>").append(fileName).append("</string>\n");
-                
-                zos.putNextEntry(new ZipEntry(rootDir + "glyphs/" + fileName));
-                zos.write(glyphToGlif(glyph).getBytes(StandardCharsets.UTF_8));
-                zos.closeEntry();
+
+                String entryName = rootDir + "glyphs/" + fileName;
+                UfoZipWriter.DeflatedEntry cached = glifCache.get(glyph, entryName);
+                if (cached != null) {
+                    reused[0]++;
+                    pending.add(CompletableFuture.completedFuture(cached));
+                } else {
+                    serialized[0]++;
+                    pending.add(serializePool.submit(() -> {
+                        UfoZipWriter.DeflatedEntry entry = UfoZipWriter.deflate(entryName, glyphToGlif(glyph));
+                        glifCache.put(glyph, entry);
+                        return entry;
+                    }));
+                }
+
+                if (pending.size() >= SERIALIZE_WINDOW_SIZE) {
+                    try {
+                        zip.write(await(pending.poll()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+
+            while (!pending.isEmpty()) {
+                zip.write(await(pending.poll()));
             }
-            
-            contentsPlistBuilder.append("</dict>\n");
-            contentsPlistBuilder.append("</plist>");
-            
-            // Write contents.plist
-            zos.putNextEntry(new ZipEntry(rootDir + "glyphs/contents.plist"));
-            zos.write(contentsPlistBuilder.toString().getBytes(StandardCharsets.UTF_8));
-            zos.closeEntry();
+        } catch (UncheckedIOException e) {
+            // e.g. the client aborted the download
+            throw e.getCause();
+        } finally {
+            pending.forEach(future -> future.cancel(false));
+        }
 
-            zos.finish();
-            return baos.toByteArray();
+        contentsPlistBuilder.append("</dict>\n");
+        contentsPlistBuilder.append("</plist>");
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to export UFO zip", e);
+        // Write contents.plist
+        zip.write(UfoZipWriter.deflate(rootDir + "glyphs/contents.plist", contentsPlistBuilder.toString()));
+
+        zip.finish();
+        log.debug("Exported project {}: {} glifs reused, {} serialized", project.getProjectId(), reused[0], serialized[0]);
+    }
+
+    private UfoZipWriter.DeflatedEntry await(Future<UfoZipWriter.DeflatedEntry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new java.io.InterruptedIOException("Interrupted while serializing glyphs");
+        } catch (java.util.concurrent.ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new IOException("Failed to serialize glyph", e.getCause());
         }
     }
     
@@ -0,0 +1,71 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.model.domain.Glyph;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Export 간에 재사용하는 글리프별 압축 .glif 캐시
+ * - 키: glyph_uuid + revision (글리프가 바뀌면 DB 시퀀스에서 새 revision 을 받으므로 자동으로 새 키)
+ * - 값: 이미 deflate 된 엔트리. 파일 이름은 export 마다 다시 계산되므로 이름은 꺼낼 때 바꿔 씀
+ * - 압축 크기 합 기준 LRU 제거, Thread-safe
+ */
+class UfoGlifCache {
+
+    private record Key(UUID glyphUuid, long revision) {}
+
+    // Approximate per-entry overhead (key, record, map node) on top of the compressed bytes
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, UfoZipWriter.DeflatedEntry> entries = new LinkedHashMap<>(1024, 0.75f, true);
+    private long totalBytes;
+
+    UfoGlifCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached entry renamed to {@code entryName}, or null when the glyph changed
+     * (or was never exported). Glyphs without uuid/revision are never cached.
+     */
+    UfoZipWriter.DeflatedEntry get(Glyph glyph, String entryName) {
+        Key key = keyOf(glyph);
+        if (key == null) return null;
+
+        UfoZipWriter.DeflatedEntry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        return entry != null ? entry.withName(entryName) : null;
+    }
+
+    void put(Glyph glyph, UfoZipWriter.DeflatedEntry entry) {
+        Key key = keyOf(glyph);
+        if (key == null || maxBytes <= 0) return;
+
+        synchronized (this) {
+            UfoZipWriter.DeflatedEntry previous = entries.put(key, entry);
+            if (previous != null) totalBytes -= weight(previous);
+            totalBytes += weight(entry);
+
+            Iterator<Map.Entry<Key, UfoZipWriter.DeflatedEntry>> it = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                totalBytes -= weight(it.next().getValue());
+                it.remove();
+            }
+        }
+    }
+
+    private Key keyOf(Glyph glyph) {
+        if (glyph.getGlyphUuid() == null || glyph.getRevision() == null) return null;
+        return new Key(glyph.getGlyphUuid(), glyph.getRevision());
+    }
+
+    private long weight(UfoZipWriter.DeflatedEntry entry) {
+        return entry.compressed().length + ENTRY_OVERHEAD_BYTES;
+    }
+}
@@ -9,19 +9,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 
 @Slf4j
 @Service
@@ -30,63 +22,134 @@ public class UfoImportService {
 
     private final ObjectMapper objectMapper;
 
+    // Streaming (StAX) reader for .glif and .plist files
+    private UfoXmlReader xmlReader;
+
     record UfoData(Project project, List<Glyph> glyphs) {}
 
-    public UfoData parseUfoZip(MultipartFile file, Long ownerId, String customTitle) throws Exception {
-        Map<String, byte[]> fileContentMap = new HashMap<>();
+    /**
+     * Destination of a streaming import: the project row is written first,
+     * then its glyphs arrive in batches of at most {@code app.import.glyph-batch-size}.
+     */
+    public interface UfoImportSink {
+        Long saveProject(Project project);
 
-        // 1. Read ZIP content into memory map
-        try (ZipInputStream zis = new ZipInputStream(file.getInputStream())) {
-            ZipEntry entry;
-            while ((entry = zis.getNextEntry()) != null) {
-                if (entry.isDirectory()) continue;
-                String name = entry.getName();
-                
-                // Read entry content
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                byte[] buffer = new byte[1024];
-                int len;
-                while ((len = zis.read(buffer)) > 0) {
-                    baos.write(buffer, 0, len);
-                }
-                fileContentMap.put(name, baos.toByteArray());
+        void saveGlyphs(Long projectId, List<Glyph> batch);
+    }
+
+    /**
+     * Read access to the files of a UFO (zip archive or directory) by relative path.
+     * Files are read on demand so only the entry currently being parsed is held in memory.
+     */
+    private interface UfoSource {
+        Collection<String> paths();
+
+        byte[] read(String path) throws java.io.IOException;
+    }
+
+    @org.springframework.beans.factory.annotation.Value("${app.import.glyph-batch-size:500}")
+    private int glyphBatchSize;
+
+    // 0 = one worker per available core
+    @org.springframework.beans.factory.annotation.Value("${app.import.parse-parallelism:0}")
+    private int parseParallelism;
+
+    // Upper bound on .glif files read and parsed concurrently (in-flight memory per import)
+    private static final int PARSE_WINDOW_SIZE = 256;
+
+    // Bounded pool shared by all imports; glif files are independent so they parse in parallel
+    private java.util.concurrent.ForkJoinPool parsePool;
+
+    @jakarta.annotation.PostConstruct
+    void startParsePool() {
+        int parallelism = parseParallelism > 0 ? parseParallelism : Runtime.getRuntime().availableProcessors();
+        parsePool = new java.util.concurrent.ForkJoinPool(parallelism);
+        xmlReader = new UfoXmlReader(objectMapper.getFactory());
+    }
+
+    @jakarta.annotation.PreDestroy
+    void stopParsePool() {
+        parsePool.shutdown();
+    }
+
+    /**
+     * Streams a zipped UFO into the sink. The upload is spooled to a temp file and opened
+     * with random access, so metainfo.plist / contents.plist are read first and each .glif is
+     * parsed as its entry is read. Peak memory is bounded by the glyph batch size, not the font.
+     */
+    public Long importUfoZip(MultipartFile file, Long ownerId, String customTitle, UfoImportSink sink) throws Exception {
+        java.nio.file.Path tempFile = java.nio.file.Files.createTempFile("ufo-import-", ".zip");
+        try {
+            file.transferTo(tempFile);
+
+            try (ZipFile zip = new ZipFile(tempFile.toFile())) {
+                List<String> entryNames = zip.stream()
+                        .filter(entry -> !entry.isDirectory())
+                        .map(ZipEntry::getName)
+                        .toList();
+
+                UfoSource source = new UfoSource() {
+                    @Override
+                    public Collection<String> paths() {
+                        return entryNames;
+                    }
+
+                    @Override
+                    public byte[] read(String path) throws java.io.IOException {
+                        ZipEntry entry = zip.getEntry(path);
+                        if (entry == null) return null;
+                        try (java.io.InputStream in = zip.getInputStream(entry)) {
+                            return in.readAllBytes();
+                        }
+                    }
+                };
+
+                String rootPrefix = findRootPrefix(new HashSet<>(entryNames));
+                Project project = parseProject(source, rootPrefix, ownerId, customTitle);
+                Long projectId = sink.saveProject(project);
+
+                streamGlyphs(source, rootPrefix, unitsPerEm(project), glyphBatchSize,
+                        batch -> sink.saveGlyphs(projectId, batch));
+                return projectId;
             }
+        } finally {
+            java.nio.file.Files.deleteIfExists(tempFile);
         }
-        
-        return parseUfoData(fileContentMap, ownerId, customTitle);
     }
-    
+
     public UfoData parseUfoDirectory(java.io.File directory, Long ownerId, String customTitle) throws Exception {
-        Map<String, byte[]> fileContentMap = new HashMap<>();
-        // Recursively read directory
-        readDirectoryRecursively(directory, directory, fileContentMap);
-        log.info("Loaded {} files from directory. Keys: {}", fileContentMap.size(), fileContentMap.keySet());
-        return parseUfoData(fileContentMap, ownerId, customTitle);
-    }
+        java.nio.file.Path root = directory.toPath();
+        List<String> relativePaths;
+        try (java.util.stream.Stream<java.nio.file.Path> walk = java.nio.file.Files.walk(root)) {
+            // Explicitly normalize to forward slash regardless of platform
+            relativePaths = walk.filter(java.nio.file.Files::isRegularFile)
+                    .map(path -> root.relativize(path).toString().replace('\\', '/'))
+                    .toList();
+        }
+        log.info("Found {} files in directory {}", relativePaths.size(), directory);
 
-    private void readDirectoryRecursively(java.io.File root, java.io.File current, Map<String, byte[]> map) throws java.io.IOException {
-        java.io.File[] files = current.listFiles();
-        if (files == null) return;
-        
-        for (java.io.File f : files) {
-            if (f.isDirectory()) {
-                readDirectoryRecursively(root, f, map);
-            } else {
-                // Rel path
-                // toURI().relativize() produces URI paths (forward slashes) on most platforms
-                String relativePath = root.toURI().relativize(f.toURI()).getPath();
-                
-                // Explicitly normalize to forward slash regardless of platform just in case
-                if (java.io.File.separatorChar == '\\') {
-                    relativePath = relativePath.replace('\\', '/');
-                }
-                
-                map.put(relativePath, java.nio.file.Files.readAllBytes(f.toPath()));
+        UfoSource source = new UfoSource() {
+            @Override
+            public Collection<String> paths() {
+                return relativePaths;
             }
-        }
+
+            @Override
+            public byte[] read(String path) throws java.io.IOException {
+                java.nio.file.Path file = root.resolve(path);
+                return java.nio.file.Files.isRegularFile(file) ? java.nio.file.Files.readAllBytes(file) : null;
+            }
+        };
+
+        String rootPrefix = findRootPrefix(new HashSet<>(relativePaths));
+        Project project = parseProject(source, rootPrefix, ownerId, customTitle);
+
+        List<Glyph> glyphs = new ArrayList<>();
+        streamGlyphs(source, rootPrefix, unitsPerEm(project), Integer.MAX_VALUE, glyphs::addAll);
+        return new UfoData(project, glyphs);
     }
 
-    private UfoData parseUfoData(Map<String, byte[]> fileContentMap, Long ownerId, String customTitle) throws Exception {
+    private Project parseProject(UfoSource source, String rootPrefix, Long ownerId, String customTitle) throws Exception {
         boolean hasCustomTitle = (customTitle != null && !customTitle.isEmpty());
         String initialTitle = hasCustomTitle ? customTitle : "Imported Project";
 
@@ -95,15 +158,10 @@ public class UfoImportService {
                 // Default Title or Custom Title
                 .title(initialTitle) 
                 .build();
-        
-        List<Glyph> glyphs = new ArrayList<>();
 
         // 2. Parse Metadata Files
-        // Find root folder prefix if any (e.g., "MyFont.ufo/metainfo.plist")
-        String rootPrefix = findRootPrefix(fileContentMap.keySet());
-        
         // metainfo.plist
-        String metaInfoJson = parsePlistToJson(fileContentMap.get(rootPrefix + "metainfo.plist"));
+        String metaInfoJson = parsePlistToJson(source.read(rootPrefix + "metainfo.plist"));
         try {
             ObjectNode metaInfo = (ObjectNode) objectMapper.readTree(metaInfoJson);
             if (metaInfo.has("formatVersion")) {
@@ -125,7 +183,7 @@ public class UfoImportService {
         project.setMetaInfo(metaInfoJson);
         
         // fontinfo.plist
-        String fontInfoJson = parsePlistToJson(fileContentMap.get(rootPrefix + "fontinfo.plist"));
+        String fontInfoJson = parsePlistToJson(source.read(rootPrefix + "fontinfo.plist"));
         project.setFontInfo(fontInfoJson);
         
         // Only update title from fontinfo if custom title was NOT provided
@@ -134,28 +192,30 @@ public class UfoImportService {
         }
         
         // groups.plist
-        project.setGroups(parsePlistToJson(fileContentMap.get(rootPrefix + "groups.plist")));
+        project.setGroups(parsePlistToJson(source.read(rootPrefix + "groups.plist")));
         
         // kerning.plist
-        project.setKerning(parsePlistToJson(fileContentMap.get(rootPrefix + "kerning.plist")));
+        project.setKerning(parsePlistToJson(source.read(rootPrefix + "kerning.plist")));
         
         // layercontents.plist -> layer_config
-        project.setLayerConfig(parseLayerContents(fileContentMap.get(rootPrefix + "layercontents.plist")));
+        project.setLayerConfig(parseLayerContents(source.read(rootPrefix + "layercontents.plist")));
         
         // lib.plist
-        project.setLib(parsePlistToJson(fileContentMap.get(rootPrefix + "lib.plist")));
+        project.setLib(parsePlistToJson(source.read(rootPrefix + "lib.plist")));
         
         // features.fea
-        byte[] featuresBytes = fileContentMap.get(rootPrefix + "features.fea");
+        byte[] featuresBytes = source.read(rootPrefix + "features.fea");
         if (featuresBytes != null) {
             String rawFeatures = new String(featuresBytes, StandardCharsets.UTF_8);
             project.setFeatures(parseFeaturesToJson(rawFeatures));
         } else {
             project.setFeatures("{\"prefix\": \"\", \"classes\": [], \"features\": []}");
         }
+        return project;
+    }
 
-        // 3. Parse Glyphs
-        // Extract unitsPerEm for fallback
+    // Extract unitsPerEm for fallback
+    private int unitsPerEm(Project project) {
         int unitsPerEm = 1000; // Default
         try {
             if (project.getFontInfo() != null) {
@@ -167,67 +227,113 @@ public class UfoImportService {
         } catch (Exception e) {
             log.warn("Failed to parse unitsPerEm from fontinfo", e);
         }
+        return unitsPerEm;
+    }
+
+    /**
+     * 3. Parse Glyphs
+     * Reads and parses one .glif at a time and hands them to the consumer in batches of at most batchSize.
+     */
+    private void streamGlyphs(UfoSource source, String rootPrefix, int unitsPerEm, int batchSize,
+                              java.util.function.Consumer<List<Glyph>> consumer) throws java.io.IOException {
+        List<String> glifPaths = resolveGlifOrder(source, rootPrefix);
+        // Sort order only exists when contents.plist defined it
+        boolean ordered = glifPaths != null;
+        if (!ordered) {
+            glifPaths = scanAllGlifFiles(source, rootPrefix);
+        }
 
-        // Try to read contents.plist to determind glyph order and mapping
-        String contentsPlistPath = rootPrefix + "glyphs/contents.plist";
-        byte[] contentsPlistBytes = fileContentMap.get(contentsPlistPath);
-
-        if (contentsPlistBytes != null) {
-            // Drive from contents.plist (Correct Order)
-            String contentsJson = parsePlistToJson(contentsPlistBytes);
-            try {
-                 ObjectNode contents = (ObjectNode) objectMapper.readTree(contentsJson);
-                 int sortCounter = 0;
-                 
-                 // Iterator returns fields in insertion order (which mirrors XML order)
-                 Iterator<Map.Entry<String, com.fasterxml.jackson.databind.JsonNode>> fields = contents.fields();
-                 while (fields.hasNext()) {
-                     Map.Entry<String, com.fasterxml.jackson.databind.JsonNode> field = fields.next();
-                     // String glyphName = field.getKey(); // Unused
-                     String fileName = field.getValue().asText();
-                     
-                     String glifPath = rootPrefix + "glyphs/" + fileName;
-                     byte[] glifBytes = fileContentMap.get(glifPath);
-                     
-                     if (glifBytes != null) {
-                         Glyph glyph = parseGlif(glifBytes, unitsPerEm);
-                         if (glyph != null) {
-                             // Force name from contents.plist if mismatch? Usually they match.
-                             // But let's trust the glif content or overrides? 
-                             // Valid UFO: glif also has name.
-                             
-                             glyph.setLayerName("public.default");
-                             glyph.setSortOrder(sortCounter++); 
-                             glyphs.add(glyph);
-                         }
-                     }
-                 }
-            } catch (Exception e) {
-                log.error("Failed to parse contents.plist JSON", e);
-                // Fallback to file scanning if valid parsing fails?
-                scanAllGlifFiles(fileContentMap, rootPrefix, unitsPerEm, glyphs);
+        int sortCounter = 0;
+        List<Glyph> batch = new ArrayList<>(Math.min(batchSize, glifPaths.size()));
+        int windowSize = Math.min(batchSize, PARSE_WINDOW_SIZE);
+
+        for (int from = 0; from < glifPaths.size(); from += windowSize) {
+            List<String> window = glifPaths.subList(from, Math.min(from + windowSize, glifPaths.size()));
+
+            // Results come back in window order, so glyph order still follows contents.plist
+            for (Glyph glyph : parseWindow(source, window, unitsPerEm)) {
+                if (glyph == null) continue;
+
+                glyph.setLayerName("public.default"); // Default layer
+                if (ordered) {
+                    glyph.setSortOrder((double) sortCounter++);
+                }
+                batch.add(glyph);
+
+                if (batch.size() >= batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
             }
-        } else {
-            // Fallback: Scan all .glif files (Random Order)
-            scanAllGlifFiles(fileContentMap, rootPrefix, unitsPerEm, glyphs);
         }
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+    }
 
-        return new UfoData(project, glyphs);
+    /**
+     * Reads and parses a window of .glif files on the parse pool.
+     * The returned list is index-aligned with the window (null for missing or broken files).
+     */
+    private List<Glyph> parseWindow(UfoSource source, List<String> window, int unitsPerEm) throws java.io.IOException {
+        List<java.util.concurrent.Callable<Glyph>> tasks = new ArrayList<>(window.size());
+        for (String glifPath : window) {
+            tasks.add(() -> {
+                byte[] glifBytes = source.read(glifPath);
+                return glifBytes != null ? parseGlif(glifBytes, unitsPerEm) : null;
+            });
+        }
+
+        List<Glyph> glyphs = new ArrayList<>(window.size());
+        try {
+            for (java.util.concurrent.Future<Glyph> future : parsePool.invokeAll(tasks)) {
+                glyphs.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new java.io.InterruptedIOException("Interrupted while parsing glyphs");
+        } catch (java.util.concurrent.ExecutionException e) {
+            if (e.getCause() instanceof java.io.IOException ioException) throw ioException;
+            throw new IllegalStateException("Failed to parse glyphs", e.getCause());
+        }
+        return glyphs;
     }
 
-    private void scanAllGlifFiles(Map<String, byte[]> fileContentMap, String rootPrefix, int unitsPerEm, List<Glyph> glyphs) {
-         for (String path : fileContentMap.keySet()) {
-            if (path.startsWith(rootPrefix + "glyphs/") && path.endsWith(".glif")) {
-                Glyph glyph = parseGlif(fileContentMap.get(path), unitsPerEm);
-                if (glyph != null) {
-                    glyph.setLayerName("public.default"); // Default layer
-                    // No sortOrder defined
-                    glyphs.add(glyph);
-                }
+    /**
+     * Glif paths in contents.plist order, or null when contents.plist is missing or unreadable.
+     */
+    private List<String> resolveGlifOrder(UfoSource source, String rootPrefix) throws java.io.IOException {
+        // Try to read contents.plist to determind glyph order and mapping
+        byte[] contentsPlistBytes = source.read(rootPrefix + "glyphs/contents.plist");
+        if (contentsPlistBytes == null) return null;
+
+        // Drive from contents.plist (Correct Order)
+        String contentsJson = parsePlistToJson(contentsPlistBytes);
+        try {
+            ObjectNode contents = (ObjectNode) objectMapper.readTree(contentsJson);
+            List<String> glifPaths = new ArrayList<>(contents.size());
+
+            // Iterator returns fields in insertion order (which mirrors XML order)
+            Iterator<Map.Entry<String, com.fasterxml.jackson.databind.JsonNode>> fields = contents.fields();
+            while (fields.hasNext()) {
+                String fileName = fields.next().getValue().asText();
+                glifPaths.add(rootPrefix + "glyphs/" + fileName);
             }
+            return glifPaths;
+        } catch (Exception e) {
+            log.error("Failed to parse contents.plist JSON", e);
+            // Fallback to file scanning
+            return null;
         }
     }
 
+    // Fallback: Scan all .glif files (Random Order)
+    private List<String> scanAllGlifFiles(UfoSource source, String rootPrefix) {
+        return source.paths().stream()
+                .filter(path -> path.startsWith(rootPrefix + "glyphs/") && path.endsWith(".glif"))
+                .toList();
+    }
+
     private String findRootPrefix(Set<String> paths) {
         // Prefer shortest path that is not separate metadata (MACOSX)
         String candidate = null;
@@ -255,97 +361,17 @@ public class UfoImportService {
     private String parsePlistToJson(byte[] bytes) {
         if (bytes == null) return "{}";
         try {
-            // Restore standard XML parsing with security configuration.
-            // Since the user might have been running old code, the previous "failure" 
-            // of this method might have been false positive. 
-            // We use the EntityResolver + Feature approach which is standard and secure.
-            
-            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-            // Secure features: Allow DOCTYPE but forbid external entities
-            dbFactory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", false); 
-            dbFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-            dbFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-            dbFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-            
-            dbFactory.setXIncludeAware(false);
-            dbFactory.setExpandEntityReferences(false);
-
-            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-            
-            // Critical: Ignore DTD external URLs completely by returning empty source
-            dBuilder.setEntityResolver(new org.xml.sax.EntityResolver() {
-                @Override
-                public org.xml.sax.InputSource resolveEntity(String publicId, String systemId) {
-                    return new org.xml.sax.InputSource(new java.io.StringReader(""));
-                }
-            });
-
-            Document doc = dBuilder.parse(new ByteArrayInputStream(bytes));
-            
-            NodeList dicts = doc.getElementsByTagName("dict");
-            if (dicts.getLength() == 0) {
+            String json = xmlReader.plistToJson(bytes);
+            if (json == null) {
                  log.warn("No <dict> found in plist");
                  return "{}";
             }
-            Element dict = (Element) dicts.item(0);
-            return convertDictToJson(dict).toString();
+            return json;
         } catch (Exception e) {
             log.error("Failed to parse plist.", e);
             return "{}";
         }
     }
-    
-    private ObjectNode convertDictToJson(Element dict) {
-        ObjectNode node = objectMapper.createObjectNode();
-        if (dict == null) return node;
-
-        NodeList children = dict.getChildNodes();
-        String currentKey = null;
-
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if (child.getNodeType() != Node.ELEMENT_NODE) continue;
-            
-            String tagName = child.getNodeName();
-            if ("key".equals(tagName)) {
-                currentKey = child.getTextContent();
-            } else if (currentKey != null) {
-                // Value node
-                switch (tagName) {
-                    case "string" -> node.put(currentKey, child.getTextContent());
-                    case "integer" -> node.put(currentKey, Integer.parseInt(child.getTextContent()));
-                    case "real" -> node.put(currentKey, Double.parseDouble(child.getTextContent()));
-                    case "true" -> node.put(currentKey, true);
-                    case "false" -> node.put(currentKey, false);
-                    case "data" -> node.put(currentKey, "DATA:" + child.getTextContent().trim()); // Prefix to identify on export
-                    case "array" -> node.set(currentKey, convertArrayToJson((Element) child));
-                    case "dict" -> node.set(currentKey, convertDictToJson((Element) child));
-                }
-                currentKey = null;
-            }
-        }
-        return node;
-    }
-    
-    private ArrayNode convertArrayToJson(Element array) {
-        ArrayNode node = objectMapper.createArrayNode();
-        NodeList children = array.getChildNodes();
-         for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if (child.getNodeType() != Node.ELEMENT_NODE) continue;
-             String tagName = child.getNodeName();
-             switch (tagName) {
-                case "string" -> node.add(child.getTextContent());
-                case "integer" -> node.add(Integer.parseInt(child.getTextContent()));
-                case "real" -> node.add(Double.parseDouble(child.getTextContent()));
-                 case "true" -> node.add(true);
-                 case "false" -> node.add(false);
-                case "array" -> node.add(convertArrayToJson((Element) child));
-                case "dict" -> node.add(convertDictToJson((Element) child));
-            }
-        }
-        return node;
-    }
 
     private String parseLayerContents(byte[] bytes) {
         // layercontents.plist is an array of [layerName, dirName]
@@ -371,118 +397,14 @@ public class UfoImportService {
 
     private Glyph parseGlif(byte[] bytes, int defaultMetric) {
         try {
-             DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-             DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-             Document doc = dBuilder.parse(new ByteArrayInputStream(bytes));
-             
-             Element glyphElem = doc.getDocumentElement();
-             String name = glyphElem.getAttribute("name");
-             String format = glyphElem.getAttribute("format");
-             
-             Glyph glyph = Glyph.builder()
-                     .glyphName(name)
-                     .formatVersion(format.isEmpty() ? 1 : Integer.parseInt(format))
-                     .build();
-
-             // Unicodes
-             List<String> unicodes = new ArrayList<>();
-             NodeList unicodeNodes = glyphElem.getElementsByTagName("unicode");
-             for(int i=0; i<unicodeNodes.getLength(); i++) {
-                 Element u = (Element) unicodeNodes.item(i);
-                 unicodes.add(u.getAttribute("hex"));
-             }
-             glyph.setUnicodes(unicodes);
-             
-             // Advance
-             NodeList advanceNodes = glyphElem.getElementsByTagName("advance");
-             if (advanceNodes.getLength() > 0) {
-                 Element adv = (Element) advanceNodes.item(0);
-                 
-                 // Apply defaultMetric (unitsPerEm) if attribute is missing
-                 if (adv.hasAttribute("width")) {
-                     glyph.setAdvanceWidth(Integer.parseInt(adv.getAttribute("width")));
-                 } else {
-                     glyph.setAdvanceWidth(defaultMetric);
-                 }
-                 
-                 if (adv.hasAttribute("height")) {
-                     glyph.setAdvanceHeight(Integer.parseInt(adv.getAttribute("height")));
-                 } else {
-                     glyph.setAdvanceHeight(defaultMetric);
-                 }
-                 
-             } else {
-                 // No advance tag at all
-                 glyph.setAdvanceWidth(defaultMetric);
-                 glyph.setAdvanceHeight(defaultMetric);
-             }
-             
-             // Outline Data -> Convert XML outline to JSON structure for frontend
-             Element outline = (Element) glyphElem.getElementsByTagName("outline").item(0);
-             if (outline != null) {
-                 glyph.setOutlineData(convertOutlineToJson(outline));
-             } else {
-                 glyph.setOutlineData("{}");
-             }
-             
-             glyph.setProperties("{}"); // Simplification for now
-             
-             return glyph;
-
+            // Outline Data -> XML outline streamed straight into the JSON structure for frontend
+            return xmlReader.readGlif(bytes, defaultMetric);
         } catch (Exception e) {
             log.error("Failed to parse glif", e);
             return null;
         }
     }
 
-    private String convertOutlineToJson(Element outline) {
-        // Convert <contour>, <component> to JSON
-        ObjectNode root = objectMapper.createObjectNode();
-        ArrayNode contours = objectMapper.createArrayNode();
-        ArrayNode components = objectMapper.createArrayNode();
-
-        NodeList children = outline.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if (child.getNodeType() != Node.ELEMENT_NODE) continue;
-            
-            if ("contour".equals(child.getNodeName())) {
-                ArrayNode points = objectMapper.createArrayNode();
-                NodeList pointNodes = child.getChildNodes();
-                 for (int j = 0; j < pointNodes.getLength(); j++) {
-                     Node pNode = pointNodes.item(j);
-                     if (pNode.getNodeType() == Node.ELEMENT_NODE && "point".equals(pNode.getNodeName())) {
-                         Element p = (Element) pNode;
-                         ObjectNode pointObj = objectMapper.createObjectNode();
-                         pointObj.put("x", Double.parseDouble(p.getAttribute("x")));
-                         pointObj.put("y", Double.parseDouble(p.getAttribute("y")));
-                         if(p.hasAttribute("type")) pointObj.put("type", p.getAttribute("type"));
-                         if(p.hasAttribute("smooth")) pointObj.put("smooth", "yes".equals(p.getAttribute("smooth")));
-                         points.add(pointObj);
-                     }
-                 }
-                 ObjectNode contourObj = objectMapper.createObjectNode();
-                 contourObj.set("points", points);
-                 contours.add(contourObj);
-            } else if ("component".equals(child.getNodeName())) {
-                Element cmp = (Element) child;
-                ObjectNode compObj = objectMapper.createObjectNode();
-                compObj.put("base", cmp.getAttribute("base"));
-                if(cmp.hasAttribute("xScale")) compObj.put("xScale", Double.parseDouble(cmp.getAttribute("xScale")));
-                if(cmp.hasAttribute("xyScale")) compObj.put("xyScale", Double.parseDouble(cmp.getAttribute("xyScale")));
-                if(cmp.hasAttribute("yxScale")) compObj.put("yxScale", Double.parseDouble(cmp.getAttribute("yxScale")));
-                if(cmp.hasAttribute("yScale")) compObj.put("yScale", Double.parseDouble(cmp.getAttribute("yScale")));
-                if(cmp.hasAttribute("xOffset")) compObj.put("xOffset", Double.parseDouble(cmp.getAttribute("xOffset")));
-                if(cmp.hasAttribute("yOffset")) compObj.put("yOffset", Double.parseDouble(cmp.getAttribute("yOffset")));
-                components.add(compObj);
-            }
-        }
-        
-        root.set("contours", contours);
-        root.set("components", components);
-        return root.toString();
-    }
-
     private String parseFeaturesToJson(String content) {
         ObjectNode root = objectMapper.createObjectNode();
         ArrayNode languagesystems = objectMapper.createArrayNode();
@@ -0,0 +1,266 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.model.domain.Glyph;
+import com.fontogether.api.model.domain.Project;
+import com.fontogether.api.repository.GlyphRepository;
+import com.fontogether.api.repository.TemplateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 번들된 UFO 템플릿(Korean, English) 관리
+ * - 템플릿 디렉토리는 프로세스당 한 번만 파싱 (메모리 이미지 캐시, 파싱은 맵 밖에서 하고 같은 템플릿을 기다리는 요청은 그 결과를 받음)
+ * - 템플릿 글리프는 DB(template_glyph)에 한 번만 저장하고, 새 프로젝트에는 INSERT ... SELECT 로 복제
+ * - 시작 시 디렉토리 내용 해시를 저장된 버전과 비교하여 바뀌었으면 다시 적재
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UfoTemplateService {
+
+    // Template name (lower case) -> UFO directory relative to the working directory
+    private static final Map<String, String> TEMPLATE_DIRS = Map.of(
+            "korean", "template/Korean-Hangul.ufo",
+            "english", "template/English-Latin.ufo"
+    );
+
+    // Bump when the import pipeline changes how templates are turned into rows
+    private static final String IMAGE_FORMAT = "2";
+
+    private final UfoImportService ufoImportService;
+    private final TemplateRepository templateRepository;
+    private final GlyphRepository glyphRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Parsed outside the map operation: a multi-second parse must not hold the map's bin lock
+    private final Map<String, CompletableFuture<TemplateImage>> images = new ConcurrentHashMap<>();
+
+    // Templates whose rows in template_glyph are known to match the bundled directory
+    private final Map<String, TemplateRepository.StoredTemplate> storedTemplates = new ConcurrentHashMap<>();
+
+    @Value("${app.template.preload:true}")
+    private boolean preload;
+
+    /**
+     * Immutable parse result of a template. Glyphs and project are never handed out directly;
+     * callers always receive fresh copies so the cached image cannot be mutated.
+     */
+    record TemplateImage(String name, Project project, List<Glyph> glyphs) {
+
+        Project newProject(Long ownerId, String title) {
+            return project.toBuilder()
+                    .ownerId(ownerId)
+                    .title(title)
+                    .build();
+        }
+
+        List<Glyph> newGlyphs(Long projectId) {
+            return glyphs.stream()
+                    .map(glyph -> glyph.toBuilder().projectId(projectId).build())
+                    .toList();
+        }
+
+        TemplateImage withoutGlyphs() {
+            return new TemplateImage(name, project, List.of());
+        }
+    }
+
+    public boolean isUfoTemplate(String templateName) {
+        return templateName != null && TEMPLATE_DIRS.containsKey(templateName.toLowerCase(Locale.ROOT));
+    }
+
+    public Project newProject(String templateName, Long ownerId, String title) {
+        return getImage(templateName).newProject(ownerId, title);
+    }
+
+    /**
+     * Copies the template glyphs into a freshly created project.
+     * Uses the server-side clone when the stored template is current, otherwise falls back
+     * to a bulk insert from the in-memory image.
+     */
+    public int copyGlyphsInto(String templateName, Long projectId) {
+        String key = toKey(templateName);
+        TemplateRepository.StoredTemplate stored = storedTemplates.get(key);
+
+        if (stored != null) {
+            long started = System.nanoTime();
+            int cloned = templateRepository.cloneInto(key, projectId);
+            if (cloned == stored.glyphCount()) {
+                log.info("Cloned {} template glyphs into project {} in {} ms",
+                        cloned, projectId, (System.nanoTime() - started) / 1_000_000);
+                return cloned;
+            }
+            // Stored rows were changed behind our back; undo and re-seed on next startup
+            log.warn("Template {} clone returned {} rows, expected {}. Falling back to in-memory image",
+                    key, cloned, stored.glyphCount());
+            storedTemplates.remove(key);
+            glyphRepository.deleteAllByProjectId(projectId);
+        }
+
+        return glyphRepository.saveAll(projectId, loadFullImage(key).newGlyphs(projectId));
+    }
+
+    TemplateImage getImage(String templateName) {
+        return awaitImage(toKey(templateName), image -> true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshStoredTemplates() {
+        if (!preload) return;
+
+        // Runs in the background so startup (and the first requests) are not blocked by the Hangul template
+        Thread.ofPlatform().daemon().name("ufo-template-refresh").start(() -> {
+            for (String key : TEMPLATE_DIRS.keySet()) {
+                try {
+                    refreshStoredTemplate(key);
+                } catch (Exception e) {
+                    log.warn("Failed to refresh stored template {}", key, e);
+                }
+            }
+        });
+    }
+
+    private void refreshStoredTemplate(String key) throws IOException {
+        String version = fingerprint(resolveTemplateDir(TEMPLATE_DIRS.get(key)));
+
+        TemplateRepository.StoredTemplate stored = templateRepository.findStoredTemplate(key)
+                .filter(t -> t.version().equals(version))
+                .orElseGet(() -> transactionTemplate.execute(status -> {
+                    templateRepository.lockTemplate(key);
+                    // Another node may have stored the same version while we waited for the lock
+                    return templateRepository.findStoredTemplate(key)
+                            .filter(t -> t.version().equals(version))
+                            .orElseGet(() -> {
+                                List<Glyph> glyphs = loadFullImage(key).glyphs();
+                                templateRepository.replaceTemplate(key, version, glyphs);
+                                log.info("Stored template {} version {} ({} glyphs)", key, version, glyphs.size());
+                                return new TemplateRepository.StoredTemplate(version, glyphs.size());
+                            });
+                }));
+
+        storedTemplates.put(key, stored);
+        // Glyph rows now live in the database; only the project metadata has to stay resident
+        TemplateImage image = awaitImage(key, cached -> true);
+        images.put(key, CompletableFuture.completedFuture(image.withoutGlyphs()));
+    }
+
+    private TemplateImage loadFullImage(String key) {
+        // Cached again with its glyphs: once the stored rows can't be cloned, every new project takes this path
+        return awaitImage(key, image -> !image.glyphs().isEmpty());
+    }
+
+    /**
+     * Returns the cached image if it is usable, otherwise parses the template once (outside the map)
+     * while concurrent callers for the same template wait for that parse.
+     */
+    private TemplateImage awaitImage(String key, Predicate<TemplateImage> usable) {
+        while (true) {
+            CompletableFuture<TemplateImage> current = images.get(key);
+            if (current != null) {
+                TemplateImage image = join(current);
+                if (usable.test(image)) return image;
+            }
+
+            CompletableFuture<TemplateImage> loading = new CompletableFuture<>();
+            boolean claimed = current == null
+                    ? images.putIfAbsent(key, loading) == null
+                    : images.replace(key, current, loading);
+            // Someone else started a parse (or cached a new image) first: wait for theirs
+            if (!claimed) continue;
+
+            try {
+                TemplateImage image = loadImage(key);
+                loading.complete(image);
+                return image;
+            } catch (RuntimeException e) {
+                // Not cached: the next caller parses again
+                images.remove(key, loading);
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private static TemplateImage join(CompletableFuture<TemplateImage> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private TemplateImage loadImage(String key) {
+        File ufoDir = resolveTemplateDir(TEMPLATE_DIRS.get(key));
+        long started = System.nanoTime();
+        try {
+            // Title is replaced per project, so any placeholder works here
+            UfoImportService.UfoData data = ufoImportService.parseUfoDirectory(ufoDir, null, key);
+            TemplateImage image = new TemplateImage(key, data.project(), List.copyOf(data.glyphs()));
+            log.info("Loaded template {} ({} glyphs) in {} ms",
+                    key, image.glyphs().size(), (System.nanoTime() - started) / 1_000_000);
+            return image;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load template " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * SHA-256 over every file path and content in the template directory (plus the image format),
+     * so any edit to the bundled template yields a new version.
+     */
+    private String fingerprint(File ufoDir) throws IOException {
+        try (Stream<Path> paths = Files.walk(ufoDir.toPath())) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(IMAGE_FORMAT.getBytes(StandardCharsets.UTF_8));
+
+            List<Path> files = paths.filter(Files::isRegularFile).sorted().toList();
+            for (Path file : files) {
+                String relativePath = ufoDir.toPath().relativize(file).toString().replace('\\', '/');
+                digest.update(relativePath.getBytes(StandardCharsets.UTF_8));
+                digest.update(Files.readAllBytes(file));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toKey(String templateName) {
+        String key = templateName.toLowerCase(Locale.ROOT);
+        if (!TEMPLATE_DIRS.containsKey(key)) {
+            throw new IllegalArgumentException("Unknown template: " + templateName);
+        }
+        return key;
+    }
+
+    private File resolveTemplateDir(String relativePath) {
+        File ufoDir = new File(System.getProperty("user.dir"), relativePath);
+        if (!ufoDir.exists()) {
+            // Start from current dir if absolute path fails
+            ufoDir = new File(relativePath);
+        }
+        return ufoDir;
+    }
+}
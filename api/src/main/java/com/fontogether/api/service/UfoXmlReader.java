@@ -0,0 +1,292 @@
+package com.fontogether.api.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fontogether.api.model.domain.Glyph;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StAX 기반 UFO XML(.glif, .plist) 리더
+ * - DOM 트리나 Jackson 트리 모델 없이 XML 이벤트를 바로 JsonGenerator 로 출력
+ * - 출력 JSON 은 기존 DOM 변환 결과와 동일 (UfoXmlReaderBenchmarkTest 참고)
+ * - Thread-safe: factory 들만 공유하고 reader/generator 는 호출마다 생성
+ */
+class UfoXmlReader {
+
+    private static final String[] COMPONENT_ATTRIBUTES = {"xScale", "xyScale", "yxScale", "yScale", "xOffset", "yOffset"};
+
+    private final XMLInputFactory xmlInputFactory;
+    private final JsonFactory jsonFactory;
+
+    UfoXmlReader(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+        this.xmlInputFactory = XMLInputFactory.newDefaultFactory();
+        // plist files declare an external DOCTYPE; never resolve it or any external entity
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    // --- plist ---
+
+    /**
+     * Converts the first {@code <dict>} of a plist into a JSON object string.
+     * Returns null when the document has no dict.
+     */
+    String plistToJson(byte[] bytes) throws XMLStreamException, IOException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new ByteArrayInputStream(bytes));
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "dict".equals(reader.getLocalName())) {
+                    StringWriter out = new StringWriter(Math.max(16, bytes.length / 2));
+                    try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+                        writeDict(reader, generator);
+                    }
+                    return out.toString();
+                }
+            }
+            return null;
+        } finally {
+            reader.close();
+        }
+    }
+
+    // Reader is positioned on <dict>; returns positioned on </dict>
+    private void writeDict(XMLStreamReader reader, JsonGenerator generator) throws XMLStreamException, IOException {
+        generator.writeStartObject();
+        String currentKey = null;
+
+        while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+            if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) continue;
+
+            String tagName = reader.getLocalName();
+            if ("key".equals(tagName)) {
+                currentKey = reader.getElementText();
+            } else if (currentKey != null) {
+                if (isDictValue(tagName)) {
+                    generator.writeFieldName(currentKey);
+                    writeValue(reader, generator, tagName);
+                } else {
+                    skipElement(reader);
+                }
+                currentKey = null;
+            } else {
+                skipElement(reader);
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    // Reader is positioned on <array>; returns positioned on </array>
+    private void writeArray(XMLStreamReader reader, JsonGenerator generator) throws XMLStreamException, IOException {
+        generator.writeStartArray();
+
+        while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+            if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) continue;
+
+            String tagName = reader.getLocalName();
+            // <data> is only kept inside dicts
+            if (isDictValue(tagName) && !"data".equals(tagName)) {
+                writeValue(reader, generator, tagName);
+            } else {
+                skipElement(reader);
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    private boolean isDictValue(String tagName) {
+        return switch (tagName) {
+            case "string", "integer", "real", "true", "false", "data", "array", "dict" -> true;
+            default -> false;
+        };
+    }
+
+    private void writeValue(XMLStreamReader reader, JsonGenerator generator, String tagName) throws XMLStreamException, IOException {
+        switch (tagName) {
+            case "string" -> generator.writeString(reader.getElementText());
+            case "integer" -> generator.writeNumber(Integer.parseInt(reader.getElementText()));
+            case "real" -> generator.writeNumber(Double.parseDouble(reader.getElementText()));
+            case "true" -> {
+                generator.writeBoolean(true);
+                skipElement(reader);
+            }
+            case "false" -> {
+                generator.writeBoolean(false);
+                skipElement(reader);
+            }
+            case "data" -> generator.writeString("DATA:" + reader.getElementText().trim()); // Prefix to identify on export
+            case "array" -> writeArray(reader, generator);
+            case "dict" -> writeDict(reader, generator);
+            default -> throw new IllegalArgumentException("Unsupported plist value: " + tagName);
+        }
+    }
+
+    // --- glif ---
+
+    /**
+     * Parses a .glif document. Advance falls back to defaultMetric (unitsPerEm) when missing.
+     */
+    Glyph readGlif(byte[] bytes, int defaultMetric) throws XMLStreamException, IOException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new ByteArrayInputStream(bytes));
+        try {
+            // Move to <glyph>
+            while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                // skip prolog (comments, DOCTYPE, whitespace)
+            }
+            String format = attribute(reader, "format");
+
+            Glyph glyph = Glyph.builder()
+                    .glyphName(attribute(reader, "name"))
+                    .formatVersion(format.isEmpty() ? 1 : Integer.parseInt(format))
+                    .build();
+
+            List<String> unicodes = new ArrayList<>();
+            boolean hasAdvance = false;
+            String outlineData = null;
+
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) continue;
+
+                switch (reader.getLocalName()) {
+                    case "unicode" -> unicodes.add(attribute(reader, "hex"));
+                    case "advance" -> {
+                        if (hasAdvance) break;
+                        hasAdvance = true;
+                        // Apply defaultMetric (unitsPerEm) if attribute is missing
+                        String width = reader.getAttributeValue(null, "width");
+                        String height = reader.getAttributeValue(null, "height");
+                        glyph.setAdvanceWidth(width != null ? Integer.parseInt(width) : defaultMetric);
+                        glyph.setAdvanceHeight(height != null ? Integer.parseInt(height) : defaultMetric);
+                    }
+                    case "outline" -> {
+                        if (outlineData == null) {
+                            outlineData = outlineToJson(reader);
+                        } else {
+                            skipElement(reader);
+                        }
+                    }
+                    default -> {
+                        // anchors, guidelines, lib, ... are not stored yet
+                    }
+                }
+            }
+
+            if (!hasAdvance) {
+                // No advance tag at all
+                glyph.setAdvanceWidth(defaultMetric);
+                glyph.setAdvanceHeight(defaultMetric);
+            }
+            glyph.setUnicodes(unicodes);
+            glyph.setOutlineData(outlineData != null ? outlineData : "{}");
+            glyph.setProperties("{}"); // Simplification for now
+            return glyph;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Streams {@code <outline>} as {"contours":[{"points":[...]}],"components":[...]}.
+     * Contours are written as they are read; components (usually few) are buffered because
+     * they may be interleaved with contours but are emitted after them.
+     */
+    private String outlineToJson(XMLStreamReader reader) throws XMLStreamException, IOException {
+        StringWriter out = new StringWriter(512);
+        List<String[]> components = new ArrayList<>();
+
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("contours");
+
+            while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+                if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) continue;
+
+                switch (reader.getLocalName()) {
+                    case "contour" -> writeContour(reader, generator);
+                    case "component" -> {
+                        String[] values = new String[COMPONENT_ATTRIBUTES.length + 1];
+                        values[0] = attribute(reader, "base");
+                        for (int i = 0; i < COMPONENT_ATTRIBUTES.length; i++) {
+                            values[i + 1] = reader.getAttributeValue(null, COMPONENT_ATTRIBUTES[i]);
+                        }
+                        components.add(values);
+                        skipElement(reader);
+                    }
+                    default -> skipElement(reader);
+                }
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("components");
+            for (String[] values : components) {
+                generator.writeStartObject();
+                generator.writeStringField("base", values[0]);
+                for (int i = 0; i < COMPONENT_ATTRIBUTES.length; i++) {
+                    if (values[i + 1] != null) {
+                        generator.writeNumberField(COMPONENT_ATTRIBUTES[i], Double.parseDouble(values[i + 1]));
+                    }
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return out.toString();
+    }
+
+    // Reader is positioned on <contour>; returns positioned on </contour>
+    private void writeContour(XMLStreamReader reader, JsonGenerator generator) throws XMLStreamException, IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("points");
+
+        while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+            if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) continue;
+
+            if ("point".equals(reader.getLocalName())) {
+                generator.writeStartObject();
+                generator.writeNumberField("x", Double.parseDouble(attribute(reader, "x")));
+                generator.writeNumberField("y", Double.parseDouble(attribute(reader, "y")));
+                String type = reader.getAttributeValue(null, "type");
+                if (type != null) generator.writeStringField("type", type);
+                String smooth = reader.getAttributeValue(null, "smooth");
+                if (smooth != null) generator.writeBooleanField("smooth", "yes".equals(smooth));
+                generator.writeEndObject();
+            }
+            skipElement(reader);
+        }
+
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    // --- helpers ---
+
+    // Same as DOM getAttribute: empty string when absent
+    private String attribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        return value != null ? value : "";
+    }
+
+    // Reader is positioned on a start tag; returns positioned on the matching end tag
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.fontogether.api.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 미리 압축된(deflate) 엔트리를 순서대로 이어 붙이는 최소 zip 작성기
+ * - 엔트리 압축은 아무 스레드에서나 {@link #deflate} 로 하고, 기록은 한 스레드에서 순서대로
+ * - 같은 입력과 entryTime 이면 스레드 수와 무관하게 항상 같은 바이트를 출력
+ * - 엔트리 수가 65535 를 넘거나 중앙 디렉토리가 4GB 뒤에 오면 ZIP64 end record 를 기록
+ */
+class UfoZipWriter {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int VERSION_DEFLATE = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int FLAG_UTF8_NAMES = 1 << 11;
+    private static final int METHOD_DEFLATED = 8;
+    private static final long MAX_32 = 0xFFFFFFFFL;
+    private static final int MAX_16 = 0xFFFF;
+
+    /**
+     * A compressed entry ready to be appended; immutable and safe to hand between threads.
+     */
+    record DeflatedEntry(String name, long crc, long size, byte[] compressed) {
+
+        // Same compressed bytes under another path (the data does not depend on the name)
+        DeflatedEntry withName(String newName) {
+            return newName.equals(name) ? this : new DeflatedEntry(newName, crc, size, compressed);
+        }
+    }
+
+    private record CentralRecord(byte[] name, long crc, long compressedSize, long size, long offset) {}
+
+    private final OutputStream out;
+    private final int dosTime;
+    private final int dosDate;
+    private final List<CentralRecord> central = new ArrayList<>();
+    private long written;
+
+    UfoZipWriter(OutputStream out, LocalDateTime entryTime) {
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+        this.dosTime = (entryTime.getHour() << 11) | (entryTime.getMinute() << 5) | (entryTime.getSecond() >> 1);
+        this.dosDate = (Math.max(entryTime.getYear() - 1980, 0) << 9) | (entryTime.getMonthValue() << 5) | entryTime.getDayOfMonth();
+    }
+
+    /**
+     * Compresses one entry. Pure function of its arguments, so it may run on any thread.
+     */
+    static DeflatedEntry deflate(String name, String content) {
+        byte[] data = content.getBytes(StandardCharsets.UTF_8);
+
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, data.length / 3));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                compressed.write(buffer, 0, n);
+            }
+            return new DeflatedEntry(name, crc.getValue(), data.length, compressed.toByteArray());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    void write(DeflatedEntry entry) throws IOException {
+        byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+        long compressedSize = entry.compressed().length;
+        if (entry.size() > MAX_32 || compressedSize > MAX_32) {
+            throw new IOException("Zip entry too large: " + entry.name());
+        }
+        central.add(new CentralRecord(name, entry.crc(), compressedSize, entry.size(), written));
+
+        writeInt(LOCAL_HEADER_SIGNATURE);
+        writeShort(VERSION_DEFLATE);
+        writeShort(FLAG_UTF8_NAMES);
+        writeShort(METHOD_DEFLATED);
+        writeShort(dosTime);
+        writeShort(dosDate);
+        writeInt(entry.crc());
+        writeInt(compressedSize);
+        writeInt(entry.size());
+        writeShort(name.length);
+        writeShort(0); // extra field length
+        writeBytes(name);
+        writeBytes(entry.compressed());
+    }
+
+    /**
+     * Writes the central directory and end records. Does not close the underlying stream.
+     */
+    void finish() throws IOException {
+        long centralOffset = written;
+        for (CentralRecord record : central) {
+            // Local header offsets past 4GB would need a ZIP64 extra field; UFO exports never get there
+            if (record.offset() > MAX_32) {
+                throw new IOException("Zip archive too large");
+            }
+            writeInt(CENTRAL_HEADER_SIGNATURE);
+            writeShort(VERSION_DEFLATE); // version made by
+            writeShort(VERSION_DEFLATE); // version needed
+            writeShort(FLAG_UTF8_NAMES);
+            writeShort(METHOD_DEFLATED);
+            writeShort(dosTime);
+            writeShort(dosDate);
+            writeInt(record.crc());
+            writeInt(record.compressedSize());
+            writeInt(record.size());
+            writeShort(record.name().length);
+            writeShort(0); // extra field length
+            writeShort(0); // comment length
+            writeShort(0); // disk number
+            writeShort(0); // internal attributes
+            writeInt(0);   // external attributes
+            writeInt(record.offset());
+            writeBytes(record.name());
+        }
+        long centralSize = written - centralOffset;
+
+        boolean zip64 = central.size() > MAX_16 || centralOffset > MAX_32 || centralSize > MAX_32;
+        if (zip64) {
+            long zip64EndOffset = written;
+            writeInt(ZIP64_END_SIGNATURE);
+            writeLong(44); // size of the remaining record
+            writeShort(VERSION_ZIP64);
+            writeShort(VERSION_ZIP64);
+            writeInt(0); // this disk
+            writeInt(0); // central directory disk
+            writeLong(central.size());
+            writeLong(central.size());
+            writeLong(centralSize);
+            writeLong(centralOffset);
+
+            writeInt(ZIP64_LOCATOR_SIGNATURE);
+            writeInt(0);
+            writeLong(zip64EndOffset);
+            writeInt(1); // total disks
+        }
+
+        writeInt(END_SIGNATURE);
+        writeShort(0);
+        writeShort(0);
+        writeShort(Math.min(central.size(), MAX_16));
+        writeShort(Math.min(central.size(), MAX_16));
+        writeInt(Math.min(centralSize, MAX_32));
+        writeInt(Math.min(centralOffset, MAX_32));
+        writeShort(0); // comment length
+        out.flush();
+    }
+
+    // --- little-endian helpers ---
+
+    private void writeShort(int value) throws IOException {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+        written += 2;
+    }
+
+    private void writeInt(long value) throws IOException {
+        writeShort((int) (value & 0xFFFF));
+        writeShort((int) ((value >>> 16) & 0xFFFF));
+    }
+
+    private void writeLong(long value) throws IOException {
+        writeInt(value & MAX_32);
+        writeInt(value >>> 32);
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        out.write(bytes);
+        written += bytes.length;
+    }
+}
@@ -0,0 +1,90 @@
+package com.fontogether.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 가상 스레드 pinning 진단 (spring.threads.virtual.enabled=true 일 때만)
+ * - synchronized 안이나 native 호출 중에 블로킹되어 carrier 스레드를 붙잡은 가상 스레드를 JFR 이벤트(jdk.VirtualThreadPinned)로 받음
+ * - pinned-threshold-ms 보다 오래 붙잡은 경우만 기록, 같은 위치는 처음 한 번만 WARN 로그 (이후는 DEBUG)
+ * - 메트릭: jvm.threads.virtual.pinned (횟수)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.virtual-threads.pinned-threshold-ms:20}")
+    private long pinnedThresholdMs;
+
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream recording;
+    private Counter pinned;
+
+    @jakarta.annotation.PostConstruct
+    void start() {
+        pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier for longer than the threshold")
+                .register(meterRegistry);
+
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(pinnedThresholdMs)).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+        log.info("Reporting virtual threads pinned longer than {} ms", pinnedThresholdMs);
+    }
+
+    @jakarta.annotation.PreDestroy
+    void stop() {
+        recording.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+
+        String frames = frames(event.getStackTrace());
+        String thread = event.getThread() != null ? event.getThread().getJavaName() : "?";
+        // The first frames identify the site; later occurrences of it only go to DEBUG
+        if (reportedSites.add(frames)) {
+            log.warn("Virtual thread {} was pinned for {} ms at\n{}", thread, event.getDuration().toMillis(), frames);
+        } else {
+            log.debug("Virtual thread {} was pinned for {} ms", thread, event.getDuration().toMillis());
+        }
+    }
+
+    private static String frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) return "\t(no stack trace)";
+        // The top frames are the JDK parking the thread; the site is below them
+        return stackTrace.getFrames().stream()
+                .dropWhile(frame -> frame.getMethod().getType().getName().startsWith("java.lang.VirtualThread")
+                        || frame.getMethod().getType().getName().startsWith("jdk.internal."))
+                .limit(LOGGED_FRAMES)
+                .map(VirtualThreadPinningMonitor::frame)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + "(line " + frame.getLineNumber() + ")";
+    }
+}
@@ -96,7 +96,7 @@ CREATE TABLE IF NOT EXISTS glyph (
     
     -- 6. 시스템 관리용 (협업용)
     last_modified_by VARCHAR(255),
-    sort_order       INTEGER,         -- glyph sorting order
+    sort_order       DOUBLE PRECISION, -- glyph sorting order (fractional key)
     updated_at       TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
 
     -- 외래키 및 유니크 제약조건
@@ -107,4 +107,141 @@ CREATE TABLE IF NOT EXISTS glyph (
 -- 검색 성능을 위한 인덱스
 -- 인덱스는 IF NOT EXISTS 구문이 DB에 따라 다름 (PostgreSQL 9.5+ 지원)
 CREATE INDEX IF NOT EXISTS idx_glyph_project ON glyph(project_id);
-CREATE INDEX IF NOT EXISTS idx_glyph_unicodes ON glyph USING GIN (unicodes); -- 유니코드로 검색 시 빠름
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_glyph_unicodes ON glyph USING GIN (unicodes); -- 유니코드로 검색 시 빠름
+
+-- 프로젝트 리비전: 프로젝트나 글리프가 바뀔 때마다 1씩 증가 (export 캐시 키)
+ALTER TABLE font_project ADD COLUMN IF NOT EXISTS revision BIGINT NOT NULL DEFAULT 0;
+
+-- 글리프 정렬 키: 실수(분수) 키라서 이동/추가 시 이웃 사이 값으로 한 행만 갱신
+-- 예전 INTEGER 컬럼일 때만 변경 (ALTER COLUMN TYPE 은 같은 타입이어도 테이블을 ACCESS EXCLUSIVE 로 잠그므로 시작할 때마다 실행하지 않음)
+-- 스크립트를 나누는 곳은 $$ 를 모르고 작은따옴표 안의 세미콜론만 건너뛰므로 DO 본문은 $$ 대신 작은따옴표로 감쌈
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = ''glyph'' AND column_name = ''sort_order''
+                 AND data_type <> ''double precision'') THEN
+        ALTER TABLE glyph ALTER COLUMN sort_order TYPE DOUBLE PRECISION;
+    END IF;
+END
+';
+CREATE INDEX IF NOT EXISTS idx_glyph_project_sort_order ON glyph(project_id, sort_order);
+
+-- 글리프 outline 버전: 마지막 outline 변경의 op seq (outline delta 는 이 버전을 기준으로만 적용)
+ALTER TABLE glyph ADD COLUMN IF NOT EXISTS outline_version BIGINT NOT NULL DEFAULT 0;
+
+-- 글리프 내용 리비전: 내용(이름, outline, unicodes ...)이 바뀔 때마다 시퀀스에서 새 값 (export .glif 캐시 키)
+-- updated_at 은 트랜잭션 시작 시각이라 두 변경이 같은 값을 가질 수 있음
+CREATE SEQUENCE IF NOT EXISTS glyph_revision_seq;
+ALTER TABLE glyph ADD COLUMN IF NOT EXISTS revision BIGINT NOT NULL DEFAULT nextval('glyph_revision_seq');
+
+-- RFC 7396 JSON merge patch: 프로젝트 상세 정보(kerning, groups, font_info ...) 부분 수정용
+-- - 객체는 키 단위로 재귀 병합, 값이 null 인 키는 삭제, 그 외(배열, 숫자 등)는 통째로 교체
+-- - schema.sql 은 세미콜론 단위로 나눠 실행되므로 함수 본문에 세미콜론을 쓰지 않음
+CREATE OR REPLACE FUNCTION jsonb_merge_patch(target JSONB, patch JSONB) RETURNS JSONB AS $$
+    SELECT CASE
+        WHEN jsonb_typeof(patch) IS DISTINCT FROM 'object' THEN patch
+        ELSE (
+            SELECT COALESCE(jsonb_object_agg(merged.key, merged.value), '{}'::jsonb)
+            FROM (
+                SELECT t.key, t.value
+                FROM jsonb_each(CASE WHEN jsonb_typeof(target) = 'object' THEN target ELSE '{}'::jsonb END) t
+                WHERE patch -> t.key IS NULL
+                UNION ALL
+                SELECT p.key, jsonb_merge_patch(CASE WHEN jsonb_typeof(target) = 'object' THEN target -> p.key END, p.value)
+                FROM jsonb_each(patch) p
+                WHERE jsonb_typeof(p.value) <> 'null'
+            ) merged
+        )
+    END
+$$ LANGUAGE sql IMMUTABLE;
+
+-- 협업 op log: 받아들인 변경(글리프 편집/액션, 프로젝트 상세 수정)마다 증가하는 seq 를 붙여서 저장
+-- 실시간 outline 편집은 프레임마다가 아니라 write-behind flush 때 글리프별로 마지막 outline 한 행
+-- 재접속한 클라이언트는 마지막으로 받은 seq 이후의 op 만 받아서 적용 (GET /api/projects/{projectId}/ops?since=N)
+CREATE TABLE IF NOT EXISTS project_op_log (
+    project_id      BIGINT NOT NULL REFERENCES font_project(project_id) ON DELETE CASCADE,
+    seq             BIGINT NOT NULL,
+    op_type         VARCHAR(30) NOT NULL,     -- 'GLYPH_UPDATE', 'GLYPH_ACTION', 'PROJECT_DETAIL'
+    glyph_name      VARCHAR(255),
+    user_id         BIGINT,
+    payload         JSONB NOT NULL,           -- 브로드캐스트한 메시지 그대로
+    created_at      TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (project_id, seq)
+);
+CREATE INDEX IF NOT EXISTS idx_project_op_log_created_at ON project_op_log(created_at);
+
+-- 압축(오래된 op 삭제)으로 지운 마지막 seq: 이보다 오래된 seq 부터 달라는 클라이언트는 전체를 다시 받아야 함
+ALTER TABLE font_project ADD COLUMN IF NOT EXISTS op_compacted_seq BIGINT NOT NULL DEFAULT 0;
+
+-- op seq 카운터: 액션과 프로젝트 상세 수정은 변경과 같은 트랜잭션에서 UPDATE ... RETURNING 으로 다음 seq 를 받음
+-- 행 잠금이 커밋까지 유지되므로 그 op 들은 (여러 서버에서도) seq 순서대로 커밋됨
+CREATE TABLE IF NOT EXISTS project_op_seq (
+    project_id      BIGINT PRIMARY KEY REFERENCES font_project(project_id) ON DELETE CASCADE,
+    last_seq        BIGINT NOT NULL
+);
+-- glyphOrder 변경 번호 (/topic/project/{projectId}/glyph/order 의 seq): 서버마다 세지 않고 여기서 같이 셈
+ALTER TABLE project_op_seq ADD COLUMN IF NOT EXISTS order_seq BIGINT NOT NULL DEFAULT 0;
+-- seq 값 자체는 모든 프로젝트가 이 시퀀스에서 받음: 실시간 outline 편집은 행 잠금 없이 nextval 만 (outline 버전)
+-- 카운터 행만 쓰던 DB 에서는 이미 준 seq 다음부터 시작
+CREATE SEQUENCE IF NOT EXISTS project_op_global_seq;
+DO '
+DECLARE
+    used BIGINT;
+BEGIN
+    SELECT GREATEST(COALESCE((SELECT MAX(last_seq) FROM project_op_seq), 0),
+                    COALESCE((SELECT MAX(seq) FROM project_op_log), 0),
+                    COALESCE((SELECT MAX(op_compacted_seq) FROM font_project), 0)) INTO used;
+    IF used >= (SELECT last_value FROM project_op_global_seq) THEN
+        PERFORM setval(''project_op_global_seq'', used);
+    END IF;
+END
+';
+-- 글리프별 op log 조회는 더 이상 없음
+DROP INDEX IF EXISTS idx_project_op_log_glyph;
+
+-- 서버 간 메시지 중계(app.cluster.relay=postgres): NOTIFY payload 한도(8000 바이트)보다 큰 메시지는 여기 넣고 id 만 NOTIFY
+-- 받는 서버가 바로 읽어 가므로 잠깐만 보관 (app.cluster.postgres.spill-retention-ms 뒤 삭제)
+CREATE TABLE IF NOT EXISTS cluster_relay_spill (
+    id              BIGSERIAL PRIMARY KEY,
+    payload         TEXT NOT NULL,
+    created_at      TIMESTAMP NOT NULL DEFAULT NOW()
+);
+CREATE INDEX IF NOT EXISTS idx_cluster_relay_spill_created_at ON cluster_relay_spill(created_at);
+
+-- 5. 템플릿 글리프 테이블 (번들 UFO 템플릿을 한 번만 저장해두고 새 프로젝트 생성 시 INSERT ... SELECT 로 복제)
+CREATE TABLE IF NOT EXISTS template_glyph (
+    template_name   VARCHAR(50) NOT NULL,     -- 'korean', 'english'
+    layer_name      VARCHAR(50) DEFAULT 'public.default',
+    glyph_name      VARCHAR(255) NOT NULL,
+    unicodes        VARCHAR(10)[],
+    advance_width   INTEGER DEFAULT 0,
+    advance_height  INTEGER DEFAULT 0,
+    outline_data    JSONB,
+    properties      JSONB DEFAULT '{}',
+    sort_order      DOUBLE PRECISION,         -- glyph.sort_order 와 같은 분수 키 (복제 시 그대로 복사)
+
+    PRIMARY KEY (template_name, layer_name, glyph_name)
+);
+
+-- glyph.sort_order 와 같은 방식으로 예전 INTEGER 컬럼일 때만 변경
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = ''template_glyph'' AND column_name = ''sort_order''
+                 AND data_type <> ''double precision'') THEN
+        ALTER TABLE template_glyph ALTER COLUMN sort_order TYPE DOUBLE PRECISION;
+    END IF;
+END
+';
+
+-- 템플릿 .glif 의 format (복제한 글리프도 같은 값을 가짐)
+ALTER TABLE template_glyph ADD COLUMN IF NOT EXISTS format_version INTEGER DEFAULT 2;
+
+-- 저장된 템플릿의 버전 (템플릿 디렉토리 내용 해시). 시작 시 디렉토리와 다르면 다시 적재
+CREATE TABLE IF NOT EXISTS template_version (
+    template_name   VARCHAR(50) PRIMARY KEY,
+    version         VARCHAR(64) NOT NULL,
+    glyph_count     INTEGER NOT NULL,
+    loaded_at       TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,70 @@
+package com.fontogether.api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/**
+ * STOMP 채널 스레드 풀 설정 (DB 필요, ApiApplicationTests 와 같은 datasource 사용)
+ * - clientInboundChannel / clientOutboundChannel 은 Boot 의 기본 executor 가 아니라 WebSocketConfig 의 크기 제한 풀을 써야 함
+ *   (ChannelRegistration.taskExecutor() 로 설정하면 Boot 의 executor() 설정에 덮임)
+ */
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=false",
+        "app.websocket.inbound.threads=3",
+        "app.websocket.inbound.queue-capacity=123",
+        "app.websocket.outbound.threads=5",
+        "app.websocket.outbound.queue-capacity=456"
+})
+class WebSocketConfigTest {
+
+    // Boot hands this to both channels with executor() (it backs off here otherwise, the channel executors being Executors too)
+    @TestConfiguration
+    static class ApplicationTaskExecutorConfig {
+        @Bean
+        ThreadPoolTaskExecutor applicationTaskExecutor() {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadNamePrefix("task-");
+            return executor;
+        }
+    }
+
+    @Autowired
+    @Qualifier("clientInboundChannel")
+    private ExecutorSubscribableChannel clientInboundChannel;
+
+    @Autowired
+    @Qualifier("clientOutboundChannel")
+    private ExecutorSubscribableChannel clientOutboundChannel;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private ThreadPoolTaskExecutor applicationTaskExecutor;
+
+    @Test
+    void inboundChannelUsesBoundedExecutor() {
+        assertBounded(clientInboundChannel, "ws-inbound-", 3, 123);
+    }
+
+    @Test
+    void outboundChannelUsesBoundedExecutor() {
+        assertBounded(clientOutboundChannel, "ws-outbound-", 5, 456);
+    }
+
+    private void assertBounded(ExecutorSubscribableChannel channel, String threadNamePrefix, int threads, int queueCapacity) {
+        assertNotSame(applicationTaskExecutor, channel.getExecutor());
+        ThreadPoolTaskExecutor executor = assertInstanceOf(ThreadPoolTaskExecutor.class, channel.getExecutor());
+        assertEquals(threadNamePrefix, executor.getThreadNamePrefix());
+        assertEquals(threads, executor.getMaxPoolSize());
+        assertEquals(queueCapacity, executor.getQueueCapacity());
+    }
+}
@@ -0,0 +1,78 @@
+package com.fontogether.api.repository;
+
+import com.fontogether.api.model.domain.Glyph;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 템플릿 글리프 저장과 복제 (DB 필요, ApiApplicationTests 와 같은 datasource 사용)
+ * - template_glyph 에 저장한 format_version 과 sort_order(분수 키)가 복제한 글리프에 그대로 남아야 함
+ */
+@SpringBootTest
+class TemplateRepositoryTest {
+
+    @Autowired
+    private TemplateRepository templateRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String templateName = "test-" + System.nanoTime();
+    private Long userId;
+    private Long projectId;
+
+    @BeforeEach
+    void createProject() {
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (email, nickname) VALUES (?, 'template-test') RETURNING id", Long.class,
+                "template-" + System.nanoTime() + "@test.local");
+        projectId = jdbcTemplate.queryForObject(
+                "INSERT INTO font_project (title, owner_id) VALUES ('Template Test', ?) RETURNING project_id", Long.class,
+                userId);
+    }
+
+    @AfterEach
+    void deleteProjectAndTemplate() {
+        // font_project, glyph 는 ON DELETE CASCADE
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        jdbcTemplate.update("DELETE FROM template_glyph WHERE template_name = ?", templateName);
+        jdbcTemplate.update("DELETE FROM template_version WHERE template_name = ?", templateName);
+    }
+
+    @Test
+    void cloneKeepsFormatVersionAndSortKeys() {
+        templateRepository.replaceTemplate(templateName, "v1", List.of(
+                glyph("a", 1, 1.0),
+                glyph("b", 2, 1.5)));
+
+        assertEquals(2, templateRepository.cloneInto(templateName, projectId));
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT glyph_name, format_version, sort_order FROM glyph WHERE project_id = ? ORDER BY glyph_name", projectId);
+        assertEquals(List.of(
+                Map.of("glyph_name", "a", "format_version", 1, "sort_order", 1.0),
+                Map.of("glyph_name", "b", "format_version", 2, "sort_order", 1.5)), rows);
+    }
+
+    private static Glyph glyph(String name, int formatVersion, double sortOrder) {
+        return Glyph.builder()
+                .layerName("public.default")
+                .glyphName(name)
+                .formatVersion(formatVersion)
+                .advanceWidth(500)
+                .advanceHeight(0)
+                .outlineData("{\"contours\":[],\"components\":[]}")
+                .properties("{}")
+                .sortOrder(sortOrder)
+                .build();
+    }
+}
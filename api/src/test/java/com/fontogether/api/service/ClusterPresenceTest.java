@@ -0,0 +1,71 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.model.dto.PresenceMessage.UserState;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 여러 서버의 접속 현황 합치기 검증
+ * - 한 사용자가 두 서버에 세션이 있으면 한 명, 두 서버에서 모두 나가야 나간 것으로 보이는지
+ * - 서버 전체 상태로 교체할 때와 소식이 끊긴 서버를 정리할 때 바뀐 사용자만 돌려주는지
+ */
+class ClusterPresenceTest {
+
+    private static UserState online(long userId, String nickname, Integer editing) {
+        return new UserState(userId, nickname, true, editing);
+    }
+
+    private static UserState offline(long userId) {
+        return new UserState(userId, null, false, null);
+    }
+
+    @Test
+    void userOnTwoNodesLeavesOnce() {
+        ClusterPresence presence = new ClusterPresence();
+
+        assertEquals(List.of(online(1, "kim", null)), presence.apply("a", 7L, List.of(online(1, "kim", null)), 0));
+        assertEquals(List.of(online(2, "lee", null)), presence.apply("b", 7L, List.of(online(2, "lee", null)), 0));
+        // Same user opens a tab on the other node: already online, nothing to tell
+        assertEquals(List.of(), presence.apply("b", 7L, List.of(online(1, "kim", null)), 0));
+        assertEquals(2, presence.activeUsers(7L));
+
+        // The most recent node's editing glyph wins
+        assertEquals(List.of(online(1, "kim", 0x41)), presence.apply("a", 7L, List.of(online(1, "kim", 0x41)), 0));
+        assertEquals(List.of(), presence.apply("a", 7L, List.of(offline(99)), 0));
+
+        assertEquals(List.of(online(1, "kim", null)), presence.apply("a", 7L, List.of(offline(1)), 0));
+        assertEquals(List.of(offline(1)), presence.apply("b", 7L, List.of(offline(1)), 0));
+        assertEquals(1, presence.activeUsers(7L));
+        assertEquals(List.of(online(2, "lee", null)), presence.snapshot(7L));
+    }
+
+    @Test
+    void fullStateAndExpiry() {
+        ClusterPresence presence = new ClusterPresence();
+        presence.apply("a", 7L, List.of(online(1, "kim", null)), 0);
+        presence.apply("b", 7L, List.of(online(2, "lee", 0x42), online(3, "park", null)), 0);
+        presence.apply("b", 8L, List.of(online(4, "choi", null)), 0);
+
+        // b no longer reports 3 (a missed PRESENCE), reports 2 unchanged and 5 new
+        Map<Long, List<UserState>> changes = presence.replaceNode("b", Map.of(
+                7L, List.of(online(2, "lee", 0x42), online(5, "jung", null)),
+                8L, List.of(online(4, "choi", null))), 1000);
+        assertEquals(Map.of(7L, List.of(offline(3), online(5, "jung", null))), changes);
+
+        // a keeps talking, b goes silent
+        presence.apply("a", 7L, List.of(), 5000);
+        changes = presence.expire(2000, "a");
+        assertEquals(List.of(offline(2), offline(5)), changes.get(7L).stream().sorted(java.util.Comparator.comparing(UserState::userId)).toList());
+        assertEquals(List.of(offline(4)), changes.get(8L));
+        assertEquals(1, presence.activeUsers(7L));
+        assertEquals(0, presence.activeUsers(8L));
+
+        // Rebuilt project on this node
+        assertEquals(List.of(offline(1), online(6, "han", null)),
+                presence.replaceProject("a", 7L, List.of(online(6, "han", null)), 6000));
+    }
+}
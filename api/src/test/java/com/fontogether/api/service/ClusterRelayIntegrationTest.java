@@ -0,0 +1,218 @@
+package com.fontogether.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fontogether.api.ApiApplication;
+import com.fontogether.api.model.domain.Glyph;
+import com.fontogether.api.model.dto.GlyphUpdateMessage;
+import com.fontogether.api.model.dto.OperationLogEntry;
+import com.fontogether.api.model.dto.OperationLogPage;
+import com.fontogether.api.model.dto.OutlineEdit;
+import com.fontogether.api.repository.GlyphRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 서버 두 대 사이 전달 테스트 (DB 필요, ApiApplicationTests 와 같은 datasource 사용)
+ * - 같은 DB 를 쓰는 애플리케이션 컨텍스트 두 개를 app.cluster.relay=postgres 로 띄움
+ * - A 에 들어온 사용자가 B 의 접속자 수에 보이고, A 에서 나가면 B 에서도 빠져야 함
+ * - A 의 브로드캐스트가 B 에 도착해야 함 (NOTIFY 제한보다 큰 메시지는 spill 테이블을 거쳐서)
+ * - 같은 글리프를 두 서버에서 번갈아 수정하면(중계된 변경을 모델에 적용) outline 버전은 커지기만 하고, 늦게 flush 된 옛 버전이 새 버전을 덮지 않고,
+ *   op log 에는 서버의 flush 마다 글리프 op 한 행씩 남아야 함
+ * - B 에서 저장된 글리프 편집은 (B 의 revision 증가가 아직 버퍼에 있어도) A 의 다음 export 에서 캐시된 zip 대신 새로 만들어져야 함
+ */
+class ClusterRelayIntegrationTest {
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+    private Long userId;
+    private Long projectId;
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = start("node-a");
+        nodeB = start("node-b");
+
+        JdbcTemplate jdbcTemplate = nodeA.getBean(JdbcTemplate.class);
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (email, nickname) VALUES (?, 'relay-test') RETURNING id", Long.class,
+                "cluster-relay-" + System.nanoTime() + "@test.local");
+        projectId = jdbcTemplate.queryForObject(
+                "INSERT INTO font_project (title, owner_id) VALUES ('Cluster Relay Test', ?) RETURNING project_id", Long.class,
+                userId);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        if (userId != null) {
+            // font_project 는 ON DELETE CASCADE
+            nodeA.getBean(JdbcTemplate.class).update("DELETE FROM users WHERE id = ?", userId);
+        }
+        if (nodeB != null) nodeB.close();
+        if (nodeA != null) nodeA.close();
+    }
+
+    @Test
+    void presenceIsSharedAcrossNodes() throws Exception {
+        PresenceService presenceA = nodeA.getBean(PresenceService.class);
+        PresenceService presenceB = nodeB.getBean(PresenceService.class);
+
+        presenceA.userJoined(projectId, userId, "relay-test", "session-a");
+        awaitTrue("B sees the user who joined on A", () -> presenceB.getActiveUserCount(projectId) == 1);
+
+        // Same user also on B: still one user, and still there after leaving A
+        presenceB.userJoined(projectId, userId, "relay-test", "session-b");
+        disconnect(nodeA, "session-a");
+        Thread.sleep(1000);
+        assertEquals(1, presenceA.getActiveUserCount(projectId));
+        assertEquals(1, presenceB.getActiveUserCount(projectId));
+
+        disconnect(nodeB, "session-b");
+        awaitTrue("A sees the user leave B", () -> presenceA.getActiveUserCount(projectId) == 0);
+    }
+
+    @Test
+    void broadcastsReachTheOtherNode() throws Exception {
+        BlockingQueue<RemoteBroadcastEvent> received = new LinkedBlockingQueue<>();
+        nodeB.addApplicationListener(ApplicationListener.forPayload(received::add));
+        ProjectBroadcaster broadcasterA = nodeA.getBean(ProjectBroadcaster.class);
+
+        broadcasterA.broadcast(projectId, "test/small", Map.of("text", "hello"));
+        RemoteBroadcastEvent small = received.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull(small, "small broadcast relayed");
+        assertEquals(projectId, small.projectId());
+        assertEquals("test/small", small.topic());
+        assertEquals("hello", small.payload().get("text").asText());
+
+        // Over the NOTIFY limit: goes through cluster_relay_spill
+        String large = "x".repeat(20_000);
+        broadcasterA.broadcast(projectId, "test/large", Map.of("text", large, "items", List.of(1, 2, 3)));
+        RemoteBroadcastEvent spilled = received.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull(spilled, "large broadcast relayed");
+        assertEquals("test/large", spilled.topic());
+        assertEquals(large, spilled.payload().get("text").asText());
+        assertEquals(3, spilled.payload().get("items").size());
+
+        // Each broadcast arrives once
+        Thread.sleep(500);
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void glyphEditsOnBothNodesFollowOneSequence() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        GlyphOutlineService outlinesA = nodeA.getBean(GlyphOutlineService.class);
+        GlyphOutlineService outlinesB = nodeB.getBean(GlyphOutlineService.class);
+        String twoPoints = "{\"contours\":[{\"points\":[{\"x\":0,\"y\":0,\"type\":\"line\"},{\"x\":100,\"y\":0,\"type\":\"line\"}]}],\"components\":[]}";
+        nodeA.getBean(GlyphRepository.class).upsertOutline(projectId, "a", "{\"contours\":[],\"components\":[]}", 500, null, 0L);
+
+        // B takes a full outline; A loads it from the row once B's buffer has written it
+        GlyphUpdateMessage full = outlinesB.accept(update().outlineData(twoPoints).build(), "session-b");
+        nodeB.getBean(GlyphWriteBehindBuffer.class).flushAll();
+        GlyphUpdateMessage fromA = outlinesA.accept(update().baseVersion(full.getVersion()).outlineDelta(move(0, 10)).build(), "session-a");
+        assertNotNull(fromA, "A's delta applies on top of B's outline");
+        assertTrue(fromA.getVersion() > full.getVersion());
+
+        // B's editor already has A's edit: accepted once A's relayed delta reached B's model
+        nodeA.getBean(CollaborationService.class).broadcastGlyphUpdate(projectId, fromA);
+        AtomicReference<GlyphUpdateMessage> fromB = new AtomicReference<>();
+        awaitTrue("B's delta applies on top of A's", () -> {
+            fromB.set(outlinesB.accept(update().baseVersion(fromA.getVersion()).outlineDelta(move(1, 20)).build(), "session-b"));
+            return fromB.get() != null;
+        });
+        assertTrue(fromB.get().getVersion() > fromA.getVersion());
+        // An editor that missed A's edit is not
+        assertNull(outlinesB.accept(update().baseVersion(full.getVersion()).outlineDelta(move(1, 30)).build(), "session-b"));
+
+        // Buffers flushed newest first: the row keeps B's outline
+        nodeB.getBean(GlyphWriteBehindBuffer.class).flushAll();
+        nodeA.getBean(GlyphWriteBehindBuffer.class).flushAll();
+        Glyph stored = nodeA.getBean(GlyphService.class).getGlyph(projectId, "a");
+        ObjectNode expected = OutlineEdits.apply(OutlineEdits.apply((ObjectNode) objectMapper.readTree(twoPoints), move(0, 10)), move(1, 20));
+        assertEquals(fromB.get().getVersion(), stored.getOutlineVersion());
+        assertEquals(expected, objectMapper.readTree(stored.getOutlineData()));
+
+        // One op per glyph and flush, in seq order
+        OperationLogPage ops = nodeA.getBean(OperationLogService.class).readSince(projectId, 0, 100);
+        assertEquals(List.of(full.getVersion(), fromA.getVersion(), fromB.get().getVersion()),
+                ops.getOps().stream().map(OperationLogEntry::getSeq).toList());
+    }
+
+    @Test
+    void exportSeesGlyphEditsSavedOnTheOtherNode() throws Exception {
+        ProjectService projectsA = nodeA.getBean(ProjectService.class);
+        nodeA.getBean(GlyphRepository.class).upsertOutline(projectId, "a", "{\"contours\":[],\"components\":[]}", 500, null, 0L);
+        nodeA.getBean(ProjectTimestampBuffer.class).flushProject(projectId);
+        Path before;
+        try (UfoExportCache.Lease lease = projectsA.exportProjectCached(projectId)) {
+            before = lease.file().path();
+        }
+
+        // Written by B's buffer; B's revision bump of the project is still pending in its timestamp buffer
+        nodeB.getBean(GlyphOutlineService.class).accept(update().outlineData("{\"contours\":[{\"points\":[{\"x\":7,\"y\":0,\"type\":\"line\"}]}],\"components\":[]}").build(),
+                "session-b");
+        nodeB.getBean(GlyphWriteBehindBuffer.class).flushAll();
+
+        try (UfoExportCache.Lease lease = projectsA.exportProjectCached(projectId)) {
+            assertNotEquals(before, lease.file().path(), "served the export cached before B's edit");
+        }
+    }
+
+    private GlyphUpdateMessage.GlyphUpdateMessageBuilder update() {
+        return GlyphUpdateMessage.builder().projectId(projectId).glyphName("a").userId(userId);
+    }
+
+    private static List<OutlineEdit> move(int point, double x) {
+        return List.of(OutlineEdit.builder().op(OutlineEdit.Op.MOVE_POINT).contour(0).point(point).x(x).y(0.0).build());
+    }
+
+    private static ConfigurableApplicationContext start(String nodeId) {
+        // Arguments, not default properties: those lose to application.yml (server.port: 80)
+        return new SpringApplicationBuilder(ApiApplication.class)
+                .run("--server.port=0",
+                        "--app.cluster.relay=postgres",
+                        "--app.cluster.node-id=" + nodeId,
+                        "--app.cluster.presence-sync-ms=500");
+    }
+
+    private void disconnect(ConfigurableApplicationContext node, String sessionId) {
+        org.springframework.messaging.simp.stomp.StompHeaderAccessor headers =
+                org.springframework.messaging.simp.stomp.StompHeaderAccessor.create(org.springframework.messaging.simp.stomp.StompCommand.DISCONNECT);
+        headers.setSessionId(sessionId);
+        node.publishEvent(new SessionDisconnectEvent(this,
+                MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()), sessionId, CloseStatus.NORMAL));
+    }
+
+    private static void awaitTrue(String what, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out: " + what);
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.fontogether.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * glyphOrder 메모리 모델 검증
+ * - 무작위 추가/삭제/이동/이름 변경 후에도 ArrayList 로 같은 작업을 한 결과와 순서, 위치가 같은지
+ * - 대형 폰트 규모에서 한 번의 추가가 목록 전체를 훑지 않는지 (시간 출력)
+ */
+class GlyphOrderListTest {
+
+    @Test
+    void matchesArrayListUnderRandomEdits() {
+        Random random = new Random(42);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            expected.add("g" + i);
+        }
+        GlyphOrderList list = new GlyphOrderList(expected);
+        int next = expected.size();
+
+        for (int step = 0; step < 20_000; step++) {
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    String name = "g" + next++;
+                    int index = random.nextInt(expected.size() + 1);
+                    expected.add(index, name);
+                    assertEquals(index, list.insert(index, name));
+                }
+                case 1 -> {
+                    if (expected.isEmpty()) continue;
+                    String name = expected.get(random.nextInt(expected.size()));
+                    int index = expected.indexOf(name);
+                    expected.remove(index);
+                    assertEquals(index, list.remove(name));
+                }
+                case 2 -> {
+                    if (expected.isEmpty()) continue;
+                    String name = expected.remove(random.nextInt(expected.size()));
+                    list.remove(name);
+                    int index = random.nextInt(expected.size() + 1);
+                    expected.add(index, name);
+                    list.insert(index, name);
+                }
+                default -> {
+                    if (expected.isEmpty()) continue;
+                    int index = random.nextInt(expected.size());
+                    String newName = "g" + next++;
+                    assertEquals(index, list.rename(expected.get(index), newName));
+                    expected.set(index, newName);
+                }
+            }
+
+            if (step % 1000 == 0) {
+                assertEquals(expected, list.toList());
+            }
+        }
+
+        assertEquals(expected, list.toList());
+        assertEquals(expected.size(), list.size());
+        for (int i = 0; i < expected.size(); i += 7) {
+            assertEquals(i, list.indexOf(expected.get(i)));
+            assertEquals(expected.get(i), list.get(i));
+        }
+        assertEquals(-1, list.indexOf("missing"));
+        assertEquals(-1, list.remove("missing"));
+    }
+
+    @Test
+    void insertIsClampedAndDuplicatesAreSkipped() {
+        GlyphOrderList list = new GlyphOrderList(List.of("A", "B", "A", "C"));
+        assertEquals(List.of("A", "B", "C"), list.toList());
+
+        assertEquals(3, list.insert(99, "D"));
+        assertEquals(0, list.insert(-5, "E"));
+        assertEquals(List.of("E", "A", "B", "C", "D"), list.toList());
+        assertTrue(list.contains("D"));
+        assertFalse(list.contains("Z"));
+    }
+
+    @Test
+    void addingToLargeFontIsCheap() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 12_000; i++) {
+            names.add(String.format("uni%04X", 0xAC00 + i));
+        }
+        GlyphOrderList list = new GlyphOrderList(names);
+
+        int adds = 10_000;
+        long started = System.nanoTime();
+        for (int i = 0; i < adds; i++) {
+            list.insert(list.size(), "added" + i);
+            list.indexOf("added" + i);
+        }
+        double microsPerAdd = (System.nanoTime() - started) / 1_000.0 / adds;
+        System.out.printf("glyphOrder add + indexOf on %d glyphs: %.2f us%n", names.size(), microsPerAdd);
+
+        assertEquals(names.size() + adds, list.size());
+        assertEquals(names.size(), list.indexOf("added0"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.model.dto.GlyphActionMessage;
+import com.fontogether.api.repository.GlyphRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * glyphOrder 모델과 글리프 액션 (DB 필요, ApiApplicationTests 와 같은 datasource 사용)
+ * - 모델이 아직 로드되지 않은 프로젝트의 첫 액션은 이미 바뀐 행에서 모델을 로드하므로, 그 액션은 이미 반영된 것으로 처리해야 함
+ * - 이어지는 액션은 로드된 모델에서 lib 의 해당 원소만 수정
+ */
+@SpringBootTest
+class GlyphOrderServiceTest {
+
+    @Autowired
+    private CollaborationService collaborationService;
+
+    @Autowired
+    private GlyphOrderService glyphOrderService;
+
+    @Autowired
+    private GlyphRepository glyphRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long projectId;
+
+    @BeforeEach
+    void createProject() {
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (email, nickname) VALUES (?, 'order-test') RETURNING id", Long.class,
+                "glyph-order-" + System.nanoTime() + "@test.local");
+        projectId = jdbcTemplate.queryForObject(
+                "INSERT INTO font_project (title, owner_id) VALUES ('Glyph Order Test', ?) RETURNING project_id", Long.class,
+                userId);
+        for (String name : List.of("a", "b", "c")) {
+            glyphRepository.upsertOutline(projectId, name, "{\"contours\":[],\"components\":[]}", 500, null, 0L);
+        }
+    }
+
+    @AfterEach
+    void deleteProject() {
+        glyphOrderService.evict(projectId);
+        // font_project, glyph 는 ON DELETE CASCADE
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void renameOnUnloadedModel() {
+        collaborationService.handleGlyphAction(rename("b", "b2"));
+        assertEquals(List.of("a", "b2", "c"), libGlyphOrder());
+        assertEquals(List.of("a", "b2", "c"), glyphOrderService.snapshot(projectId).getGlyphOrder());
+
+        // The model is loaded now: the next rename edits it in place
+        collaborationService.handleGlyphAction(rename("b2", "b3"));
+        assertEquals(List.of("a", "b3", "c"), libGlyphOrder());
+        assertEquals(List.of("a", "b3", "c"), glyphOrderService.snapshot(projectId).getGlyphOrder());
+    }
+
+    private GlyphActionMessage rename(String oldName, String newName) {
+        return GlyphActionMessage.builder()
+                .projectId(projectId)
+                .userId(userId)
+                .action(GlyphActionMessage.ActionType.RENAME)
+                .glyphName(oldName)
+                .newName(newName)
+                .build();
+    }
+
+    private List<String> libGlyphOrder() {
+        return jdbcTemplate.queryForList(
+                "SELECT jsonb_array_elements_text(lib -> 'public.glyphOrder') FROM font_project WHERE project_id = ?", String.class,
+                projectId);
+    }
+}
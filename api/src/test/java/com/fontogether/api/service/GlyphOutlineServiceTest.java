@@ -0,0 +1,124 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.model.dto.GlyphUpdateMessage;
+import com.fontogether.api.model.dto.OutlineEdit;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * GlyphOutlineService 테스트 (DB 필요, ApiApplicationTests 와 같은 datasource 사용)
+ * - 거절된 delta 가 다른 글리프의 버퍼에 있던 편집을 잃지 않아야 함
+ *   (delta 는 모델을 불러오기 전에 버퍼를 flush 함, 거절되어도 그 저장은 남아야 함)
+ * - 드래그 프레임은 트랜잭션도 op 행도 만들지 않고, flush 때 글리프별로 마지막 outline 의 op 한 행만 써야 함
+ * - 예약된 flush 가 먼저 저장하지 않도록 flush 주기를 길게 둠
+ */
+@SpringBootTest(properties = "app.glyph.write-behind.flush-interval-ms=600000")
+class GlyphOutlineServiceTest {
+
+    @Autowired
+    private GlyphOutlineService glyphOutlineService;
+
+    @Autowired
+    private GlyphWriteBehindBuffer glyphWriteBehindBuffer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long userId;
+    private Long projectId;
+
+    @BeforeEach
+    void createProject() {
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (email, nickname) VALUES (?, 'outline-test') RETURNING id", Long.class,
+                "glyph-outline-" + System.nanoTime() + "@test.local");
+        projectId = jdbcTemplate.queryForObject(
+                "INSERT INTO font_project (title, owner_id) VALUES ('Outline Test', ?) RETURNING project_id", Long.class,
+                userId);
+    }
+
+    @AfterEach
+    void deleteProject() {
+        glyphWriteBehindBuffer.flushProject(projectId);
+        // font_project, glyph, op log 는 ON DELETE CASCADE
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void rejectedDeltaKeepsBufferedEditsOfOtherGlyphs() throws Exception {
+        String outline = "{\"contours\":[{\"points\":[{\"x\":10,\"y\":20,\"type\":\"line\"}]}]}";
+        GlyphUpdateMessage full = glyphOutlineService.accept(GlyphUpdateMessage.builder()
+                .projectId(projectId)
+                .glyphName("b")
+                .outlineData(outline)
+                .advanceWidth(600)
+                .userId(userId)
+                .build(), "session-b");
+        assertEquals(outline, full.getOutlineData());
+
+        // "a" isn't resident, so the delta loads it; its base version is one the server never handed out
+        GlyphUpdateMessage rejected = glyphOutlineService.accept(GlyphUpdateMessage.builder()
+                .projectId(projectId)
+                .glyphName("a")
+                .baseVersion(Long.MAX_VALUE)
+                .outlineDelta(List.of(OutlineEdit.builder().op(OutlineEdit.Op.DELETE_CONTOUR).contour(0).build()))
+                .userId(userId)
+                .build(), "session-a");
+        assertNull(rejected);
+
+        glyphWriteBehindBuffer.flushProject(projectId);
+        String stored = jdbcTemplate.queryForObject(
+                "SELECT outline_data::text FROM glyph WHERE project_id = ? AND glyph_name = 'b'", String.class, projectId);
+        assertEquals(objectMapper.readTree(outline), objectMapper.readTree(stored));
+    }
+
+    @Test
+    void framesWriteOneOpPerGlyphAtFlush() throws Exception {
+        String outline = "{\"contours\":[{\"points\":[{\"x\":0,\"y\":0,\"type\":\"line\"}]}]}";
+        GlyphUpdateMessage last = glyphOutlineService.accept(GlyphUpdateMessage.builder()
+                .projectId(projectId).glyphName("c").outlineData(outline).userId(userId).build(), "session-c");
+        for (int x = 1; x <= 5; x++) {
+            GlyphUpdateMessage frame = glyphOutlineService.accept(GlyphUpdateMessage.builder()
+                    .projectId(projectId).glyphName("c").baseVersion(last.getVersion()).userId(userId)
+                    .outlineDelta(List.of(OutlineEdit.builder().op(OutlineEdit.Op.MOVE_POINT).contour(0).point(0).x((double) x).y(0.0).build()))
+                    .build(), "session-c");
+            assertTrue(frame.getVersion() > last.getVersion());
+            last = frame;
+        }
+        assertEquals(0, countOps());
+
+        glyphWriteBehindBuffer.flushProject(projectId);
+        assertEquals(1, countOps());
+        Map<String, Object> op = jdbcTemplate.queryForMap(
+                "SELECT seq, op_type, user_id, payload::text AS payload FROM project_op_log WHERE project_id = ?", projectId);
+        assertEquals(last.getVersion(), op.get("seq"));
+        assertEquals("GLYPH_UPDATE", op.get("op_type"));
+        assertEquals(userId, op.get("user_id"));
+        JsonNode payload = objectMapper.readTree((String) op.get("payload"));
+        assertEquals(last.getVersion().longValue(), payload.get("seq").asLong());
+        assertEquals(5.0, objectMapper.readTree(payload.get("outlineData").asText()).at("/contours/0/points/0/x").asDouble());
+        assertEquals(last.getVersion(), jdbcTemplate.queryForObject(
+                "SELECT outline_version FROM glyph WHERE project_id = ? AND glyph_name = 'c'", Long.class, projectId));
+    }
+
+    private int countOps() {
+        Integer ops = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM project_op_log WHERE project_id = ?", Integer.class, projectId);
+        return ops != null ? ops : 0;
+    }
+}
@@ -0,0 +1,218 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.model.domain.Glyph;
+import com.fontogether.api.repository.GlyphRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 글리프 저장 부하 테스트 (DB 필요, ApiApplicationTests 와 같은 datasource 사용)
+ * - 여러 스레드가 같은 프로젝트의 글리프를 무작위로 편집
+ * - 이전 방식(조회 후 update/insert)과 한 문장 upsert 의 초당 편집 수 비교
+ * - upsert 는 동시에 처음 저장되는 글자도 중복 행이나 키 충돌 없이 처리해야 함
+ * - 편집 한 번은 DB 왕복 한 번(이전 방식은 두 번), write-behind flush 는 글리프 수와 무관하게 문장 하나를 batch 로 한 번에 보내야 함
+ *   (DataSource 를 감싸서 준비한 문장과 execute 호출 수를 셈)
+ */
+@SpringBootTest
+class GlyphUpsertLoadTest {
+
+    private static final int THREADS = 8;
+    private static final int EDITS_PER_THREAD = 500;
+    private static final int GLYPH_COUNT = 200;
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(GlyphUpsertLoadTest.class);
+
+    @Autowired
+    private GlyphRepository glyphRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Long userId;
+    private Long projectId;
+
+    @BeforeEach
+    void createProject() {
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (email, nickname) VALUES (?, 'load-test') RETURNING id", Long.class,
+                "glyph-upsert-load-" + System.nanoTime() + "@test.local");
+        projectId = jdbcTemplate.queryForObject(
+                "INSERT INTO font_project (title, owner_id) VALUES ('Upsert Load Test', ?) RETURNING project_id", Long.class,
+                userId);
+    }
+
+    @AfterEach
+    void deleteProject() {
+        // font_project, glyph 는 ON DELETE CASCADE
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void upsertSustainsMoreEditsThanSelectThenWrite() throws Exception {
+        AtomicInteger legacyFailures = new AtomicInteger();
+        double legacy = run("select-then-write", "legacy", (name, outline) -> {
+            try {
+                Optional<Glyph> existing = glyphRepository.findByProjectAndName(projectId, name);
+                if (existing.isPresent()) {
+                    Glyph glyph = existing.get();
+                    glyph.setOutlineData(outline);
+                    glyph.setAdvanceWidth(600);
+                    glyphRepository.update(glyph);
+                } else {
+                    glyphRepository.save(Glyph.builder()
+                            .projectId(projectId).layerName("public").glyphName(name)
+                            .unicodes(List.of()).advanceWidth(600).advanceHeight(1000)
+                            .outlineData(outline).properties("{}")
+                            .build());
+                }
+            } catch (org.springframework.dao.DuplicateKeyException e) {
+                // Two editors created the same glyph at once
+                legacyFailures.incrementAndGet();
+            }
+        });
+
+        double upsert = run("upsert", "upsert", (name, outline) ->
+                glyphRepository.upsertOutline(projectId, name, outline, 600, null, 0L));
+
+        log.info("select-then-write: {} edits/s ({} lost to key conflicts), upsert: {} edits/s ({}x)",
+                Math.round(legacy), legacyFailures.get(), Math.round(upsert), String.format("%.2f", upsert / legacy));
+
+        Integer upsertRows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM glyph WHERE project_id = ? AND glyph_name LIKE 'upsert%'", Integer.class, projectId);
+        assertEquals(GLYPH_COUNT, upsertRows);
+    }
+
+    @Test
+    void upsertIsOneRoundTripAndFlushIsOneBatch() {
+        CountingDataSource counting = new CountingDataSource(dataSource);
+        GlyphRepository repository = new GlyphRepository(new JdbcTemplate(counting.proxy()));
+        String outline = "{\"contours\":[],\"components\":[]}";
+
+        // Single edit, new and existing glyph
+        for (String state : List.of("new", "existing")) {
+            counting.reset();
+            repository.upsertOutline(projectId, "single", outline, 600, null, 0L);
+            assertEquals(1, counting.prepared.get(), state + " glyph: statements");
+            assertEquals(1, counting.executed.get(), state + " glyph: round trips");
+        }
+
+        // Write-behind flush: half of the glyphs exist already
+        List<Glyph> glyphs = new ArrayList<>();
+        for (int i = 0; i < GLYPH_COUNT; i++) {
+            glyphs.add(Glyph.builder().glyphName("flush" + i).outlineData(outline).advanceWidth(600).outlineVersion((long) i).build());
+        }
+        repository.upsertOutlines(projectId, glyphs.subList(0, GLYPH_COUNT / 2));
+        counting.reset();
+        repository.upsertOutlines(projectId, glyphs);
+        assertEquals(1, counting.prepared.get(), "statements per flush");
+        assertEquals(1, counting.executed.get(), "executeBatch calls per flush");
+        assertEquals(GLYPH_COUNT, counting.batched.get(), "rows in the batch");
+
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM glyph WHERE project_id = ? AND glyph_name LIKE 'flush%'", Integer.class, projectId);
+        assertEquals(GLYPH_COUNT, rows);
+    }
+
+    /**
+     * Counts prepared statements, execute calls (a round trip each; executeBatch pipelines its rows) and batched rows.
+     */
+    private static final class CountingDataSource {
+        final DataSource target;
+        final AtomicInteger prepared = new AtomicInteger();
+        final AtomicInteger executed = new AtomicInteger();
+        final AtomicInteger batched = new AtomicInteger();
+
+        CountingDataSource(DataSource target) {
+            this.target = target;
+        }
+
+        void reset() {
+            prepared.set(0);
+            executed.set(0);
+            batched.set(0);
+        }
+
+        DataSource proxy() {
+            return wrap(DataSource.class, target, (method, result) -> {
+                if (method.getName().equals("getConnection")) {
+                    return wrap(Connection.class, result, (connectionMethod, statement) -> {
+                        if (!connectionMethod.getName().equals("prepareStatement")) return statement;
+                        prepared.incrementAndGet();
+                        return wrap(PreparedStatement.class, statement, (statementMethod, value) -> value);
+                    });
+                }
+                return result;
+            });
+        }
+
+        private <T> T wrap(Class<T> type, Object target, java.util.function.BiFunction<Method, Object, Object> onResult) {
+            return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (type == PreparedStatement.class) {
+                    if (method.getName().equals("addBatch")) batched.incrementAndGet();
+                    if (method.getName().startsWith("execute")) executed.incrementAndGet();
+                }
+                try {
+                    return onResult.apply(method, method.invoke(target, args));
+                } catch (java.lang.reflect.InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Edit {
+        void apply(String glyphName, String outline);
+    }
+
+    // Returns edits per second over all threads
+    private double run(String label, String prefix, Edit edit) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            long started = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < EDITS_PER_THREAD; i++) {
+                        int x = random.nextInt(1000);
+                        edit.apply(prefix + random.nextInt(GLYPH_COUNT),
+                                "{\"contours\":[{\"points\":[{\"x\":" + x + ",\"y\":0,\"type\":\"line\"}]}],\"components\":[]}");
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            log.info("{}: {} edits in {} s", label, THREADS * EDITS_PER_THREAD, String.format("%.2f", seconds));
+            return THREADS * EDITS_PER_THREAD / seconds;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
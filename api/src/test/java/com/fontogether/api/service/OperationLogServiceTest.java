@@ -0,0 +1,99 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.model.dto.OperationLogEntry.OpType;
+import com.fontogether.api.model.dto.OperationLogPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * op seq 와 op log 기록 (DB 필요, ApiApplicationTests 와 같은 datasource 사용)
+ * - seq 는 DB 카운터에서 받고 op 는 같은 트랜잭션에서 저장: 커밋 직후 바로 since 로 읽을 수 있어야 함
+ * - 롤백된 변경은 op 를 남기지 않음 (seq 는 빈 번호가 됨)
+ * - 트랜잭션 밖에서 seq 를 받으면 거절
+ * - 아직 op 행이 없는 outline 편집의 seq(다른 서버의 버퍼)부터 읽어도 resync 가 아니고, 준 적 없는 seq 는 resync
+ */
+@SpringBootTest
+class OperationLogServiceTest {
+
+    @Autowired
+    private OperationLogService operationLogService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long projectId;
+
+    @BeforeEach
+    void createProject() {
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (email, nickname) VALUES (?, 'oplog-test') RETURNING id", Long.class,
+                "oplog-" + System.nanoTime() + "@test.local");
+        projectId = jdbcTemplate.queryForObject(
+                "INSERT INTO font_project (title, owner_id) VALUES ('Op Log Test', ?) RETURNING project_id", Long.class,
+                userId);
+    }
+
+    @AfterEach
+    void deleteProject() {
+        // font_project, project_op_log, project_op_seq 는 ON DELETE CASCADE
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void committedOpsAreReadableRightAway() {
+        long first = operationLogService.append(projectId, OpType.PROJECT_DETAIL, null, userId, Map.of("n", 1));
+        long second = operationLogService.append(projectId, OpType.PROJECT_DETAIL, null, userId, Map.of("n", 2));
+        assertTrue(second > first);
+
+        OperationLogPage page = operationLogService.readSince(projectId, 0, 100);
+        assertEquals(second, page.getLatestSeq());
+        assertEquals(2, page.getOps().size());
+        assertEquals(first, page.getOps().get(0).getSeq());
+        assertEquals(second, page.getOps().get(1).getSeq());
+    }
+
+    @Test
+    void rolledBackOpLeavesNoRow() {
+        long first = operationLogService.append(projectId, OpType.PROJECT_DETAIL, null, userId, Map.of("n", 1));
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            operationLogService.append(projectId, OpType.PROJECT_DETAIL, null, userId, Map.of("n", 2));
+            throw new IllegalStateException("edit failed");
+        }));
+
+        assertTrue(operationLogService.append(projectId, OpType.PROJECT_DETAIL, null, userId, Map.of("n", 3)) > first);
+        assertEquals(2, operationLogService.readSince(projectId, 0, 100).getOps().size());
+    }
+
+    @Test
+    void unflushedOutlineSeqIsAPlaceToResumeFrom() {
+        operationLogService.append(projectId, OpType.PROJECT_DETAIL, null, userId, Map.of("n", 1));
+        // Broadcast by a server whose buffer hasn't written the op yet
+        long unflushed = operationLogService.nextOutlineSeq();
+
+        OperationLogPage page = operationLogService.readSince(projectId, unflushed, 100);
+        assertFalse(page.isResync());
+        assertEquals(unflushed, page.getLatestSeq());
+        assertTrue(operationLogService.readSince(projectId, unflushed + 1_000_000, 100).isResync());
+    }
+
+    @Test
+    void seqOutsideTransactionIsRejected() {
+        assertThrows(IllegalStateException.class, () -> operationLogService.nextSeq(projectId));
+    }
+}
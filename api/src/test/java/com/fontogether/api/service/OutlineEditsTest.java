@@ -0,0 +1,68 @@
+package com.fontogether.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fontogether.api.model.dto.OutlineEdit;
+import com.fontogether.api.model.dto.OutlineEdit.Op;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * outline delta 적용 검증
+ * - 점 이동/추가/삭제, 컨투어 추가/삭제를 순서대로 적용한 결과
+ * - 잘못된 인덱스는 거절하고 원본 outline 은 그대로인지
+ */
+class OutlineEditsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ObjectNode outline() throws Exception {
+        return (ObjectNode) objectMapper.readTree("""
+                {"contours":[{"points":[{"x":0,"y":0,"type":"line"},{"x":100,"y":0,"type":"line"},{"x":100,"y":100,"type":"line"}]}],
+                 "components":[{"base":"A"}]}
+                """);
+    }
+
+    @Test
+    void appliesEditsInOrder() throws Exception {
+        ObjectNode original = outline();
+        ObjectNode result = OutlineEdits.apply(original, List.of(
+                OutlineEdit.builder().op(Op.MOVE_POINT).contour(0).point(1).x(120.0).y(-5.5).build(),
+                OutlineEdit.builder().op(Op.INSERT_POINT).contour(0).point(3)
+                        .value(objectMapper.readTree("{\"x\":0,\"y\":100,\"type\":\"line\"}")).build(),
+                OutlineEdit.builder().op(Op.DELETE_POINT).contour(0).point(0).build(),
+                OutlineEdit.builder().op(Op.INSERT_CONTOUR).contour(0)
+                        .value(objectMapper.readTree("{\"points\":[{\"x\":10,\"y\":10}]}")).build()));
+
+        assertEquals(objectMapper.readTree("""
+                {"contours":[{"points":[{"x":10,"y":10}]},
+                             {"points":[{"x":120.0,"y":-5.5,"type":"line"},{"x":100,"y":100,"type":"line"},{"x":0,"y":100,"type":"line"}]}],
+                 "components":[{"base":"A"}]}
+                """), result);
+        assertEquals(outline(), original);
+
+        ObjectNode removed = OutlineEdits.apply(result, List.of(OutlineEdit.builder().op(Op.DELETE_CONTOUR).contour(1).build()));
+        assertEquals(1, removed.get("contours").size());
+    }
+
+    @Test
+    void rejectsEditsThatDoNotFit() throws Exception {
+        ObjectNode original = outline();
+        assertThrows(IllegalArgumentException.class, () -> OutlineEdits.apply(original, List.of(
+                OutlineEdit.builder().op(Op.MOVE_POINT).contour(0).point(0).x(1.0).y(1.0).build(),
+                OutlineEdit.builder().op(Op.MOVE_POINT).contour(0).point(3).x(1.0).y(1.0).build())));
+        assertThrows(IllegalArgumentException.class, () -> OutlineEdits.apply(original, List.of(
+                OutlineEdit.builder().op(Op.DELETE_CONTOUR).contour(1).build())));
+        assertThrows(IllegalArgumentException.class, () -> OutlineEdits.apply(original, List.of(
+                OutlineEdit.builder().op(Op.MOVE_POINT).contour(0).point(0).x(Double.NaN).y(1.0).build())));
+        assertThrows(IllegalArgumentException.class, () -> OutlineEdits.apply(original, List.of(
+                OutlineEdit.builder().op(Op.INSERT_CONTOUR).contour(0).value(objectMapper.readTree("{\"closed\":true}")).build())));
+
+        // A rejected batch leaves nothing half applied
+        assertEquals(outline(), original);
+    }
+}
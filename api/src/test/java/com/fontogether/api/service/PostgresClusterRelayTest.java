@@ -0,0 +1,56 @@
+package com.fontogether.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 보내는 큐 검증 (보내는 스레드 없이 큐만, DB 불필요)
+ * - 전체 outline 은 같은 글리프의 아직 안 보낸 메시지(전체/delta)를 대체하고, 나머지 순서는 그대로
+ * - 큐가 max-queue 만큼 차면 새 메시지는 버림
+ */
+class PostgresClusterRelayTest {
+
+    private static final String GLYPH_A = "/topic/project/1/glyph/update|a";
+    private static final String GLYPH_B = "/topic/project/1/glyph/update|b";
+
+    @Test
+    void wholeOutlineReplacesWaitingFramesOfItsGlyph() {
+        PostgresClusterRelay relay = relay(100);
+        relay.publish(message("a delta 1"), GLYPH_A, false);
+        relay.publish(message("a full 2"), GLYPH_A, true);
+        relay.publish(message("presence"));
+        relay.publish(message("b full 3"), GLYPH_B, true);
+        relay.publish(message("a full 4"), GLYPH_A, true);
+        relay.publish(message("a delta 5"), GLYPH_A, false);
+        relay.publish(message("kick"));
+
+        assertEquals(List.of("presence", "b full 3", "a full 4", "a delta 5", "kick"),
+                relay.queued().stream().map(ClusterMessage::payload).toList());
+    }
+
+    @Test
+    void fullQueueDropsNewMessages() {
+        PostgresClusterRelay relay = relay(2);
+        relay.publish(message("1"));
+        relay.publish(message("2"));
+        relay.publish(message("3"));
+        relay.publish(message("a full"), GLYPH_A, true);
+
+        assertEquals(List.of("1", "2"), relay.queued().stream().map(ClusterMessage::payload).toList());
+    }
+
+    private static PostgresClusterRelay relay(int maxQueue) {
+        PostgresClusterRelay relay = new PostgresClusterRelay(null, null, new ObjectMapper());
+        ReflectionTestUtils.setField(relay, "maxQueue", maxQueue);
+        return relay;
+    }
+
+    private static ClusterMessage message(String payload) {
+        return new ClusterMessage("node-a", ClusterMessage.Type.BROADCAST, 1L, "glyph/update", payload);
+    }
+}
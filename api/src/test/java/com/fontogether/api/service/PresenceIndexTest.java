@@ -0,0 +1,131 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.model.dto.PresenceMessage.UserState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 접속 현황 참조 카운트 검증
+ * - 같은 사용자의 여러 세션(탭)은 한 명으로, 마지막 세션이 나갈 때만 접속자 수가 줄어드는지
+ * - 여러 스레드가 동시에 입장/퇴장해도 끝난 뒤 수가 맞는지 (수업 시작 때 한 프로젝트에 몰리는 입장)
+ * - 한 tick 사이의 변경이 사용자별 마지막 상태 하나로 모이는지
+ */
+class PresenceIndexTest {
+
+    @Test
+    void countsUsersNotSessions() {
+        PresenceIndex index = new PresenceIndex();
+
+        assertEquals(1, index.join(1L, 10L, "u"));
+        assertEquals(1, index.join(1L, 10L, "u")); // second tab
+        assertEquals(2, index.join(1L, 20L, "u"));
+        assertEquals(2, index.join(1L, null, null)); // anonymous session
+        assertEquals(4, index.sessions(1L));
+        assertEquals(Set.of(10L, 20L), index.userIds(1L));
+
+        assertEquals(2, index.leave(1L, 10L));
+        assertEquals(1, index.leave(1L, 10L));
+        assertEquals(1, index.leave(1L, null));
+        assertEquals(0, index.leave(1L, 20L));
+        assertEquals(0, index.activeUsers(1L));
+        assertEquals(0, index.totalSessions());
+
+        // Unknown project or user: nothing to undo
+        assertEquals(0, index.leave(2L, 10L));
+        assertEquals(1, index.join(1L, 30L, "u"));
+        assertEquals(1, index.activeUsers(1L));
+    }
+
+    @Test
+    void drainsLatestStatePerUser() {
+        PresenceIndex index = new PresenceIndex();
+        index.join(1L, 10L, "kim");
+        index.join(1L, 20L, "lee");
+        index.join(1L, null, null);
+        index.join(2L, 30L, "park");
+        index.drainChanges();
+        assertEquals(List.of(), index.drainChanges());
+
+        // Glyph hopping within one tick: only where the user ended up
+        index.editing(1L, 10L, 0x41);
+        index.editing(1L, 10L, 0x42);
+        index.editing(1L, 10L, 0x43);
+        index.editing(1L, 99L, 0x41); // not in the project
+        index.join(1L, 20L, "lee"); // second tab changes nothing
+        index.leave(2L, 30L); // last session of project 2: other servers still need to hear it
+
+        List<PresenceIndex.Changes> changes = index.drainChanges();
+        assertEquals(Set.of(new PresenceIndex.Changes(1L, 2, List.of(new UserState(10L, "kim", true, 0x43))),
+                        new PresenceIndex.Changes(2L, 0, List.of(new UserState(30L, null, false, null)))),
+                Set.copyOf(changes));
+        assertEquals(0, index.activeUsers(2L));
+
+        index.leave(1L, 20L);
+        index.leave(1L, 20L);
+        index.editing(1L, 10L, null);
+        changes = index.drainChanges();
+        assertEquals(1, changes.size());
+        assertEquals(1, changes.get(0).activeUsers());
+        assertEquals(Set.of(new UserState(10L, "kim", true, null), new UserState(20L, null, false, null)),
+                Set.copyOf(changes.get(0).users()));
+        assertEquals(List.of(new UserState(10L, "kim", true, null)), index.snapshot(1L));
+    }
+
+    @Test
+    void joinStormAcrossThreads() throws Exception {
+        PresenceIndex index = new PresenceIndex();
+        int threads = 8;
+        int usersPerThread = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long firstUser = (long) t * usersPerThread;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < 50; round++) {
+                        for (long user = firstUser; user < firstUser + usersPerThread; user++) {
+                            index.join(1L, user, "u");
+                            index.join(1L, user % 7, "u"); // users shared between threads
+                        }
+                        for (long user = firstUser; user < firstUser + usersPerThread; user++) {
+                            index.leave(1L, user % 7);
+                            if (round < 49) index.leave(1L, user);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            System.out.printf("presence join/leave storm: %.1f ms%n", (System.nanoTime() - started) / 1e6);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Each thread keeps one session per own user
+        assertEquals(threads * usersPerThread, index.activeUsers(1L));
+        assertEquals(threads * usersPerThread, index.sessions(1L));
+
+        for (long user = 0; user < (long) threads * usersPerThread; user++) {
+            index.leave(1L, user);
+        }
+        assertEquals(0, index.activeUsers(1L));
+        assertEquals(0, index.totalSessions());
+    }
+}
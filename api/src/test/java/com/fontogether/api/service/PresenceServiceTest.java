@@ -0,0 +1,57 @@
+package com.fontogether.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 접속 현황: 입장(프로젝트 메일박스)과 연결 종료(이벤트 스레드)의 순서
+ * - 연결 종료가 먼저 처리되고 입장이 나중에 오면 유령 세션이 남지 않아야 함
+ * - 평소 순서(입장 후 종료)는 그대로 동작해야 함
+ */
+@SpringBootTest
+class PresenceServiceTest {
+
+    // Not a real project: presence only keys on the id
+    private static final Long PROJECT_ID = -18L;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void joinAfterDisconnectLeavesNoGhost() {
+        disconnect("ghost-session");
+        presenceService.userJoined(PROJECT_ID, 1L, "ghost", "ghost-session");
+        presenceService.tick();
+        assertEquals(0, presenceService.getActiveUserCount(PROJECT_ID));
+    }
+
+    @Test
+    void joinThenDisconnect() {
+        presenceService.userJoined(PROJECT_ID, 2L, "kim", "live-session");
+        presenceService.tick();
+        assertEquals(1, presenceService.getActiveUserCount(PROJECT_ID));
+
+        disconnect("live-session");
+        presenceService.tick();
+        assertEquals(0, presenceService.getActiveUserCount(PROJECT_ID));
+    }
+
+    private void disconnect(String sessionId) {
+        StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.DISCONNECT);
+        headers.setSessionId(sessionId);
+        eventPublisher.publishEvent(new SessionDisconnectEvent(this,
+                MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()), sessionId, CloseStatus.NORMAL));
+    }
+}
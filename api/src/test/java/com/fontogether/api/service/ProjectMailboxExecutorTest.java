@@ -0,0 +1,128 @@
+package com.fontogether.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 프로젝트 메일박스와 느린 쿼리 (DB 필요, ApiApplicationTests 와 같은 datasource 사용)
+ * - 플랫폼 스레드 수만큼의 프로젝트가 느린 쿼리(pg_sleep)를 실행 중일 때
+ * - 가상 스레드에서는 다른 프로젝트의 작업이 그 쿼리들이 끝나기 전에 실행되어야 함
+ * - 플랫폼 스레드 풀에서는 스레드가 비기 전까지 기다림 (비교용)
+ * - call(REST 저장)은 먼저 들어온 같은 프로젝트의 작업 뒤에 실행되고, 결과와 예외를 호출한 쪽으로 돌려줌
+ */
+@SpringBootTest
+class ProjectMailboxExecutorTest {
+
+    private static final int PLATFORM_THREADS = 4;
+    private static final double SLOW_QUERY_SECONDS = 2;
+
+    // Not real projects: mailboxes only key on the id
+    private static final Long FAST_PROJECT_ID = -25L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ProjectMailboxExecutor mailboxes;
+
+    @AfterEach
+    void stopMailboxes() throws InterruptedException {
+        mailboxes.stop();
+    }
+
+    @Test
+    void otherProjectRunsWhileSlowQueriesWaitOnVirtualThreads() throws Exception {
+        mailboxes = mailboxes(true);
+        CountDownLatch slowDone = startSlowQueries();
+
+        CountDownLatch fastDone = submitFastTask();
+        assertTrue(fastDone.await(1, TimeUnit.SECONDS), "fast project waited for the slow queries");
+        assertEquals(PLATFORM_THREADS, slowDone.getCount(), "slow queries ended before the fast project ran");
+    }
+
+    @Test
+    void otherProjectWaitsForBusyPlatformThreads() throws Exception {
+        mailboxes = mailboxes(false);
+        CountDownLatch slowDone = startSlowQueries();
+
+        CountDownLatch fastDone = submitFastTask();
+        assertFalse(fastDone.await(1, TimeUnit.SECONDS), "fast project ran while every platform thread was busy");
+        // Runs once a slow query gives its thread back
+        assertTrue(fastDone.await(10, TimeUnit.SECONDS));
+        assertTrue(slowDone.getCount() < PLATFORM_THREADS);
+    }
+
+    @Test
+    void callRunsAfterQueuedTasksAndReturnsItsResult() {
+        mailboxes = mailboxes(false);
+        List<String> order = new CopyOnWriteArrayList<>();
+        mailboxes.submit(FAST_PROJECT_ID, () -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            order.add("queued");
+        });
+
+        assertEquals("saved", mailboxes.call(FAST_PROJECT_ID, () -> {
+            order.add("call");
+            return "saved";
+        }));
+        assertEquals(List.of("queued", "call"), order);
+
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                () -> mailboxes.call(FAST_PROJECT_ID, () -> {
+                    throw new IllegalArgumentException("bad glyph");
+                }));
+        assertEquals("bad glyph", thrown.getMessage());
+    }
+
+    private ProjectMailboxExecutor mailboxes(boolean virtualThreads) {
+        ProjectMailboxExecutor mailboxes = new ProjectMailboxExecutor(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(mailboxes, "threads", PLATFORM_THREADS);
+        ReflectionTestUtils.setField(mailboxes, "batchSize", 64);
+        ReflectionTestUtils.setField(mailboxes, "idleMs", 600_000L);
+        ReflectionTestUtils.setField(mailboxes, "virtualThreads", virtualThreads);
+        mailboxes.start();
+        return mailboxes;
+    }
+
+    // One slow project per platform thread; returns once every query is running
+    private CountDownLatch startSlowQueries() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(PLATFORM_THREADS);
+        CountDownLatch done = new CountDownLatch(PLATFORM_THREADS);
+        for (long i = 1; i <= PLATFORM_THREADS; i++) {
+            mailboxes.submit(FAST_PROJECT_ID - i, () -> {
+                running.countDown();
+                jdbcTemplate.execute("SELECT pg_sleep(" + SLOW_QUERY_SECONDS + ")");
+                done.countDown();
+            });
+        }
+        assertTrue(running.await(5, TimeUnit.SECONDS), "slow queries did not start");
+        return done;
+    }
+
+    private CountDownLatch submitFastTask() {
+        CountDownLatch done = new CountDownLatch(1);
+        mailboxes.submit(FAST_PROJECT_ID, () -> {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            done.countDown();
+        });
+        return done;
+    }
+}
@@ -0,0 +1,292 @@
+package com.fontogether.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 느린 구독자 부하 테스트 (Spring 의 세션별 전송 버퍼 + 출력 스레드 풀을 흉내 냄)
+ * - 빠른 세션과 쓰기 한 번에 50ms 걸리는 세션에 글리프 20개의 전체 outline 을 계속 브로드캐스트
+ * - 느린 세션으로 밀린 메시지(보관함 + 전송 버퍼)가 글리프 수 정도로 유지되고, 연결이 끊기지 않고, 글리프마다 마지막 outline 은 받아야 함
+ * - 버릴 수 없는 메시지가 max-parked 를 넘게 밀리면 세션을 끊고 보관함을 비워야 함
+ */
+class SlowConsumerOutboxStressTest {
+
+    private static final int GLYPHS = 20;
+    private static final int MESSAGES = 4000;
+    private static final int SEND_BUFFER_LIMIT = 512 * 1024;
+    private static final String PAYLOAD_PADDING = "x".repeat(1000);
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(SlowConsumerOutboxStressTest.class);
+
+    private final ExecutorService outboundThreads = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        outboundThreads.shutdownNow();
+    }
+
+    @Test
+    void slowSubscriberStaysBoundedAndGetsLatestOutlines() throws Exception {
+        SlowConsumerOutbox outbox = outbox(1000);
+        FakeSubProtocolHandler handler = new FakeSubProtocolHandler();
+        WebSocketHandler decorated = outbox.decorate(handler);
+        FakeSession fast = new FakeSession("fast", 0);
+        FakeSession slow = new FakeSession("slow", 50);
+        decorated.afterConnectionEstablished(fast);
+        decorated.afterConnectionEstablished(slow);
+
+        AtomicInteger maxParked = new AtomicInteger();
+        AtomicInteger maxBuffered = new AtomicInteger();
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                maxParked.accumulateAndGet(outbox.parked(), Math::max);
+                maxBuffered.accumulateAndGet(handler.sessions.get("slow").getBufferSize(), Math::max);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+
+        for (int version = 1; version <= MESSAGES; version++) {
+            String glyph = "g" + (version % GLYPHS);
+            publish(outbox, handler, "fast", glyph, version);
+            publish(outbox, handler, "slow", glyph, version);
+            if (version % 2 == 0) Thread.sleep(1);
+        }
+        outboundThreads.shutdown();
+        assertTrue(outboundThreads.awaitTermination(30, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (outbox.parked() > 0 || handler.sessions.get("slow").getBufferSize() > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "slow session never caught up " + outbox.parked() + " " + handler.sessions.get("slow").getBufferSize() + " " + slow.received.get() + " " + slow.closeStatus);
+            Thread.sleep(20);
+        }
+        Thread.sleep(200);
+        sampler.interrupt();
+        sampler.join();
+
+        log.info("slow session: received {} of {}, max parked {}, max send buffer {} bytes",
+                slow.received.get(), MESSAGES, maxParked.get(), maxBuffered.get());
+
+        assertEquals(MESSAGES, fast.received.get());
+        assertNull(slow.closeStatus, "slow session was closed");
+        assertTrue(slow.received.get() < MESSAGES / 4, "slow session should skip superseded outlines");
+        // Per session at most one message per glyph waits, plus the batch being written
+        assertTrue(maxParked.get() <= 2 * GLYPHS, "parked " + maxParked.get());
+        assertTrue(maxBuffered.get() < SEND_BUFFER_LIMIT, "buffered " + maxBuffered.get());
+
+        for (int g = 0; g < GLYPHS; g++) {
+            long last = MESSAGES - ((MESSAGES - g) % GLYPHS);
+            assertEquals(last, slow.latest.get("g" + g), "latest outline of g" + g);
+        }
+    }
+
+    @Test
+    void closesSessionThatFallsTooFarBehind() throws Exception {
+        SlowConsumerOutbox outbox = outbox(100);
+        FakeSubProtocolHandler handler = new FakeSubProtocolHandler();
+        WebSocketHandler decorated = outbox.decorate(handler);
+        FakeSession slow = new FakeSession("slow", 200);
+        decorated.afterConnectionEstablished(slow);
+
+        // Deltas and other messages can't be replaced, so they pile up
+        for (int version = 1; version <= 1000 && slow.closeStatus == null; version++) {
+            Message<byte[]> message = message("slow", "g0", version, false);
+            Message<?> passed = outbox.preSend(message, null);
+            if (passed != null) outboundThreads.execute(() -> handler.handleMessage(passed));
+            Thread.sleep(1);
+        }
+
+        assertEquals(CloseStatus.SESSION_NOT_RELIABLE, slow.closeStatus);
+        assertEquals(0, outbox.parked());
+        assertTrue(handler.sessions.get("slow").getBufferSize() < SEND_BUFFER_LIMIT);
+    }
+
+    private SlowConsumerOutbox outbox(int maxParked) {
+        SlowConsumerOutbox outbox = new SlowConsumerOutbox(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(outbox, "enabled", true);
+        ReflectionTestUtils.setField(outbox, "slowAfterMs", 20L);
+        ReflectionTestUtils.setField(outbox, "maxParked", maxParked);
+        outbox.start();
+        return outbox;
+    }
+
+    // What the broker + clientOutboundChannel do for each subscriber
+    private void publish(SlowConsumerOutbox outbox, FakeSubProtocolHandler handler, String sessionId, String glyph, long version) {
+        Message<?> passed = outbox.preSend(message(sessionId, glyph, version, true), null);
+        if (passed != null) outboundThreads.execute(() -> handler.handleMessage(passed));
+    }
+
+    private static Message<byte[]> message(String sessionId, String glyph, long version, boolean wholeOutline) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setHeader(SlowConsumerOutbox.CONFLATION_KEY_HEADER, "/topic/project/1/glyph/update|" + glyph);
+        headers.setHeader(SlowConsumerOutbox.CONFLATION_REPLACES_HEADER, wholeOutline);
+        String payload = glyph + ":" + version + ":" + PAYLOAD_PADDING;
+        return MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8), headers.getMessageHeaders());
+    }
+
+    /**
+     * Stands in for SubProtocolWebSocketHandler: wraps each session in Spring's send buffer and writes frames to it.
+     */
+    private static final class FakeSubProtocolHandler extends AbstractWebSocketHandler implements MessageHandler {
+        final Map<String, ConcurrentWebSocketSessionDecorator> sessions = new ConcurrentHashMap<>();
+
+        @Override
+        public void afterConnectionEstablished(WebSocketSession session) {
+            sessions.put(session.getId(), new ConcurrentWebSocketSessionDecorator(session, 10_000, SEND_BUFFER_LIMIT));
+        }
+
+        @Override
+        public void handleMessage(Message<?> message) {
+            ConcurrentWebSocketSessionDecorator session = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+            try {
+                session.sendMessage(new TextMessage((byte[]) message.getPayload()));
+            } catch (Exception e) {
+                // Closed for going over the buffer limit
+            }
+        }
+    }
+
+    private static final class FakeSession implements WebSocketSession {
+        final String id;
+        final long writeMillis;
+        final AtomicInteger received = new AtomicInteger();
+        final Map<String, Long> latest = new ConcurrentHashMap<>();
+        final AtomicLong bytes = new AtomicLong();
+        volatile CloseStatus closeStatus;
+
+        FakeSession(String id, long writeMillis) {
+            this.id = id;
+            this.writeMillis = writeMillis;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            if (writeMillis > 0 && closeStatus == null) {
+                try {
+                    Thread.sleep(writeMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            String[] parts = ((TextMessage) message).getPayload().split(":", 3);
+            latest.merge(parts[0], Long.parseLong(parts[1]), Math::max);
+            received.incrementAndGet();
+            bytes.addAndGet(message.getPayloadLength());
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public URI getUri() {
+            return null;
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return Map.of();
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return closeStatus == null;
+        }
+
+        @Override
+        public void close() {
+            close(CloseStatus.NORMAL);
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+            closeStatus = status;
+        }
+    }
+}
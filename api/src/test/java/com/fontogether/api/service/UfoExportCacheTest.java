@@ -0,0 +1,111 @@
+package com.fontogether.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * export 캐시 파일 수명 검증
+ * - 응답 중인(Lease 가 열린) 파일은 새 revision 이 생기거나 LRU 로 빠져도 삭제되지 않아야 함
+ * - Lease 가 닫히고 retired-grace-ms 가 지나면 삭제되어야 함
+ * - Lease 중에 연 스트림은 파일이 삭제되어도 끝까지 읽을 수 있어야 함
+ * - 같은 revision 이라도 글리프 지문이 다르면 새로 만들고 이전 파일은 빠져야 함 (다른 서버에서 저장된 글리프 편집)
+ * - 프로젝트를 지우면 그 프로젝트의 파일만 삭제되어야 함
+ */
+class UfoExportCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void leasedFileOutlivesNewerRevision() throws Exception {
+        UfoExportCache cache = cache(0);
+
+        UfoExportCache.Lease served = cache.getOrCreate(1L, 1, "a", out -> out.write(bytes("revision 1")));
+        Path path = served.file().path();
+        InputStream in = Files.newInputStream(path);
+
+        cache.getOrCreate(1L, 2, "a", out -> out.write(bytes("revision 2"))).close();
+        cache.deleteUnusedRetired();
+        assertTrue(Files.exists(path), "deleted while being served");
+
+        served.close();
+        cache.deleteUnusedRetired();
+        assertFalse(Files.exists(path));
+        try (in) {
+            assertArrayEquals(bytes("revision 1"), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void evictedFileWaitsForGracePeriod() throws Exception {
+        UfoExportCache cache = cache(60_000);
+        ReflectionTestUtils.setField(cache, "maxBytes", 15L);
+
+        UfoExportCache.Lease first = cache.getOrCreate(1L, 1, "a", out -> out.write(bytes("project 1")));
+        Path path = first.file().path();
+        first.close();
+        // Over max-bytes: project 1 is evicted
+        cache.getOrCreate(2L, 1, "a", out -> out.write(bytes("project 2"))).close();
+        cache.deleteUnusedRetired();
+        assertTrue(Files.exists(path), "deleted before sendfile could open it");
+
+        ReflectionTestUtils.setField(cache, "retiredGraceMs", 0L);
+        cache.deleteUnusedRetired();
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    void changedGlyphsAtSameRevisionGetANewFile() throws Exception {
+        UfoExportCache cache = cache(0);
+
+        UfoExportCache.Lease before = cache.getOrCreate(1L, 1, "a", out -> out.write(bytes("glyphs a")));
+        Path path = before.file().path();
+        before.close();
+
+        try (UfoExportCache.Lease after = cache.getOrCreate(1L, 1, "b", out -> out.write(bytes("glyphs b")))) {
+            assertArrayEquals(bytes("glyphs b"), Files.readAllBytes(after.file().path()));
+        }
+        cache.deleteUnusedRetired();
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    void deletedProjectLosesItsFiles() throws Exception {
+        UfoExportCache cache = cache(0);
+
+        UfoExportCache.Lease deleted = cache.getOrCreate(1L, 1, "a", out -> out.write(bytes("project 1")));
+        Path deletedPath = deleted.file().path();
+        deleted.close();
+        UfoExportCache.Lease kept = cache.getOrCreate(2L, 1, "a", out -> out.write(bytes("project 2")));
+        Path keptPath = kept.file().path();
+        kept.close();
+
+        cache.removeProject(1L);
+        assertFalse(Files.exists(deletedPath));
+        assertTrue(Files.exists(keptPath));
+    }
+
+    private UfoExportCache cache(long retiredGraceMs) throws Exception {
+        UfoExportCache cache = new UfoExportCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "cacheDir", cacheDir);
+        ReflectionTestUtils.setField(cache, "maxBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(cache, "retiredGraceMs", retiredGraceMs);
+        cache.loadExistingFiles();
+        return cache;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
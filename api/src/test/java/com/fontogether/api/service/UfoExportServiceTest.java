@@ -0,0 +1,253 @@
+package com.fontogether.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fontogether.api.model.domain.Glyph;
+import com.fontogether.api.model.domain.Project;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 병렬 직렬화 export 검증
+ * - 스레드 수와 무관하게 같은 바이트의 zip 을 만드는지
+ * - 결과 zip 을 표준 ZipInputStream 으로 읽을 수 있고 엔트리 순서가 contents.plist 순서와 같은지
+ * - 다시 export 할 때 바뀐 글리프만 새로 직렬화되고 결과는 처음부터 만든 것과 같은지
+ * - 예전 순차 export(ZipOutputStream)로 만든 zip(src/test/resources/export/sample-sequential.zip)과 엔트리 이름, 순서, 내용이 같은지
+ */
+class UfoExportServiceTest {
+
+    private static final int GLYPH_COUNT = 2000;
+
+    @Test
+    void parallelExportIsByteIdenticalToSequential() throws Exception {
+        byte[] sequential = export(1);
+        byte[] parallel = export(8);
+
+        assertArrayEquals(sequential, parallel);
+    }
+
+    @Test
+    void exportIsReadableInSupplyOrder() throws Exception {
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(export(4)), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                names.add(entry.getName());
+                String content = new String(zis.readAllBytes(), StandardCharsets.UTF_8);
+                if (entry.getName().endsWith(".glif")) {
+                    assertTrue(content.contains("<glyph name=\""), entry.getName());
+                }
+            }
+        }
+
+        // 7 project files + glyphs + contents.plist
+        assertEquals(7 + GLYPH_COUNT + 1, names.size());
+        assertEquals("Test_Font.ufo/glyphs/uni0000.glif", names.get(7));
+        assertEquals("Test_Font.ufo/glyphs/A_.glif", names.get(8));
+        assertEquals("Test_Font.ufo/glyphs/contents.plist", names.get(names.size() - 1));
+    }
+
+    @Test
+    void unchangedGlyphsAreReusedAndDirtyGlyphsReserialized() throws Exception {
+        UfoExportService service = newService(4);
+        try {
+            List<Glyph> glyphs = glyphs();
+            byte[] first = export(service, glyphs);
+            assertArrayEquals(first, export(service, glyphs));
+
+            // Edit one glyph: its cached entry must not be reused
+            Glyph edited = glyphs.get(5);
+            edited.setOutlineData("{\"contours\":[],\"components\":[]}");
+            edited.setRevision(edited.getRevision() + GLYPH_COUNT);
+
+            byte[] incremental = export(service, glyphs);
+            assertArrayEquals(fullExport(glyphs), incremental);
+            assertFalse(Arrays.equals(first, incremental));
+        } finally {
+            service.stopSerializePool();
+        }
+    }
+
+    @Test
+    void entriesMatchTheSequentialZipOutputStreamExport() throws Exception {
+        // Written by the exporter as it was before parallel serialization (one ZipOutputStream, glyph by glyph)
+        Map<String, byte[]> expected;
+        try (InputStream in = getClass().getResourceAsStream("/export/sample-sequential.zip")) {
+            assertNotNull(in, "sample-sequential.zip");
+            expected = entries(in.readAllBytes());
+        }
+
+        for (int parallelism : new int[]{1, 4}) {
+            UfoExportService service = newService(parallelism);
+            try {
+                List<Glyph> glyphs = sampleGlyphs();
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                service.exportProjectToUfo(sampleProject(), action -> glyphs.forEach(action), out);
+                Map<String, byte[]> actual = entries(out.toByteArray());
+
+                assertEquals(List.copyOf(expected.keySet()), List.copyOf(actual.keySet()), "entry names, parallelism " + parallelism);
+                for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+                    assertEquals(new String(entry.getValue(), StandardCharsets.UTF_8),
+                            new String(actual.get(entry.getKey()), StandardCharsets.UTF_8), entry.getKey());
+                }
+            } finally {
+                service.stopSerializePool();
+            }
+        }
+    }
+
+    private static Map<String, byte[]> entries(byte[] zip) throws Exception {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zip), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                entries.put(entry.getName(), zis.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Small project covering the edge cases: file name clashes, reserved names, components,
+     * several or no unicodes, malformed outline JSON, nested plist values and every features section.
+     */
+    private static Project sampleProject() {
+        return Project.builder()
+                .projectId(2L)
+                .title("Sample Font: Regular")
+                .fontInfo("{\"familyName\":\"Sample\",\"unitsPerEm\":1000,\"italicAngle\":-12.5,"
+                        + "\"openTypeOS2Selection\":[7,8],\"postscriptIsFixedPitch\":false,\"note\":null}")
+                .groups("{\"public.kern1.A\":[\"A\",\"Aacute\"],\"public.kern2.V\":[\"V\"]}")
+                .kerning("{\"public.kern1.A\":{\"public.kern2.V\":-80},\"A\":{\"a\":-5}}")
+                .lib("{\"public.glyphOrder\":[\".notdef\",\"A\",\"a\"],\"com.example.blob\":\"DATA:AAEC\",\"com.example.flag\":true}")
+                .features("{\"languagesystems\":[\"languagesystem DFLT dflt;\"],"
+                        + "\"classes\":[{\"name\":\"caps\",\"code\":\"A V\"},{\"name\":\"@lower\",\"code\":\"a\"}],"
+                        + "\"tables\":[{\"tag\":\"OS/2\",\"code\":\"TypoAscender 800;\"}],"
+                        + "\"lookups\":[{\"name\":\"liga1\",\"code\":\"sub f i by f_i;\"}],"
+                        + "\"features\":[{\"tag\":\"kern\",\"code\":\"pos A V -80;\"}],"
+                        + "\"prefix\":\"# prefix\"}")
+                .updatedAt(LocalDateTime.of(2024, 5, 1, 12, 30, 10))
+                .build();
+    }
+
+    private static List<Glyph> sampleGlyphs() {
+        String contour = "{\"contours\":[{\"points\":[{\"x\":10.7,\"y\":0,\"type\":\"line\"},"
+                + "{\"x\":300,\"y\":700.2,\"type\":\"curve\",\"smooth\":true},{\"x\":150,\"y\":-20}]}],\"components\":[]}";
+        String composite = "{\"contours\":[],\"components\":[{\"base\":\"A\"},"
+                + "{\"base\":\"acute\",\"xScale\":0.9,\"xyScale\":0.1,\"yxScale\":0,\"yScale\":1.1,\"xOffset\":120,\"yOffset\":-15.5}]}";
+        List<Glyph> glyphs = new ArrayList<>();
+        glyphs.add(sampleGlyph(".notdef", null, contour));
+        glyphs.add(sampleGlyph("A", List.of("0041"), contour));
+        glyphs.add(sampleGlyph("a_", List.of("0061", "0251"), contour)); // clashes with A_.glif
+        glyphs.add(sampleGlyph("Aacute", List.of("00C1"), composite));
+        glyphs.add(sampleGlyph("con", null, contour)); // reserved on Windows
+        glyphs.add(sampleGlyph("f_i", List.of("FB01"), "{not json"));
+        glyphs.add(sampleGlyph("V", List.of("0056"), "{}"));
+        return glyphs;
+    }
+
+    private static Glyph sampleGlyph(String name, List<String> unicodes, String outline) {
+        return Glyph.builder()
+                .glyphUuid(UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)))
+                .glyphName(name)
+                .unicodes(unicodes)
+                .advanceWidth(600)
+                .advanceHeight(1000)
+                .outlineData(outline)
+                .properties("{}")
+                .updatedAt(LocalDateTime.of(2024, 5, 1, 12, 0))
+                .build();
+    }
+
+    private byte[] export(int parallelism) throws Exception {
+        return fullExport(glyphs(), parallelism);
+    }
+
+    private byte[] fullExport(List<Glyph> glyphs) throws Exception {
+        return fullExport(glyphs, 1);
+    }
+
+    private byte[] fullExport(List<Glyph> glyphs, int parallelism) throws Exception {
+        UfoExportService service = newService(parallelism);
+        try {
+            return export(service, glyphs);
+        } finally {
+            service.stopSerializePool();
+        }
+    }
+
+    private UfoExportService newService(int parallelism) {
+        UfoExportService service = new UfoExportService(new ObjectMapper());
+        ReflectionTestUtils.setField(service, "serializeParallelism", parallelism);
+        ReflectionTestUtils.setField(service, "glifCacheMaxBytes", 64L * 1024 * 1024);
+        service.startSerializePool();
+        return service;
+    }
+
+    private byte[] export(UfoExportService service, List<Glyph> glyphs) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportProjectToUfo(project(), action -> glyphs.forEach(action), out);
+        return out.toByteArray();
+    }
+
+    private Project project() {
+        return Project.builder()
+                .projectId(1L)
+                .title("Test Font")
+                .fontInfo("{\"familyName\":\"Test\",\"unitsPerEm\":1000}")
+                .groups("{}")
+                .kerning("{}")
+                .lib("{\"public.glyphOrder\":[\"uni0000\",\"A\"]}")
+                .features("{}")
+                .updatedAt(LocalDateTime.of(2024, 5, 1, 12, 30, 10))
+                .build();
+    }
+
+    private List<Glyph> glyphs() {
+        List<Glyph> glyphs = new ArrayList<>();
+        glyphs.add(glyph("uni0000", 0));
+        glyphs.add(glyph("A", 1));
+        for (int i = 2; i < GLYPH_COUNT; i++) {
+            glyphs.add(glyph(String.format("uni%04X", 0xAC00 + i), i));
+        }
+        return glyphs;
+    }
+
+    private Glyph glyph(String name, int index) {
+        String outline = "{\"contours\":[{\"points\":["
+                + "{\"x\":" + index + ",\"y\":0,\"type\":\"line\"},"
+                + "{\"x\":" + (index + 100) + ",\"y\":700,\"type\":\"curve\",\"smooth\":true},"
+                + "{\"x\":50,\"y\":" + index + "}]}],"
+                + "\"components\":[{\"base\":\"A\",\"xOffset\":10.0}]}";
+        return Glyph.builder()
+                .glyphUuid(UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)))
+                .glyphName(name)
+                .unicodes(List.of(Integer.toHexString(0xAC00 + index).toUpperCase()))
+                .advanceWidth(1000)
+                .advanceHeight(1000)
+                .outlineData(outline)
+                .properties("{}")
+                .updatedAt(LocalDateTime.of(2024, 5, 1, 12, 0).plusSeconds(index))
+                .revision((long) index + 1)
+                .build();
+    }
+}
@@ -0,0 +1,276 @@
+package com.fontogether.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fontogether.api.model.domain.Glyph;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * StAX 리더(UfoXmlReader)와 기존 DOM 변환 경로 비교
+ * - 번들 템플릿의 모든 .glif / .plist 에 대해 출력이 동일한지 확인
+ * - 같은 입력으로 두 경로의 파싱 시간을 측정해서 로그로 남김 (실행 시간 비교라 기본 test 에서는 빠짐: gradle benchmark 로 실행)
+ */
+class UfoXmlReaderBenchmarkTest {
+
+    private static final Path TEMPLATE_ROOT = Path.of("template");
+    private static final int BENCHMARK_ROUNDS = 3;
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(UfoXmlReaderBenchmarkTest.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UfoXmlReader xmlReader = new UfoXmlReader(objectMapper.getFactory());
+    private final DomReference domReference = new DomReference(objectMapper);
+
+    @Test
+    void streamingReaderMatchesDomOutputOnBundledTemplates() throws Exception {
+        for (Path ufo : templates()) {
+            for (Path plist : files(ufo, ".plist")) {
+                byte[] bytes = Files.readAllBytes(plist);
+                assertEquals(domReference.plistToJson(bytes), xmlReader.plistToJson(bytes), plist.toString());
+            }
+
+            List<Path> glifs = files(ufo, ".glif");
+            assertFalse(glifs.isEmpty());
+            for (Path glif : glifs) {
+                byte[] bytes = Files.readAllBytes(glif);
+                Glyph expected = domReference.readGlif(bytes, 1000);
+                Glyph actual = xmlReader.readGlif(bytes, 1000);
+
+                assertNotNull(expected, glif.toString());
+                assertEquals(expected, actual, glif.toString());
+            }
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkAgainstDomPath() throws Exception {
+        for (Path ufo : templates()) {
+            List<byte[]> glifs = new ArrayList<>();
+            for (Path glif : files(ufo, ".glif")) {
+                glifs.add(Files.readAllBytes(glif));
+            }
+
+            // Warm up both paths once before measuring
+            long domNanos = time(() -> glifs.forEach(domReference::readGlif));
+            long staxNanos = time(() -> glifs.forEach(this::readGlifUnchecked));
+
+            domNanos = Long.MAX_VALUE;
+            staxNanos = Long.MAX_VALUE;
+            for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+                domNanos = Math.min(domNanos, time(() -> glifs.forEach(domReference::readGlif)));
+                staxNanos = Math.min(staxNanos, time(() -> glifs.forEach(this::readGlifUnchecked)));
+            }
+
+            log.info("{}: {} glifs, DOM {} ms, StAX {} ms (x{})",
+                    ufo.getFileName(), glifs.size(), domNanos / 1_000_000, staxNanos / 1_000_000,
+                    String.format("%.2f", (double) domNanos / Math.max(1, staxNanos)));
+        }
+    }
+
+    private void readGlifUnchecked(byte[] bytes) {
+        try {
+            xmlReader.readGlif(bytes, 1000);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long time(Runnable task) {
+        long started = System.nanoTime();
+        task.run();
+        return System.nanoTime() - started;
+    }
+
+    private List<Path> templates() throws IOException {
+        try (Stream<Path> paths = Files.list(TEMPLATE_ROOT)) {
+            return paths.filter(path -> path.toString().endsWith(".ufo")).sorted().toList();
+        }
+    }
+
+    private List<Path> files(Path ufo, String extension) throws IOException {
+        try (Stream<Path> paths = Files.walk(ufo)) {
+            return paths.filter(path -> path.toString().endsWith(extension)).sorted().toList();
+        }
+    }
+
+    /**
+     * The DOM conversion UfoImportService used before the StAX reader, kept as the reference output.
+     */
+    static class DomReference {
+
+        private final ObjectMapper objectMapper;
+
+        DomReference(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+        }
+
+        String plistToJson(byte[] bytes) {
+            try {
+                DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+                dbFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+                DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
+                Document doc = dBuilder.parse(new ByteArrayInputStream(bytes));
+
+                NodeList dicts = doc.getElementsByTagName("dict");
+                if (dicts.getLength() == 0) return null;
+                return convertDictToJson((Element) dicts.item(0)).toString();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private ObjectNode convertDictToJson(Element dict) {
+            ObjectNode node = objectMapper.createObjectNode();
+            NodeList children = dict.getChildNodes();
+            String currentKey = null;
+
+            for (int i = 0; i < children.getLength(); i++) {
+                Node child = children.item(i);
+                if (child.getNodeType() != Node.ELEMENT_NODE) continue;
+
+                String tagName = child.getNodeName();
+                if ("key".equals(tagName)) {
+                    currentKey = child.getTextContent();
+                } else if (currentKey != null) {
+                    switch (tagName) {
+                        case "string" -> node.put(currentKey, child.getTextContent());
+                        case "integer" -> node.put(currentKey, Integer.parseInt(child.getTextContent()));
+                        case "real" -> node.put(currentKey, Double.parseDouble(child.getTextContent()));
+                        case "true" -> node.put(currentKey, true);
+                        case "false" -> node.put(currentKey, false);
+                        case "data" -> node.put(currentKey, "DATA:" + child.getTextContent().trim());
+                        case "array" -> node.set(currentKey, convertArrayToJson((Element) child));
+                        case "dict" -> node.set(currentKey, convertDictToJson((Element) child));
+                    }
+                    currentKey = null;
+                }
+            }
+            return node;
+        }
+
+        private ArrayNode convertArrayToJson(Element array) {
+            ArrayNode node = objectMapper.createArrayNode();
+            NodeList children = array.getChildNodes();
+            for (int i = 0; i < children.getLength(); i++) {
+                Node child = children.item(i);
+                if (child.getNodeType() != Node.ELEMENT_NODE) continue;
+                switch (child.getNodeName()) {
+                    case "string" -> node.add(child.getTextContent());
+                    case "integer" -> node.add(Integer.parseInt(child.getTextContent()));
+                    case "real" -> node.add(Double.parseDouble(child.getTextContent()));
+                    case "true" -> node.add(true);
+                    case "false" -> node.add(false);
+                    case "array" -> node.add(convertArrayToJson((Element) child));
+                    case "dict" -> node.add(convertDictToJson((Element) child));
+                }
+            }
+            return node;
+        }
+
+        Glyph readGlif(byte[] bytes) {
+            return readGlif(bytes, 1000);
+        }
+
+        Glyph readGlif(byte[] bytes, int defaultMetric) {
+            try {
+                DocumentBuilder dBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+                Element glyphElem = dBuilder.parse(new ByteArrayInputStream(bytes)).getDocumentElement();
+                String format = glyphElem.getAttribute("format");
+
+                Glyph glyph = Glyph.builder()
+                        .glyphName(glyphElem.getAttribute("name"))
+                        .formatVersion(format.isEmpty() ? 1 : Integer.parseInt(format))
+                        .build();
+
+                List<String> unicodes = new ArrayList<>();
+                NodeList unicodeNodes = glyphElem.getElementsByTagName("unicode");
+                for (int i = 0; i < unicodeNodes.getLength(); i++) {
+                    unicodes.add(((Element) unicodeNodes.item(i)).getAttribute("hex"));
+                }
+                glyph.setUnicodes(unicodes);
+
+                NodeList advanceNodes = glyphElem.getElementsByTagName("advance");
+                if (advanceNodes.getLength() > 0) {
+                    Element adv = (Element) advanceNodes.item(0);
+                    glyph.setAdvanceWidth(adv.hasAttribute("width") ? Integer.parseInt(adv.getAttribute("width")) : defaultMetric);
+                    glyph.setAdvanceHeight(adv.hasAttribute("height") ? Integer.parseInt(adv.getAttribute("height")) : defaultMetric);
+                } else {
+                    glyph.setAdvanceWidth(defaultMetric);
+                    glyph.setAdvanceHeight(defaultMetric);
+                }
+
+                Element outline = (Element) glyphElem.getElementsByTagName("outline").item(0);
+                glyph.setOutlineData(outline != null ? convertOutlineToJson(outline) : "{}");
+                glyph.setProperties("{}");
+                return glyph;
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        private String convertOutlineToJson(Element outline) {
+            ObjectNode root = objectMapper.createObjectNode();
+            ArrayNode contours = objectMapper.createArrayNode();
+            ArrayNode components = objectMapper.createArrayNode();
+
+            NodeList children = outline.getChildNodes();
+            for (int i = 0; i < children.getLength(); i++) {
+                Node child = children.item(i);
+                if (child.getNodeType() != Node.ELEMENT_NODE) continue;
+
+                if ("contour".equals(child.getNodeName())) {
+                    ArrayNode points = objectMapper.createArrayNode();
+                    NodeList pointNodes = child.getChildNodes();
+                    for (int j = 0; j < pointNodes.getLength(); j++) {
+                        Node pNode = pointNodes.item(j);
+                        if (pNode.getNodeType() == Node.ELEMENT_NODE && "point".equals(pNode.getNodeName())) {
+                            Element p = (Element) pNode;
+                            ObjectNode pointObj = objectMapper.createObjectNode();
+                            pointObj.put("x", Double.parseDouble(p.getAttribute("x")));
+                            pointObj.put("y", Double.parseDouble(p.getAttribute("y")));
+                            if (p.hasAttribute("type")) pointObj.put("type", p.getAttribute("type"));
+                            if (p.hasAttribute("smooth")) pointObj.put("smooth", "yes".equals(p.getAttribute("smooth")));
+                            points.add(pointObj);
+                        }
+                    }
+                    ObjectNode contourObj = objectMapper.createObjectNode();
+                    contourObj.set("points", points);
+                    contours.add(contourObj);
+                } else if ("component".equals(child.getNodeName())) {
+                    Element cmp = (Element) child;
+                    ObjectNode compObj = objectMapper.createObjectNode();
+                    compObj.put("base", cmp.getAttribute("base"));
+                    for (String attribute : new String[]{"xScale", "xyScale", "yxScale", "yScale", "xOffset", "yOffset"}) {
+                        if (cmp.hasAttribute(attribute)) compObj.put(attribute, Double.parseDouble(cmp.getAttribute(attribute)));
+                    }
+                    components.add(compObj);
+                }
+            }
+
+            root.set("contours", contours);
+            root.set("components", components);
+            return root.toString();
+        }
+    }
+}
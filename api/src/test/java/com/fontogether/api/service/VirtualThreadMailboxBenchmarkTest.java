@@ -0,0 +1,147 @@
+package com.fontogether.api.service;
+
+import com.fontogether.api.repository.GlyphRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 협업 메시지 처리 지연 벤치마크 (DB 필요, ApiApplicationTests 와 같은 datasource 사용)
+ * - 프로젝트 메일박스를 플랫폼 스레드 풀(4개)과 가상 스레드로 각각 실행
+ * - 일부 프로젝트는 느린 쿼리(200ms)를 계속 보내고, 나머지 프로젝트는 글리프 읽기/쓰기를 섞어서 보냄
+ * - 읽기/쓰기 메시지가 도착해서 처리가 끝날 때까지의 p50/p99 비교: 가상 스레드에서는 느린 쿼리가 다른 프로젝트를 막지 않아야 함
+ * - 실행 시간 비교라 기본 test 에서는 빠짐: gradle benchmark 로 실행 (동작 확인은 ProjectMailboxExecutorTest)
+ */
+@Tag("benchmark")
+@SpringBootTest
+class VirtualThreadMailboxBenchmarkTest {
+
+    private static final int PLATFORM_THREADS = 4;
+    private static final int SLOW_PROJECTS = 4;
+    private static final int FAST_PROJECTS = 12;
+    private static final int GLYPHS = 50;
+    private static final long RUN_MS = 3000;
+    private static final long FAST_INTERVAL_MS = 10;
+    private static final long SLOW_INTERVAL_MS = 250;
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(VirtualThreadMailboxBenchmarkTest.class);
+
+    @Autowired
+    private GlyphRepository glyphRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private final List<Long> projectIds = new ArrayList<>();
+
+    @BeforeEach
+    void createProjects() {
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (email, nickname) VALUES (?, 'mailbox-bench') RETURNING id", Long.class,
+                "mailbox-bench-" + System.nanoTime() + "@test.local");
+        for (int i = 0; i < SLOW_PROJECTS + FAST_PROJECTS; i++) {
+            Long projectId = jdbcTemplate.queryForObject(
+                    "INSERT INTO font_project (title, owner_id) VALUES ('Mailbox Benchmark', ?) RETURNING project_id", Long.class,
+                    userId);
+            projectIds.add(projectId);
+            for (int g = 0; g < GLYPHS; g++) {
+                glyphRepository.upsertOutline(projectId, "g" + g, outline(g), 600, null, 0L);
+            }
+        }
+    }
+
+    @AfterEach
+    void deleteProjects() {
+        // font_project, glyph 는 ON DELETE CASCADE
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void virtualThreadsKeepSlowQueriesFromStallingOtherProjects() throws Exception {
+        double[] platform = run("platform threads", false);
+        double[] virtual = run("virtual threads", true);
+
+        log.info("p99 handler latency: platform {} ms, virtual {} ms ({}x)",
+                String.format("%.1f", platform[1]), String.format("%.1f", virtual[1]), String.format("%.1f", platform[1] / virtual[1]));
+        assertTrue(virtual[1] < platform[1], "virtual threads p99 " + virtual[1] + " ms >= platform " + platform[1] + " ms");
+    }
+
+    // Returns {p50, p99} in ms of the read/write tasks
+    private double[] run(String label, boolean virtualThreads) throws Exception {
+        ProjectMailboxExecutor mailboxes = new ProjectMailboxExecutor(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(mailboxes, "threads", PLATFORM_THREADS);
+        ReflectionTestUtils.setField(mailboxes, "batchSize", 64);
+        ReflectionTestUtils.setField(mailboxes, "idleMs", 600_000L);
+        ReflectionTestUtils.setField(mailboxes, "virtualThreads", virtualThreads);
+        mailboxes.start();
+
+        List<Long> slowProjects = projectIds.subList(0, SLOW_PROJECTS);
+        List<Long> fastProjects = projectIds.subList(SLOW_PROJECTS, projectIds.size());
+        ConcurrentLinkedQueue<Long> latenciesNanos = new ConcurrentLinkedQueue<>();
+        int submitted = 0;
+        long lastSlow = 0;
+        try {
+            long started = System.currentTimeMillis();
+            while (System.currentTimeMillis() - started < RUN_MS) {
+                long now = System.currentTimeMillis();
+                if (now - lastSlow >= SLOW_INTERVAL_MS) {
+                    lastSlow = now;
+                    for (Long projectId : slowProjects) {
+                        mailboxes.submit(projectId, () -> jdbcTemplate.execute("SELECT pg_sleep(0.2)"));
+                    }
+                }
+                for (Long projectId : fastProjects) {
+                    long enqueued = System.nanoTime();
+                    boolean write = ThreadLocalRandom.current().nextInt(4) == 0;
+                    mailboxes.submit(projectId, () -> {
+                        int g = ThreadLocalRandom.current().nextInt(GLYPHS);
+                        if (write) {
+                            glyphRepository.upsertOutline(projectId, "g" + g, outline(ThreadLocalRandom.current().nextInt(1000)), 600, null, 0L);
+                        } else {
+                            glyphRepository.findByProjectAndName(projectId, "g" + g);
+                        }
+                        latenciesNanos.add(System.nanoTime() - enqueued);
+                    });
+                    submitted++;
+                }
+                Thread.sleep(FAST_INTERVAL_MS);
+            }
+
+            // Everything submitted before this runs first (one marker per project)
+            CountDownLatch drained = new CountDownLatch(projectIds.size());
+            projectIds.forEach(projectId -> mailboxes.submit(projectId, drained::countDown));
+            assertTrue(drained.await(60, TimeUnit.SECONDS), label + ": mailboxes did not drain");
+        } finally {
+            mailboxes.stop();
+        }
+
+        List<Long> sorted = new ArrayList<>(latenciesNanos);
+        Collections.sort(sorted);
+        double p50 = sorted.get(sorted.size() / 2) / 1e6;
+        double p99 = sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1) / 1e6;
+        log.info("{}: {} read/write tasks ({} submitted), p50 {} ms, p99 {} ms",
+                label, sorted.size(), submitted, String.format("%.1f", p50), String.format("%.1f", p99));
+        return new double[]{p50, p99};
+    }
+
+    private static String outline(int x) {
+        return "{\"contours\":[{\"points\":[{\"x\":" + x + ",\"y\":0,\"type\":\"line\"}]}],\"components\":[]}";
+    }
+}